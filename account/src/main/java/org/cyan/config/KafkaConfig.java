@@ -1,15 +1,35 @@
 package org.cyan.config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.cyan.core.event.model.AliasCreatedEvent;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.cyan.core.event.KeyOrderedExecutor;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.kafka.EventDeserializer;
+import org.cyan.events.kafka.EventSerializer;
+import org.cyan.events.model.AliasCreatedEvent;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -22,20 +42,53 @@ public class KafkaConfig {
     @Value("${app.kafka.topics.alias-created}")
     private String aliasCreatedTopic;
 
+    @Value("${app.kafka.parallel.enabled:false}")
+    private boolean parallelEnabled;
+
     @Bean
     public ConsumerFactory<String, AliasCreatedEvent> aliasCreatedConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "account-service-group");
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "org.cyan.core.event.model");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
 
         return new DefaultKafkaConsumerFactory<>(
                 props,
                 new StringDeserializer(),
-                new JsonDeserializer<>(AliasCreatedEvent.class));
+                // Binary events, and JSON ones written before the binary format. A payload that
+                // does not decode reaches the error handler instead of failing every poll.
+                new ErrorHandlingDeserializer<>(new EventDeserializer<>(EventCodecs.ALIAS_CREATED)));
+    }
+
+    /**
+     * Spring Boot's template, declared here because Boot backs off as soon as any other
+     * {@link KafkaTemplate} bean exists.
+     */
+    @Bean
+    @Primary
+    public KafkaTemplate<?, ?> kafkaTemplate(ProducerFactory<Object, Object> kafkaProducerFactory) {
+        return new KafkaTemplate<>(kafkaProducerFactory);
+    }
+
+    /**
+     * Moves alias created records to retry and dead-letter topics: events in the binary event
+     * format, and payloads that could not be deserialized as their original bytes.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> aliasEventRetryKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        Map<Class<?>, Serializer<?>> serializers = Map.of(
+                byte[].class, new ByteArraySerializer(),
+                AliasCreatedEvent.class, new EventSerializer());
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                props, new StringSerializer(), new DelegatingByTypeSerializer(serializers)));
+    }
+
+    @Bean
+    public BackOff aliasEventRetryBackOff(@Value("${app.kafka.retry.interval-ms:1000}") long intervalMs,
+                                          @Value("${app.kafka.retry.max-retries:9}") long maxRetries) {
+        return new FixedBackOff(intervalMs, maxRetries);
     }
 
     @Bean
@@ -43,6 +96,36 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, AliasCreatedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(aliasCreatedConsumerFactory());
+        // No error handler here: the retry topic setup gives each container one that forwards a
+        // failed record to the next retry topic or the dead-letter topic.
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // Out-of-order acks from the worker lanes: commits wait for gaps to fill, and the consumer
+        // pauses until every record of the previous poll is acknowledged.
+        factory.getContainerProperties().setAsyncAcks(parallelEnabled);
         return factory;
     }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, AliasCreatedEvent> aliasCreatedBatchKafkaListenerContainerFactory(
+            BackOff aliasEventRetryBackOff, KafkaTemplate<String, Object> aliasEventRetryKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, AliasCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(aliasCreatedConsumerFactory());
+        factory.setBatchListener(true);
+        // Retries from the record named by a BatchListenerFailedException, or the whole batch
+        // otherwise; batch listeners cannot use retry topics, so exhausted records go straight to
+        // the dead-letter topic the record listener's retry topics end in.
+        DeadLetterPublishingRecoverer deadLetters = new DeadLetterPublishingRecoverer(aliasEventRetryKafkaTemplate,
+                (record, e) -> new TopicPartition(aliasCreatedTopic + "-dlt", -1));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetters, aliasEventRetryBackOff));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.kafka.parallel", name = "enabled", havingValue = "true")
+    public KeyOrderedExecutor aliasEventExecutor(@Value("${app.kafka.parallel.lanes:16}") int lanes,
+                                                 @Value("${app.kafka.parallel.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        return new KeyOrderedExecutor("alias-event", lanes, shutdownTimeoutMs);
+    }
 }
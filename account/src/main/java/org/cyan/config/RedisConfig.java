@@ -1,24 +1,90 @@
 package org.cyan.config;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.cyan.config.cache.AccountResponseCodec;
+import org.cyan.config.cache.BulkRedisCacheManager;
+import org.cyan.config.cache.CompactRedisSerializer;
+import org.cyan.config.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
 
+/**
+ * Caches live in Redis. Unless {@code app.cache.local.enabled=false}, each instance also keeps a
+ * small, short-lived copy of hot entries in memory, invalidated through Redis pub/sub. Values are
+ * stored in a compact binary form ({@code app.cache.codec=binary}) or as JSON ({@code json}); the
+ * binary serializer still reads JSON entries, so switching to it needs no flush.
+ */
 @Configuration
 @EnableCaching
 public class RedisConfig {
     @Bean
-    public RedisCacheConfiguration cacheConfiguration() {
+    public RedisSerializer<Object> cacheValueSerializer(@Value("${app.cache.codec:binary}") String codec) {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        return switch (codec) {
+            case "binary" -> new CompactRedisSerializer(List.of(new AccountResponseCodec()), json);
+            case "json" -> json;
+            default -> throw new IllegalArgumentException("Unknown app.cache.codec: " + codec);
+        };
+    }
+
+    @Bean
+    public RedisCacheConfiguration cacheConfiguration(RedisSerializer<Object> cacheValueSerializer) {
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .disableCachingNullValues()
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                        .fromSerializer(cacheValueSerializer));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.local", name = "enabled", havingValue = "false")
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               RedisCacheConfiguration cacheConfiguration) {
+        return redisOnly(connectionFactory, cacheConfiguration);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.local", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public TwoLevelCacheManager twoLevelCacheManager(RedisConnectionFactory connectionFactory,
+                                                     RedisCacheConfiguration cacheConfiguration,
+                                                     StringRedisTemplate redisTemplate,
+                                                     MeterRegistry meterRegistry,
+                                                     @Value("${app.cache.local.max-entries:10000}") int maxEntries,
+                                                     @Value("${app.cache.local.ttl:5s}") Duration ttl,
+                                                     @Value("${app.cache.invalidation-channel:account-cache-invalidation}") String channel) {
+        return new TwoLevelCacheManager(redisOnly(connectionFactory, cacheConfiguration), redisTemplate, channel, maxEntries, ttl, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.local", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager twoLevelCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(twoLevelCacheManager, new ChannelTopic(twoLevelCacheManager.getChannel()));
+        return container;
+    }
+
+    private static RedisCacheManager redisOnly(RedisConnectionFactory connectionFactory,
+                                               RedisCacheConfiguration cacheConfiguration) {
+        RedisCacheManager cacheManager = new BulkRedisCacheManager(connectionFactory, cacheConfiguration);
+        cacheManager.initializeCaches();
+        return cacheManager;
     }
 }
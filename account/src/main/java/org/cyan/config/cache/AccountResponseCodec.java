@@ -0,0 +1,71 @@
+package org.cyan.config.cache;
+
+import org.cyan.in.model.AccountResponse;
+
+/**
+ * Version 1: a presence bitmask, then id (varint), alias, bank name (length-prefixed UTF-8) and
+ * balance (zigzag varint minor units), each only if present: roughly a third of the JSON form,
+ * which repeats the class and field names in every value.
+ */
+public class AccountResponseCodec implements BinaryCodec<AccountResponse> {
+
+    private static final int ID = 1;
+    private static final int ALIAS = 1 << 1;
+    private static final int BANK_NAME = 1 << 2;
+    private static final int BALANCE = 1 << 3;
+
+    @Override
+    public Class<AccountResponse> type() {
+        return AccountResponse.class;
+    }
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(AccountResponse value, BinaryWriter out) {
+        int present = (value.getId() != null ? ID : 0)
+                | (value.getAlias() != null ? ALIAS : 0)
+                | (value.getBankName() != null ? BANK_NAME : 0)
+                | (value.getBalance() != null ? BALANCE : 0);
+        out.writeByte(present);
+        if ((present & ID) != 0) {
+            out.writeVarLong(value.getId());
+        }
+        if ((present & ALIAS) != 0) {
+            out.writeString(value.getAlias());
+        }
+        if ((present & BANK_NAME) != 0) {
+            out.writeString(value.getBankName());
+        }
+        if ((present & BALANCE) != 0) {
+            out.writeSignedVarLong(value.getBalance());
+        }
+    }
+
+    @Override
+    public AccountResponse read(int version, BinaryReader in) {
+        int present = in.readByte();
+        AccountResponse value = new AccountResponse();
+        if ((present & ID) != 0) {
+            value.setId(in.readVarLong());
+        }
+        if ((present & ALIAS) != 0) {
+            value.setAlias(in.readString());
+        }
+        if ((present & BANK_NAME) != 0) {
+            value.setBankName(in.readString());
+        }
+        if ((present & BALANCE) != 0) {
+            value.setBalance(in.readSignedVarLong());
+        }
+        return value;
+    }
+}
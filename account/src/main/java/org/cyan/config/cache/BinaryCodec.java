@@ -0,0 +1,24 @@
+package org.cyan.config.cache;
+
+/**
+ * Binary form of one cached type for {@link CompactRedisSerializer}.
+ * <p>
+ * Schemas evolve by appending fields and bumping {@link #version()}. A reader gets the version the
+ * value was written with and defaults the fields that version did not have; fields appended by a
+ * newer writer are left unread, so old and new instances can share the cache during a rollout.
+ * Removing, reordering or retyping a field needs a new {@link #typeId()} instead.
+ */
+public interface BinaryCodec<T> {
+
+    Class<T> type();
+
+    /** Identifies the type in the stored value; never reuse one for a different type. */
+    int typeId();
+
+    /** Schema version written by {@link #write}, from 1 to 255. */
+    int version();
+
+    void write(T value, BinaryWriter out);
+
+    T read(int version, BinaryReader in);
+}
@@ -0,0 +1,60 @@
+package org.cyan.config.cache;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/** Reads what {@link BinaryWriter} wrote; running past the end is a {@link SerializationException}. */
+public final class BinaryReader {
+
+    private final byte[] bytes;
+    private int position;
+
+    BinaryReader(byte[] bytes, int position) {
+        this.bytes = bytes;
+        this.position = position;
+    }
+
+    /** Whether fields remain; fields added by a newer writer are simply left unread. */
+    public boolean hasRemaining() {
+        return position < bytes.length;
+    }
+
+    public int readByte() {
+        require(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint at byte " + position);
+    }
+
+    public long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() {
+        long length = readVarLong();
+        if (length > bytes.length - position) {
+            throw new SerializationException("String of " + length + " bytes runs past the end of the value");
+        }
+        String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private void require(int count) {
+        if (position + count > bytes.length) {
+            throw new SerializationException("Value truncated at byte " + position);
+        }
+    }
+}
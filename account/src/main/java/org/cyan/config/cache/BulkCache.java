@@ -0,0 +1,13 @@
+package org.cyan.config.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/** A cache that can read and write many keys in one round trip. */
+public interface BulkCache {
+
+    /** The cached values of those {@code keys} that are present, keyed by the given key objects. */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    void putAll(Map<?, ?> values);
+}
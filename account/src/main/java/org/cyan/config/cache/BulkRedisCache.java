@@ -0,0 +1,79 @@
+package org.cyan.config.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RedisCache} that also reads many keys with one {@code MGET} and writes many with one
+ * pipeline of {@code SET ... PX}, using the same key prefix, serializers and time-to-live as the
+ * single-key operations.
+ */
+public class BulkRedisCache extends RedisCache implements BulkCache {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    BulkRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+                   RedisConnectionFactory connectionFactory) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = new byte[keyList.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = serializeCacheKey(createCacheKey(keyList.get(i)));
+        }
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+        Map<Object, Object> values = new HashMap<>();
+        for (int i = 0; rawValues != null && i < rawValues.size(); i++) {
+            byte[] rawValue = rawValues.get(i);
+            if (rawValue != null) {
+                values.put(keyList.get(i), deserializeCacheValue(rawValue));
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        Duration ttl = getCacheConfiguration().getTtl();
+        Expiration expiration = ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                values.forEach((key, value) -> {
+                    Object stored = preProcessCacheValue(value);
+                    if (stored != null) {
+                        connection.stringCommands().set(serializeCacheKey(createCacheKey(key)),
+                                serializeCacheValue(stored), expiration, SetOption.upsert());
+                    }
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+}
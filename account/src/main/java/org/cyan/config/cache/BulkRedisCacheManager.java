@@ -0,0 +1,30 @@
+package org.cyan.config.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/** A {@link RedisCacheManager} whose caches are {@link BulkRedisCache}s. */
+public class BulkRedisCacheManager extends RedisCacheManager {
+
+    private final RedisCacheWriter cacheWriter;
+    private final RedisConnectionFactory connectionFactory;
+
+    public BulkRedisCacheManager(RedisConnectionFactory connectionFactory, RedisCacheConfiguration defaultCacheConfiguration) {
+        this(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory), connectionFactory, defaultCacheConfiguration);
+    }
+
+    private BulkRedisCacheManager(RedisCacheWriter cacheWriter, RedisConnectionFactory connectionFactory,
+                                  RedisCacheConfiguration defaultCacheConfiguration) {
+        super(cacheWriter, defaultCacheConfiguration);
+        this.cacheWriter = cacheWriter;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+        return new BulkRedisCache(name, cacheWriter, cacheConfiguration, connectionFactory);
+    }
+}
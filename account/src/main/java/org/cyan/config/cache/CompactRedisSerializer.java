@@ -0,0 +1,73 @@
+package org.cyan.config.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes values that have a {@link BinaryCodec} as a magic byte, the codec's type id (varint), its
+ * schema version and the codec's fields; no class names and no field names. Everything else, and
+ * every stored value without the magic byte such as JSON written before this serializer was
+ * enabled, goes through {@code fallback}.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    /** Not valid as the first byte of UTF-8 text, so it cannot be confused with a JSON value. */
+    static final int MAGIC = 0xC1;
+
+    private final Map<Class<?>, BinaryCodec<?>> byType = new HashMap<>();
+    private final Map<Integer, BinaryCodec<?>> byTypeId = new HashMap<>();
+    private final RedisSerializer<Object> fallback;
+
+    public CompactRedisSerializer(List<BinaryCodec<?>> codecs, RedisSerializer<Object> fallback) {
+        for (BinaryCodec<?> codec : codecs) {
+            if (codec.version() < 1 || codec.version() > 255) {
+                throw new IllegalArgumentException("Schema version of " + codec.type() + " must be 1-255");
+            }
+            if (byTypeId.put(codec.typeId(), codec) != null) {
+                throw new IllegalArgumentException("Type id " + codec.typeId() + " is used twice");
+            }
+            byType.put(codec.type(), codec);
+        }
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return fallback.serialize(null);
+        }
+        BinaryCodec<?> codec = byType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        BinaryWriter out = new BinaryWriter(64);
+        out.writeByte(MAGIC);
+        out.writeVarLong(codec.typeId());
+        out.writeByte(codec.version());
+        write(codec, value, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || (bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        BinaryReader in = new BinaryReader(bytes, 1);
+        long typeId = in.readVarLong();
+        BinaryCodec<?> codec = byTypeId.get((int) typeId);
+        if (codec == null) {
+            throw new SerializationException("No codec for cached type id " + typeId);
+        }
+        return codec.read(in.readByte(), in);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void write(BinaryCodec<T> codec, Object value, BinaryWriter out) {
+        codec.write((T) value, out);
+    }
+}
@@ -0,0 +1,149 @@
+package org.cyan.config.cache;
+
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process store with a fixed time-to-live per entry. Keys are spread over lock-striped
+ * LRU maps, so readers of different keys rarely contend; locks rather than {@code synchronized}
+ * keep virtual threads from pinning. Every invalidation bumps a generation so a value read from
+ * Redis before the invalidation cannot be stored after it.
+ */
+class LocalCache {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong generation = new AtomicLong();
+
+    LocalCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    LocalCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        int perStripe = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /** The live value of {@code key}, or {@code null} if absent or expired. */
+    ValueWrapper get(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - entry.expiresAt >= 0) {
+                stripe.remove(key);
+                return null;
+            }
+            return entry.value;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Read before fetching a value elsewhere, then passed to {@link #putIfCurrent}. */
+    long generation() {
+        return generation.get();
+    }
+
+    void put(String key, ValueWrapper value) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.put(key, new Entry(value, nanoClock.getAsLong() + ttlNanos));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /** Stores {@code value} unless anything was invalidated since {@code generation} was read. */
+    boolean putIfCurrent(String key, ValueWrapper value, long generation) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            if (this.generation.get() != generation) {
+                return false;
+            }
+            stripe.put(key, new Entry(value, nanoClock.getAsLong() + ttlNanos));
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void invalidate(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            // Under the stripe lock, so a concurrent putIfCurrent either lands before the removal or fails.
+            generation.incrementAndGet();
+            stripe.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void clear() {
+        generation.incrementAndGet();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(String key) {
+        int h = key.hashCode();
+        return stripes[Math.floorMod(h ^ (h >>> 16), STRIPES)];
+    }
+
+    private record Entry(ValueWrapper value, long expiresAt) {
+    }
+
+    /** Access-ordered map that drops its least recently used entry when full. */
+    private static final class Stripe extends LinkedHashMap<String, Entry> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.cyan.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link LocalCache} in front of a shared cache. Reads try the local level first and fill it
+ * from the shared one; writes go to both. Evictions also go to {@code invalidations}, which tells
+ * the other instances to drop their local copy. Local values are shared between callers, so they
+ * must not be modified. Bulk reads and writes use the shared cache's {@link BulkCache} operations
+ * when it has them.
+ * <p>
+ * Lookups are counted per level as {@code cache.level.gets{cache, level=local|remote, result=hit|miss}}.
+ */
+public class TwoLevelCache implements Cache, BulkCache {
+
+    private final Cache remote;
+    private final LocalCache local;
+    private final BiConsumer<String, String> invalidations;
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    /**
+     * @param invalidations receives the cache name and the evicted key, or {@code null} for a clear
+     */
+    TwoLevelCache(Cache remote, LocalCache local, BiConsumer<String, String> invalidations, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.local = local;
+        this.invalidations = invalidations;
+        String name = remote.getName();
+        this.localHits = meterRegistry.counter("cache.level.gets", "cache", name, "level", "local", "result", "hit");
+        this.localMisses = meterRegistry.counter("cache.level.gets", "cache", name, "level", "local", "result", "miss");
+        this.remoteHits = meterRegistry.counter("cache.level.gets", "cache", name, "level", "remote", "result", "hit");
+        this.remoteMisses = meterRegistry.counter("cache.level.gets", "cache", name, "level", "remote", "result", "miss");
+        Gauge.builder("cache.level.size", local, LocalCache::size)
+                .tags("cache", name, "level", "local")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper value = local.get(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        localMisses.increment();
+        long generation = local.generation();
+        value = remote.get(key);
+        if (value == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        local.putIfCurrent(localKey, value, generation);
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        long generation = local.generation();
+        T value = remote.get(key, valueLoader);
+        local.putIfCurrent(localKey(key), new SimpleValueWrapper(value), generation);
+        return value;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> values = new HashMap<>();
+        List<Object> misses = new ArrayList<>();
+        for (Object key : keys) {
+            ValueWrapper value = local.get(localKey(key));
+            if (value != null) {
+                values.put(key, value.get());
+            } else {
+                misses.add(key);
+            }
+        }
+        localHits.increment(values.size());
+        localMisses.increment(misses.size());
+        if (misses.isEmpty()) {
+            return values;
+        }
+
+        long generation = local.generation();
+        Map<Object, Object> fetched;
+        if (remote instanceof BulkCache bulk) {
+            fetched = bulk.getAll(misses);
+        } else {
+            fetched = new HashMap<>();
+            for (Object key : misses) {
+                ValueWrapper value = remote.get(key);
+                if (value != null) {
+                    fetched.put(key, value.get());
+                }
+            }
+        }
+        remoteHits.increment(fetched.size());
+        remoteMisses.increment(misses.size() - fetched.size());
+        fetched.forEach((key, value) -> local.putIfCurrent(localKey(key), new SimpleValueWrapper(value), generation));
+        values.putAll(fetched);
+        return values;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> values) {
+        if (remote instanceof BulkCache bulk) {
+            bulk.putAll(values);
+        } else {
+            values.forEach(remote::put);
+        }
+        values.forEach((key, value) -> local.put(localKey(key), new SimpleValueWrapper(value)));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return remote.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictLocal(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        evictLocal(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        clearLocal();
+        return present;
+    }
+
+    /** Drops a key from this instance's local level only, on a peer's request. */
+    void onRemoteEvict(String key) {
+        local.invalidate(key);
+    }
+
+    /** Empties this instance's local level only, on a peer's request. */
+    void onRemoteClear() {
+        local.clear();
+    }
+
+    private void evictLocal(Object key) {
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        invalidations.accept(getName(), localKey);
+    }
+
+    private void clearLocal() {
+        local.clear();
+        invalidations.accept(getName(), null);
+    }
+
+    /** Redis keys are strings too, so both levels agree on which keys are equal. */
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,94 @@
+package org.cyan.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of a shared cache manager in a {@link TwoLevelCache}. Evictions are published
+ * on a Redis channel as {@code <cache>:<key>}, or just {@code <cache>} for a clear; every instance,
+ * this one included, subscribes and drops the matching local entries. A message lost while Redis
+ * is unreachable leaves a peer's entry stale for at most the local time-to-live.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+    private final Counter received;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, String channel,
+                                int maxEntries, Duration ttl, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.meterRegistry = meterRegistry;
+        this.received = meterRegistry.counter("cache.level.invalidations");
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n ->
+                new TwoLevelCache(remoteCache, new LocalCache(maxEntries, ttl), this::publish, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        received.increment();
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        TwoLevelCache cache = caches.get(separator < 0 ? body : body.substring(0, separator));
+        if (cache == null) {
+            return;
+        }
+        if (separator < 0) {
+            cache.onRemoteClear();
+        } else {
+            cache.onRemoteEvict(body.substring(separator + 1));
+        }
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, key == null ? cacheName : cacheName + ":" + key);
+        } catch (RuntimeException e) {
+            // The write itself succeeded; peers fall back to the local time-to-live.
+            log.warn("Could not publish invalidation of {} in cache {}", key, cacheName, e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.Account;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC operations for creating accounts in bulk. Every method is meant to run inside the caller's
+ * transaction; each one is a single round trip however many aliases it is given.
+ */
+@Repository
+public class AccountBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AccountBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** The subset of {@code aliases} that already has an account. */
+    public Set<String> findExistingAliases(Collection<String> aliases) {
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT alias FROM account WHERE alias IN (:aliases)",
+                new MapSqlParameterSource("aliases", aliases),
+                rs -> {
+                    existing.add(rs.getString("alias"));
+                });
+        return existing;
+    }
+
+    /**
+     * Inserts an empty account for every alias, skipping aliases that already have one, and returns
+     * the accounts this call created. An alias inserted concurrently by someone else is skipped, not
+     * returned.
+     */
+    public List<Account> insertIfAbsent(List<String> aliases, String bankName) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        MapSqlParameterSource[] params = new MapSqlParameterSource[aliases.size()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = new MapSqlParameterSource()
+                    .addValue("alias", aliases.get(i))
+                    .addValue("bankName", bankName)
+                    .addValue("now", now);
+        }
+        int[] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO account (alias, bank_name, balance, created_at, updated_at, version) "
+                        + "VALUES (:alias, :bankName, 0, :now, :now, 0) ON CONFLICT (alias) DO NOTHING",
+                params);
+
+        // One count per row, 0 on conflict. Needs a driver that reports counts, so this datasource
+        // must not use reWriteBatchedInserts, which reports SUCCESS_NO_INFO instead.
+        List<String> inserted = new ArrayList<>(aliases.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                inserted.add(aliases.get(i));
+            }
+        }
+        if (inserted.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, alias, bank_name, balance, created_at, updated_at, version FROM account WHERE alias IN (:aliases)",
+                new MapSqlParameterSource("aliases", inserted),
+                (rs, rowNum) -> Account.builder()
+                        .id(rs.getLong("id"))
+                        .alias(rs.getString("alias"))
+                        .bankName(rs.getString("bank_name"))
+                        .balance(rs.getLong("balance"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                        .version(rs.getLong("version"))
+                        .build());
+    }
+}
@@ -0,0 +1,52 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * Reads the account table in id order for exports. Rows are handed over one at a time and never
+ * collected, and the driver fetches them {@code app.export.fetch-size} at a time through a
+ * server-side cursor, which PostgreSQL only opens inside a transaction.
+ */
+@Repository
+public class AccountExportRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AccountExportRepository(DataSource dataSource, @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        // A template of its own, so the fetch size does not apply to other queries.
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /** Passes up to {@code limit} accounts with {@code id > afterId} to {@code consumer}, by ascending id. */
+    public void forEachAfter(long afterId, int limit, Consumer<Account> consumer) {
+        jdbcTemplate.query(
+                "SELECT id, alias, bank_name, balance, created_at, updated_at FROM account "
+                        + "WHERE id > :afterId ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource()
+                        .addValue("afterId", afterId)
+                        .addValue("limit", limit),
+                rs -> {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    Timestamp updatedAt = rs.getTimestamp("updated_at");
+                    consumer.accept(Account.builder()
+                            .id(rs.getLong("id"))
+                            .alias(rs.getString("alias"))
+                            .bankName(rs.getString("bank_name"))
+                            .balance(rs.getLong("balance"))
+                            .createdAt(createdAt == null ? null : createdAt.toLocalDateTime())
+                            .updatedAt(updatedAt == null ? null : updatedAt.toLocalDateTime())
+                            .build());
+                });
+    }
+}
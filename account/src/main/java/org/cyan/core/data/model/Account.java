@@ -8,7 +8,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -27,8 +26,9 @@ public class Account {
     @Column(nullable = false)
     private String bankName;
 
+    /** Minor units, see {@link org.cyan.events.money.Money}. */
     @Column(nullable = false)
-    private BigDecimal balance;
+    private Long balance;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
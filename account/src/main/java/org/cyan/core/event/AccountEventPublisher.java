@@ -0,0 +1,136 @@
+package org.cyan.core.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.model.Account;
+import org.cyan.events.model.AccountEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes account events without waiting for the broker. Inside a transaction the event is sent
+ * once it commits, so a rolled-back write publishes nothing and the write never waits on an ack;
+ * the producer batches, lingers and compresses as configured under {@code spring.kafka.producer}.
+ * <p>
+ * At most {@code app.kafka.publisher.max-in-flight} events are unacknowledged at once. When the
+ * window is full, callers wait up to {@code app.kafka.publisher.acquire-timeout-ms} for a slot, so
+ * a slow broker slows writers down instead of filling the heap; an event that gets no slot in time
+ * is rejected. Every outcome is counted as {@code account.events.publish{topic, result=sent|failed|rejected}}
+ * and logged with the event when it is not {@code sent}; ack latency is timed as
+ * {@code account.events.publish.latency{topic}}.
+ */
+@Component
+@Slf4j
+public class AccountEventPublisher {
+
+    private final KafkaTemplate<String, AccountEvent> kafkaTemplate;
+    private final String topic;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+    private final Semaphore window;
+    private final Timer latency;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public AccountEventPublisher(KafkaTemplate<String, AccountEvent> kafkaTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.kafka.topics.account-events:account-events-topic}") String topic,
+                                 @Value("${app.kafka.publisher.max-in-flight:1000}") int maxInFlight,
+                                 @Value("${app.kafka.publisher.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.window = new Semaphore(maxInFlight);
+        this.latency = meterRegistry.timer("account.events.publish.latency", "topic", topic);
+        this.sent = meterRegistry.counter("account.events.publish", "topic", topic, "result", "sent");
+        this.failed = meterRegistry.counter("account.events.publish", "topic", topic, "result", "failed");
+        this.rejected = meterRegistry.counter("account.events.publish", "topic", topic, "result", "rejected");
+        Gauge.builder("account.events.publish.in-flight", this, AccountEventPublisher::inFlight)
+                .tags("topic", topic)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes the event keyed by account id, so every event of an account lands on one partition
+     * in order: after the current transaction commits, or right away outside one.
+     */
+    public void publish(Account account, String eventType) {
+        AccountEvent event = AccountEvent.builder()
+                .accountId(account.getId())
+                .eventType(eventType)
+                .balance(account.getBalance())
+                .build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    int inFlight() {
+        return maxInFlight - window.availablePermits();
+    }
+
+    private void send(AccountEvent event) {
+        if (!acquire()) {
+            rejected.increment();
+            log.error("Account event not published, {} sends already in flight: {}", maxInFlight, event);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(topic, String.valueOf(event.getAccountId()), event)
+                    .whenComplete((result, error) -> {
+                        window.release();
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (error == null) {
+                            sent.increment();
+                        } else {
+                            failed.increment();
+                            log.error("Account event not published: {}", event, error);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // Serialization failures and a full producer buffer surface here, not in the future.
+            window.release();
+            failed.increment();
+            log.error("Account event not published: {}", event, e);
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return window.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Gives the sends still in flight a chance to complete before the producer closes. */
+    @PreDestroy
+    void drain() throws InterruptedException {
+        if (window.tryAcquire(maxInFlight, acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            window.release(maxInFlight);
+        } else {
+            log.warn("Shutting down with {} account events unacknowledged", inFlight());
+        }
+    }
+}
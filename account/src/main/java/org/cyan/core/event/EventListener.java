@@ -1,67 +1,365 @@
 package org.cyan.core.event;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.cyan.core.data.AccountBatchRepository;
 import org.cyan.core.data.AccountRepository;
 import org.cyan.core.data.model.Account;
-import org.cyan.core.event.model.AccountEvent;
-import org.cyan.core.event.model.AliasCreatedEvent;
+import org.cyan.events.model.AccountEvent;
+import org.cyan.events.model.AliasCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.retrytopic.DltStrategy;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.lang.Nullable;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Creates an account for every new alias. Records are acknowledged manually: one after another on
+ * the listener thread by default, or, with {@code app.kafka.parallel.enabled=true}, from a
+ * {@link KeyOrderedExecutor} lane chosen by alias, so records of one alias stay in order while a
+ * single partition keeps several database connections busy. The container commits acknowledged
+ * offsets only up to the first record still in flight.
+ * <p>
+ * A record is acknowledged only once its account is committed and its event acknowledged by the
+ * broker. A record that fails on the listener thread is handed to the next retry topic
+ * ({@code <topic>-retry-0}, {@code -retry-1}, ...) and consumed again there after an exponentially
+ * growing delay ({@code app.kafka.retry-topics}), so the records behind it keep flowing; after the
+ * last attempt it lands in {@code <topic>-dlt}. Payloads that cannot be deserialized go straight
+ * to the dead-letter topic. On a lane, failures are retried in place with {@code app.kafka.retry}
+ * backoff, holding only that lane, and a record that still fails is sent to {@code <topic>-dlt}
+ * itself, again and again every {@code app.kafka.retry.interval-ms} until the dead-letter topic
+ * takes it; only then is it acknowledged, so a record is never left behind unacknowledged while
+ * the container runs. Creation is idempotent per alias, so a retry or a redelivery never creates a
+ * second account.
+ * <p>
+ * Every tier is metered by topic: {@code account.alias-events.attempts} and
+ * {@code account.alias-events.failures}; records reaching the dead-letter topic count as
+ * {@code account.alias-events{result=failed}}.
+ * <p>
+ * With {@code app.kafka.batch.enabled=true} the records are consumed in batches of up to
+ * {@code app.kafka.batch.max-records} instead: one {@code IN} query finds the aliases that already
+ * have an account, one JDBC batch inserts the rest and their events go out as one producer batch,
+ * all in one transaction. A failed batch is retried record by record, so one bad record does not
+ * hold back the others; a record that still fails is retried with {@code app.kafka.retry} backoff,
+ * then moved to the dead-letter topic.
+ */
 @Service
 @Slf4j
 public class EventListener {
 
+    static final String DEFAULT_BANK_NAME = "Default Bank";
+
     private final AccountRepository accountRepository;
+    private final AccountBatchRepository accountBatchRepository;
     private final KafkaTemplate<String, AccountEvent> kafkaTemplate;
+    private final KafkaTemplate<String, Object> deadLetterTemplate;
+    private final String deadLetterTopic;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+    private final KeyOrderedExecutor executor;
+    private final BackOff retryBackOff;
+    private final long sendTimeoutMs;
+    private final long deadLetterRetryMs;
+    private final Counter created;
+    private final Counter existing;
+    private final Counter failed;
 
-    public EventListener(AccountRepository accountRepository, KafkaTemplate<String, AccountEvent> kafkaTemplate) {
+    public EventListener(AccountRepository accountRepository,
+                         AccountBatchRepository accountBatchRepository,
+                         KafkaTemplate<String, AccountEvent> kafkaTemplate,
+                         KafkaTemplate<String, Object> aliasEventRetryKafkaTemplate,
+                         @Value("${app.kafka.topics.alias-created}") String aliasCreatedTopic,
+                         TransactionOperations transactionOperations,
+                         MeterRegistry meterRegistry,
+                         BackOff aliasEventRetryBackOff,
+                         @Value("${app.kafka.retry.interval-ms:1000}") long deadLetterRetryMs,
+                         @Value("${app.kafka.send-timeout-ms:10000}") long sendTimeoutMs,
+                         @Nullable KeyOrderedExecutor aliasEventExecutor) {
         this.accountRepository = accountRepository;
+        this.accountBatchRepository = accountBatchRepository;
         this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterTemplate = aliasEventRetryKafkaTemplate;
+        this.deadLetterTopic = aliasCreatedTopic + "-dlt";
+        this.transactionOperations = transactionOperations;
+        this.meterRegistry = meterRegistry;
+        this.retryBackOff = aliasEventRetryBackOff;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.deadLetterRetryMs = deadLetterRetryMs;
+        this.executor = aliasEventExecutor;
+        this.created = meterRegistry.counter("account.alias-events", "result", "created");
+        this.existing = meterRegistry.counter("account.alias-events", "result", "existing");
+        this.failed = meterRegistry.counter("account.alias-events", "result", "failed");
     }
 
-    @KafkaListener(topics = "${app.kafka.topics.alias-created}", groupId = "account-service-group")
-    public void listenAliasCreatedEvent(AliasCreatedEvent event) {
-        log.info("Received AliasCreatedEvent: {}", event);
+    @RetryableTopic(
+            attempts = "${app.kafka.retry-topics.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${app.kafka.retry-topics.delay-ms:1000}",
+                    multiplierExpression = "${app.kafka.retry-topics.multiplier:5}",
+                    maxDelayExpression = "${app.kafka.retry-topics.max-delay-ms:60000}"),
+            numPartitions = "${app.kafka.retry-topics.partitions:3}",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            // A record the dead-letter handler cannot read is logged, not sent round again.
+            dltStrategy = DltStrategy.FAIL_ON_ERROR,
+            kafkaTemplate = "aliasEventRetryKafkaTemplate",
+            listenerContainerFactory = "aliasCreatedKafkaListenerContainerFactory")
+    @KafkaListener(topics = "${app.kafka.topics.alias-created}", groupId = "account-service-group",
+            containerFactory = "aliasCreatedKafkaListenerContainerFactory",
+            autoStartup = "#{!${app.kafka.batch.enabled:false}}")
+    public void onAliasCreated(ConsumerRecord<String, AliasCreatedEvent> record, Acknowledgment acknowledgment) {
+        AliasCreatedEvent event = record.value();
+        if (executor == null) {
+            meterRegistry.counter("account.alias-events.attempts", "topic", record.topic()).increment();
+            try {
+                listenAliasCreatedEvent(event);
+            } catch (RuntimeException e) {
+                // The error handler moves the record to the next retry topic or the dead-letter topic.
+                meterRegistry.counter("account.alias-events.failures", "topic", record.topic()).increment();
+                throw e;
+            }
+            acknowledgment.acknowledge();
+            return;
+        }
+        executor.execute(event == null ? record.key() : event.getAlias(), () -> {
+            if (processWithRetry(record)) {
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+
+    @KafkaListener(topics = "${app.kafka.topics.alias-created}", groupId = "account-service-group",
+            containerFactory = "aliasCreatedBatchKafkaListenerContainerFactory",
+            autoStartup = "${app.kafka.batch.enabled:false}",
+            properties = "max.poll.records=${app.kafka.batch.max-records:500}")
+    public void onAliasCreatedBatch(List<ConsumerRecord<String, AliasCreatedEvent>> records) {
         try {
-            processAliasCreation(event);
-        } catch (Exception e) {
-            log.error("Error processing alias created event: {}", event, e);
-            // Implement retry or dead-letter queue logic here
+            processAliasCreations(records.stream().map(ConsumerRecord::value).toList());
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} alias created events failed, retrying them one at a time", records.size(), e);
+            for (ConsumerRecord<String, AliasCreatedEvent> record : records) {
+                try {
+                    listenAliasCreatedEvent(record.value());
+                } catch (RuntimeException recordFailure) {
+                    // The error handler commits the records before this one and retries from here.
+                    throw new BatchListenerFailedException("Alias created event failed", recordFailure, record);
+                }
+            }
+        }
+    }
 
+    public void listenAliasCreatedEvent(AliasCreatedEvent event) {
+        log.info("Received AliasCreatedEvent: {}", event);
+        if (event == null || event.getAlias() == null) {
+            // Retrying cannot fix the payload.
+            failed.increment();
+            log.error("Skipping incomplete alias created event: {}", event);
+            return;
         }
+        processAliasCreation(event);
     }
-    @Transactional
+
+    /** Records whose retries are exhausted, or that could not be deserialized at all. */
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, AliasCreatedEvent> record, Acknowledgment acknowledgment) {
+        failed.increment();
+        log.error("Alias created event moved to {} after retries: key={}, value={}",
+                record.topic(), record.key(), record.value());
+        acknowledgment.acknowledge();
+    }
+
     public void processAliasCreation(AliasCreatedEvent event) {
         log.info("Processing alias creation event: {}", event);
 
-        // Check if account with this alias already exists
-        if (accountRepository.findByAlias(event.getAlias()).isEmpty()) {
+        transactionOperations.executeWithoutResult(status -> {
+            // Check if account with this alias already exists
+            if (accountRepository.findByAlias(event.getAlias()).isPresent()) {
+                existing.increment();
+                return;
+            }
             Account newAccount = Account.builder()
                     .alias(event.getAlias())
-                    .bankName("Default Bank") // Can be configured
-                    .balance(BigDecimal.ZERO)
+                    .bankName(DEFAULT_BANK_NAME)
+                    .balance(0L)
                     .build();
 
             Account savedAccount = accountRepository.save(newAccount);
             log.info("Created new account from alias event: {}", savedAccount);
 
+            // Inside the transaction: if the broker does not ack, the account is rolled back and retried.
             publishAccountEvent(savedAccount, "CREATED");
+            created.increment();
+        });
+    }
+
+    /**
+     * Creates the accounts of a batch of events in one transaction: aliases already taken and
+     * duplicates within the batch are skipped, the rest are inserted together and their events
+     * published together before the transaction commits.
+     */
+    public void processAliasCreations(List<AliasCreatedEvent> events) {
+        Set<String> aliases = new LinkedHashSet<>();
+        int valid = 0;
+        for (AliasCreatedEvent event : events) {
+            if (event == null || event.getAlias() == null) {
+                failed.increment();
+                log.error("Skipping incomplete alias created event: {}", event);
+                continue;
+            }
+            aliases.add(event.getAlias());
+            valid++;
         }
+        if (aliases.isEmpty()) {
+            return;
+        }
+        int processed = valid;
+
+        transactionOperations.executeWithoutResult(status -> {
+            Set<String> taken = accountBatchRepository.findExistingAliases(aliases);
+            List<String> missing = aliases.stream().filter(alias -> !taken.contains(alias)).toList();
+            List<Account> newAccounts = missing.isEmpty()
+                    ? List.of()
+                    : accountBatchRepository.insertIfAbsent(missing, DEFAULT_BANK_NAME);
+            log.info("Created {} accounts from a batch of {} alias events", newAccounts.size(), events.size());
+
+            publishAccountEvents(newAccounts, "CREATED");
+            created.increment(newAccounts.size());
+            existing.increment(processed - newAccounts.size());
+        });
     }
 
+    /**
+     * Publishes an account event keyed by account id, so every event of an account lands on one
+     * partition in order, and waits for the broker's ack.
+     */
     public void publishAccountEvent(Account account, String eventType) {
-        AccountEvent event = AccountEvent.builder()
+        AccountEvent event = accountEvent(account, eventType);
+        await(kafkaTemplate.send("account-events-topic", String.valueOf(account.getId()), event), event);
+        log.info("Published account event: {}", event);
+    }
+
+    /**
+     * Sends all events before waiting for any ack, so the producer groups them into as few requests
+     * as it can, then waits for every ack.
+     */
+    public void publishAccountEvents(List<Account> accounts, String eventType) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[accounts.size()];
+        for (int i = 0; i < sends.length; i++) {
+            Account account = accounts.get(i);
+            sends[i] = kafkaTemplate.send("account-events-topic", String.valueOf(account.getId()),
+                    accountEvent(account, eventType));
+        }
+        await(CompletableFuture.allOf(sends), accounts.size() + " " + eventType + " events");
+        log.info("Published {} account events", accounts.size());
+    }
+
+    private static AccountEvent accountEvent(Account account, String eventType) {
+        return AccountEvent.builder()
                 .accountId(account.getId())
                 .eventType(eventType)
+                .balance(account.getBalance())
                 .build();
+    }
 
-        kafkaTemplate.send("account-events-topic", event);
-        log.info("Published account event: {}", event);
+    private void await(CompletableFuture<?> send, Object what) {
+        try {
+            send.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing " + what, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not publish " + what, e);
+        }
     }
-}
 
+    /**
+     * Retries in place, holding the lane so later records of the alias wait, then moves the record
+     * to the dead-letter topic. Returns {@code false} only when the lane is interrupted, which
+     * {@link KeyOrderedExecutor#close()} does once the container has stopped: the record's offset is
+     * then not committed and whoever owns the partition next consumes it again.
+     */
+    private boolean processWithRetry(ConsumerRecord<String, AliasCreatedEvent> record) {
+        AliasCreatedEvent event = record.value();
+        BackOffExecution backOff = retryBackOff.start();
+        while (true) {
+            try {
+                listenAliasCreatedEvent(event);
+                return true;
+            } catch (RuntimeException e) {
+                long delay = backOff.nextBackOff();
+                if (delay == BackOffExecution.STOP) {
+                    return sendToDeadLetterTopic(record, e);
+                }
+                log.warn("Alias created event {} failed, retrying in {} ms", event, delay, e);
+                if (!sleep(delay)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps sending until the dead-letter topic takes the record, which its handler then counts as
+     * failed. Returns {@code false} only when interrupted.
+     */
+    private boolean sendToDeadLetterTopic(ConsumerRecord<String, AliasCreatedEvent> record, RuntimeException cause) {
+        log.error("Giving up on alias created event {} after retries, moving it to {}", record.value(), deadLetterTopic, cause);
+        ProducerRecord<String, Object> deadLetter = new ProducerRecord<>(deadLetterTopic, null, record.key(),
+                record.value(), new RecordHeaders(record.headers().toArray()));
+        deadLetter.headers()
+                .add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_FQCN, cause.getClass().getName().getBytes(StandardCharsets.UTF_8))
+                .add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        while (true) {
+            try {
+                await(deadLetterTemplate.send(deadLetter), "alias created event to " + deadLetterTopic);
+                return true;
+            } catch (IllegalStateException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                log.error("Could not move alias created event {} to {}, retrying in {} ms",
+                        record.value(), deadLetterTopic, deadLetterRetryMs, e);
+                if (!sleep(deadLetterRetryMs)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
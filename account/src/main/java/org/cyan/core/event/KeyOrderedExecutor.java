@@ -0,0 +1,79 @@
+package org.cyan.core.event;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a fixed set of single-threaded lanes. Tasks with the same key always land on the
+ * same lane, so they run one after another in submission order; tasks with different keys usually
+ * land on different lanes and run in parallel.
+ */
+@Slf4j
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final ExecutorService[] lanes;
+    private final long shutdownTimeoutMillis;
+
+    public KeyOrderedExecutor(String name, int lanes, long shutdownTimeoutMillis) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("At least one lane is required, got " + lanes);
+        }
+        this.lanes = new ExecutorService[lanes];
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        for (int i = 0; i < lanes; i++) {
+            AtomicInteger threads = new AtomicInteger();
+            String prefix = name + "-" + i;
+            this.lanes[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, prefix + "-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void execute(Object key, Runnable task) {
+        lanes[laneOf(key)].execute(task);
+    }
+
+    public int lanes() {
+        return lanes.length;
+    }
+
+    int laneOf(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int h = key.hashCode();
+        // Spread the high bits so keys differing only there do not share a lane.
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    /** Stops accepting tasks and waits up to the shutdown timeout for queued ones to finish. */
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMillis);
+        try {
+            for (ExecutorService lane : lanes) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !lane.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                    log.warn("Key-ordered lanes did not drain in {} ms; unfinished records will be redelivered",
+                            shutdownTimeoutMillis);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (ExecutorService lane : lanes) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.cyan.core.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.AccountExportRepository;
+import org.cyan.core.data.model.Account;
+import org.cyan.events.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes every account as one JSON object per line (NDJSON), ordered by id. The table is walked in
+ * keyset pages of {@code app.export.page-size} ({@code id > last id of the previous page}), each
+ * in its own short read-only transaction, so no transaction stays open for the whole export and
+ * memory does not grow with the table. A client that loses the stream resumes with the id of the
+ * last line it received.
+ */
+@Service
+@Slf4j
+public class AccountExportService {
+
+    private final AccountExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+    private final int pageSize;
+
+    public AccountExportService(AccountExportRepository exportRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.export.page-size:10000}") int pageSize) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    /** Writes the accounts with {@code id > afterId} to {@code out} and returns how many were written. */
+    public long export(long afterId, OutputStream out) throws IOException {
+        long exported = 0;
+        long lastId = afterId;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // Lines end with '\n' instead of Jackson's default space between root values.
+            json.setRootValueSeparator(null);
+            Page page;
+            do {
+                page = new Page(lastId);
+                Page current = page;
+                try {
+                    readOnly.executeWithoutResult(status ->
+                            exportRepository.forEachAfter(current.lastId, pageSize, account -> current.write(json, account)));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                // Hand each page to the client instead of letting it wait for the whole export.
+                json.flush();
+                exported += page.rows;
+                lastId = page.lastId;
+            } while (page.rows == pageSize);
+        }
+        log.info("Exported {} accounts after id {} up to id {}", exported, afterId, lastId);
+        return exported;
+    }
+
+    private static final class Page {
+        private long lastId;
+        private int rows;
+
+        private Page(long afterId) {
+            this.lastId = afterId;
+        }
+
+        private void write(JsonGenerator json, Account account) {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", account.getId());
+                json.writeStringField("alias", account.getAlias());
+                json.writeStringField("bankName", account.getBankName());
+                json.writeFieldName("balance");
+                json.writeNumber(Money.format(account.getBalance()));
+                json.writeStringField("createdAt", account.getCreatedAt() == null ? null : account.getCreatedAt().toString());
+                json.writeStringField("updatedAt", account.getUpdatedAt() == null ? null : account.getUpdatedAt().toString());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastId = account.getId();
+            rows++;
+        }
+    }
+}
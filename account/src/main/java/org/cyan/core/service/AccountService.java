@@ -2,19 +2,28 @@ package org.cyan.core.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.cyan.config.cache.BulkCache;
 import org.cyan.core.data.AccountRepository;
 import org.cyan.core.data.model.Account;
-import org.cyan.core.event.EventListener;
+import org.cyan.core.event.AccountEventPublisher;
 import org.cyan.exception.AccountNotFoundException;
 import org.cyan.in.model.AccountRequest;
 import org.cyan.in.model.AccountResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,20 +31,21 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AccountService {
     private final AccountRepository accountRepository;
-    private final EventListener eventListener;
+    private final AccountEventPublisher accountEventPublisher;
+    private final CacheManager cacheManager;
 
     @Transactional
     public AccountResponse createAccount(AccountRequest accountRequest) {
         Account account = Account.builder()
                 .alias(accountRequest.getAlias())
                 .bankName(accountRequest.getBankName())
-                .balance(accountRequest.getBalance() != null ? accountRequest.getBalance() : BigDecimal.ZERO)
+                .balance(accountRequest.getBalance() != null ? accountRequest.getBalance() : 0L)
                 .build();
 
         Account savedAccount = accountRepository.save(account);
         log.info("Account created with ID: {}", savedAccount.getId());
 
-        eventListener.publishAccountEvent(savedAccount, "CREATED");
+        accountEventPublisher.publish(savedAccount, "CREATED");
 
         return mapToDTO(savedAccount);
     }
@@ -48,6 +58,39 @@ public class AccountService {
         return mapToDTO(account);
     }
 
+    /**
+     * The accounts with the given ids that exist, in request order and without duplicates. Cached
+     * accounts come from one bulk cache read, the rest from one query, and those are written back
+     * to the cache in one bulk write.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountResponse> getAccountsByIds(Collection<Long> ids) {
+        Set<Long> uniqueIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        Cache cache = cacheManager.getCache("accounts");
+        Map<Object, Object> cached = cachedAccounts(cache, uniqueIds);
+
+        List<Long> misses = uniqueIds.stream().filter(id -> !cached.containsKey(id)).toList();
+        Map<Long, AccountResponse> loaded = new HashMap<>();
+        if (!misses.isEmpty()) {
+            accountRepository.findAllById(misses).forEach(account -> loaded.put(account.getId(), mapToDTO(account)));
+            if (cache instanceof BulkCache bulk) {
+                bulk.putAll(loaded);
+            } else if (cache != null) {
+                loaded.forEach(cache::put);
+            }
+        }
+        log.debug("Looked up {} accounts: {} cached, {} loaded", uniqueIds.size(), cached.size(), loaded.size());
+
+        List<AccountResponse> accounts = new ArrayList<>(uniqueIds.size());
+        for (Long id : uniqueIds) {
+            AccountResponse account = cached.containsKey(id) ? (AccountResponse) cached.get(id) : loaded.get(id);
+            if (account != null) {
+                accounts.add(account);
+            }
+        }
+        return accounts;
+    }
+
     @CacheEvict(value = "accounts", key = "#id")
     @Transactional
     public AccountResponse updateAccount(Long id, AccountRequest accountRequest) throws AccountNotFoundException {
@@ -60,12 +103,28 @@ public class AccountService {
         Account updatedAccount = accountRepository.save(account);
         log.info("Account updated with ID: {}", updatedAccount.getId());
 
-        eventListener.publishAccountEvent(updatedAccount, "UPDATED");
+        accountEventPublisher.publish(updatedAccount, "UPDATED");
 
         return mapToDTO(updatedAccount);
     }
 
 
+    private static Map<Object, Object> cachedAccounts(Cache cache, Collection<Long> ids) {
+        if (cache instanceof BulkCache bulk) {
+            return bulk.getAll(ids);
+        }
+        Map<Object, Object> cached = new HashMap<>();
+        if (cache != null) {
+            for (Long id : ids) {
+                Cache.ValueWrapper value = cache.get(id);
+                if (value != null) {
+                    cached.put(id, value.get());
+                }
+            }
+        }
+        return cached;
+    }
+
     private AccountResponse mapToDTO(Account account) {
         return AccountResponse.builder()
                 .id(account.getId())
@@ -1,9 +1,12 @@
 package org.cyan.in;
 
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.cyan.core.service.AccountExportService;
 import org.cyan.core.service.AccountService;
+import org.cyan.exception.InvalidRequestException;
 import org.cyan.in.model.AccountRequest;
 import org.cyan.in.model.AccountResponse;
 import org.springframework.http.HttpStatus;
@@ -11,13 +14,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.security.auth.login.AccountNotFoundException;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/accounts")
 @RequiredArgsConstructor
 public class AccountController {
+    static final int MAX_LOOKUP_ACCOUNTS = 1000;
+
     private final AccountService accountService;
+    private final AccountExportService accountExportService;
 
     @PostMapping
     public ResponseEntity<AccountResponse> createAccount(@Valid @RequestBody AccountRequest accountRequest) {
@@ -32,6 +39,32 @@ public class AccountController {
     }
 
 
+    /** The accounts among {@code ids} that exist; unknown ids are left out. */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<AccountResponse>> getAccounts(@RequestParam List<Long> ids) {
+        return lookupAccounts(ids);
+    }
+
+    /** Same as {@code GET ?ids=}, for id sets too long for a URL. */
+    @PostMapping("/lookup")
+    public ResponseEntity<List<AccountResponse>> lookupAccounts(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_LOOKUP_ACCOUNTS) {
+            throw new InvalidRequestException("Look up at most " + MAX_LOOKUP_ACCOUNTS + " accounts at a time");
+        }
+        return ResponseEntity.ok(accountService.getAccountsByIds(ids));
+    }
+
+    /**
+     * Every account with {@code id > after} as NDJSON, ordered by id. Written straight to the
+     * response on the request thread, so it is not subject to the async request timeout.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportAccounts(@RequestParam(defaultValue = "0") long after, HttpServletResponse response)
+            throws IOException {
+        response.setContentType("application/x-ndjson");
+        accountExportService.export(after, response.getOutputStream());
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<AccountResponse> updateAccount(
             @PathVariable Long id,
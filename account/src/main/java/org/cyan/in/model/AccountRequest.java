@@ -1,12 +1,13 @@
 package org.cyan.in.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.GroupSequence;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.cyan.events.money.Money;
 
 import jakarta.validation.constraints.*;
 
@@ -25,9 +26,12 @@ public class AccountRequest {
     @Size(min = 2, message = "Bank name must be at least 2 characters long", groups = ValidationGroups.Second.class)
     private String bankName;
 
+    /** Minor units; sent as a decimal such as {@code 100.00}. */
     @NotNull(message = "Balance is required")
-    @DecimalMin(value = "0.0", message = "Balance must be non-negative")
-    private BigDecimal balance;
+    @Min(value = 0, message = "Balance must be non-negative")
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long balance;
 }
 
 interface ValidationGroups {
@@ -1,11 +1,12 @@
 package org.cyan.in.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.math.BigDecimal;
+import org.cyan.events.money.Money;
 
 @Data
 @Builder
@@ -15,5 +16,9 @@ public class AccountResponse {
     private Long id;
     private String alias;
     private String bankName;
-    private BigDecimal balance;
+
+    /** Minor units; serialized as a decimal such as {@code 100.00}. */
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long balance;
 }
@@ -0,0 +1,78 @@
+package org.cyan.bench;
+
+import org.cyan.config.cache.AccountResponseCodec;
+import org.cyan.config.cache.CompactRedisSerializer;
+import org.cyan.in.model.AccountResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the same cached accounts with the JSON serializer the cache used before and
+ * with the compact binary one. The average stored size is printed when each trial starts; run with
+ * {@code -prof gc} to compare allocation per operation as well.
+ *
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main AccountCacheCodecBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountCacheCodecBenchmark {
+
+    private static final int ACCOUNTS = 256;
+    private static final String[] BANKS = {"Default Bank", "Chase", "Banco de la Nación Argentina", "Santander"};
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    private RedisSerializer<Object> serializer;
+    private final AccountResponse[] accounts = new AccountResponse[ACCOUNTS];
+    private final byte[][] encoded = new byte[ACCOUNTS][];
+
+    @Setup(Level.Trial)
+    public void encodeAccounts() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        serializer = "json".equals(codec) ? json : new CompactRedisSerializer(List.of(new AccountResponseCodec()), json);
+
+        Random random = new Random(42);
+        long bytes = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = AccountResponse.builder()
+                    .id(1_000L + random.nextInt(5_000_000))
+                    .alias("alias." + Long.toString(random.nextLong() & Long.MAX_VALUE, 36))
+                    .bankName(BANKS[random.nextInt(BANKS.length)])
+                    .balance((long) random.nextInt(100_000_000))
+                    .build();
+            encoded[i] = serializer.serialize(accounts[i]);
+            bytes += encoded[i].length;
+        }
+        System.out.printf("%n%s: %.1f bytes per cached account%n", codec, (double) bytes / ACCOUNTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCOUNTS)
+    public void encode(Blackhole blackhole) {
+        for (AccountResponse account : accounts) {
+            blackhole.consume(serializer.serialize(account));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCOUNTS)
+    public void decode(Blackhole blackhole) {
+        for (byte[] value : encoded) {
+            blackhole.consume(serializer.deserialize(value));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.cyan.config.cache;
+
+import org.cyan.in.model.AccountResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+import java.util.List;
+
+class CompactRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final CompactRedisSerializer serializer =
+            new CompactRedisSerializer(List.of(new AccountResponseCodec()), json);
+
+    private final AccountResponse account = AccountResponse.builder()
+            .id(42L)
+            .alias("john.doe")
+            .bankName("Chase")
+            .balance(-12_345L)
+            .build();
+
+    @Test
+    void shouldRoundTripAnAccountInFarFewerBytesThanJson() {
+        // Act
+        byte[] bytes = serializer.serialize(account);
+
+        // Assert
+        Assertions.assertEquals(account, serializer.deserialize(bytes));
+        Assertions.assertTrue(bytes.length * 4 < json.serialize(account).length,
+                bytes.length + " bytes vs " + json.serialize(account).length);
+    }
+
+    @Test
+    void shouldKeepMissingFieldsNull() {
+        // Arrange
+        AccountResponse partial = AccountResponse.builder().id(7L).build();
+
+        // Act & Assert
+        Assertions.assertEquals(partial, serializer.deserialize(serializer.serialize(partial)));
+    }
+
+    @Test
+    void shouldReadJsonWrittenBeforeTheBinaryCodecWasEnabled() {
+        // Arrange
+        byte[] legacy = json.serialize(account);
+
+        // Act & Assert
+        Assertions.assertEquals(account, serializer.deserialize(legacy));
+    }
+
+    @Test
+    void shouldFallBackToJsonForTypesWithoutACodec() {
+        // Arrange
+        String value = "not an account";
+
+        // Act
+        byte[] bytes = serializer.serialize(value);
+
+        // Assert
+        Assertions.assertEquals('"', bytes[0]);
+        Assertions.assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void shouldIgnoreFieldsAppendedByANewerSchemaVersion() {
+        // Arrange: a newer writer bumped the version and appended a field.
+        byte[] current = serializer.serialize(account);
+        byte[] newer = Arrays.copyOf(current, current.length + 3);
+        newer[2] = 2;
+        newer[current.length] = 2;
+        newer[current.length + 1] = 'x';
+        newer[current.length + 2] = 'y';
+
+        // Act & Assert
+        Assertions.assertEquals(account, serializer.deserialize(newer));
+    }
+
+    @Test
+    void shouldRejectUnknownTypesAndTruncatedValues() {
+        // Arrange
+        byte[] bytes = serializer.serialize(account);
+        byte[] unknownType = bytes.clone();
+        unknownType[1] = 99;
+
+        // Act & Assert
+        Assertions.assertThrows(SerializationException.class, () -> serializer.deserialize(unknownType));
+        Assertions.assertThrows(SerializationException.class,
+                () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 2)));
+    }
+}
@@ -0,0 +1,176 @@
+package org.cyan.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TwoLevelCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final List<String> published = new ArrayList<>();
+
+    private ConcurrentMapCache remote;
+    private LocalCache local;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("accounts");
+        local = new LocalCache(64, Duration.ofSeconds(5), now::get);
+        cache = new TwoLevelCache(remote, local, (name, key) -> published.add(name + ":" + key), meterRegistry);
+    }
+
+    @Test
+    void get_ShouldServeRepeatedReadsFromTheLocalLevel() {
+        // Arrange
+        remote.put(1L, "account-1");
+
+        // Act
+        Object first = cache.get(1L, String.class);
+        remote.put(1L, "changed behind our back");
+        Object second = cache.get(1L, String.class);
+
+        // Assert
+        Assertions.assertEquals("account-1", first);
+        Assertions.assertEquals("account-1", second);
+        Assertions.assertEquals(1, gets("local", "hit"));
+        Assertions.assertEquals(1, gets("local", "miss"));
+        Assertions.assertEquals(1, gets("remote", "hit"));
+        Assertions.assertEquals(0, gets("remote", "miss"));
+    }
+
+    @Test
+    void get_ShouldRefetchFromTheRemoteLevelOnceTheLocalEntryExpires() {
+        // Arrange
+        remote.put(1L, "old");
+        cache.get(1L);
+        remote.put(1L, "new");
+
+        // Act
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // Assert
+        Assertions.assertEquals("new", cache.get(1L, String.class));
+    }
+
+    @Test
+    void evict_ShouldDropBothLevelsAndPublishTheKey() {
+        // Arrange
+        cache.put(1L, "account-1");
+
+        // Act
+        cache.evict(1L);
+
+        // Assert
+        Assertions.assertNull(remote.get(1L));
+        Assertions.assertNull(cache.get(1L));
+        Assertions.assertEquals(List.of("accounts:1"), published);
+    }
+
+    @Test
+    void onRemoteEvict_ShouldDropOnlyTheLocalCopy() {
+        // Arrange
+        remote.put(1L, "old");
+        cache.get(1L);
+        remote.put(1L, "new");
+
+        // Act
+        cache.onRemoteEvict("1");
+
+        // Assert
+        Assertions.assertEquals("new", cache.get(1L, String.class));
+        Assertions.assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void putIfCurrent_ShouldNotStoreAValueReadBeforeAnInvalidation() {
+        // Arrange: a value was fetched from Redis, then a peer's invalidation arrived.
+        long generation = local.generation();
+        local.invalidate("1");
+
+        // Act
+        boolean stored = local.putIfCurrent("1", new SimpleValueWrapper("stale"), generation);
+
+        // Assert
+        Assertions.assertFalse(stored);
+        Assertions.assertNull(local.get("1"));
+    }
+
+    @Test
+    void localCache_ShouldStayBoundedByDroppingLeastRecentlyUsedEntries() {
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            local.put(String.valueOf(i), new SimpleValueWrapper(i));
+        }
+
+        // Assert
+        Assertions.assertTrue(local.size() <= 64, "size " + local.size());
+    }
+
+    @Test
+    void clear_ShouldEmptyBothLevelsAndPublishTheCacheName() {
+        // Arrange
+        cache.put(1L, "account-1");
+
+        // Act
+        cache.clear();
+
+        // Assert
+        Assertions.assertNull(remote.get(1L));
+        Assertions.assertEquals(0, local.size());
+        Assertions.assertEquals(List.of("accounts:null"), published);
+    }
+
+    @Test
+    void getAll_ShouldFetchOnlyLocalMissesAndKeepThem() {
+        // Arrange
+        cache.put(1L, "local");
+        remote.put(2L, "remote");
+
+        // Act
+        Map<Object, Object> values = cache.getAll(List.of(1L, 2L, 3L));
+        remote.evict(2L);
+
+        // Assert
+        Assertions.assertEquals(Map.of(1L, "local", 2L, "remote"), values);
+        Assertions.assertEquals("remote", cache.get(2L, String.class));
+        Assertions.assertEquals(1, gets("remote", "miss"));
+    }
+
+    @Test
+    void manager_ShouldRouteInvalidationMessagesToTheNamedCache() {
+        // Arrange
+        ConcurrentMapCacheManager remoteManager = new ConcurrentMapCacheManager("accounts");
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(
+                remoteManager, null, "invalidations", 64, Duration.ofMinutes(1), meterRegistry);
+        Cache accounts = manager.getCache("accounts");
+        accounts.put(1L, "old");
+        remoteManager.getCache("accounts").put(1L, "new");
+
+        // Act
+        manager.onMessage(new DefaultMessage("invalidations".getBytes(StandardCharsets.UTF_8),
+                "accounts:1".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Assert
+        Assertions.assertSame(accounts, manager.getCache("accounts"));
+        Assertions.assertEquals("new", accounts.get(1L, String.class));
+    }
+
+    private double gets(String level, String result) {
+        return meterRegistry.counter("cache.level.gets", "cache", "accounts", "level", level, "result", result).count();
+    }
+}
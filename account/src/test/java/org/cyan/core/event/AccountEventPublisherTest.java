@@ -0,0 +1,122 @@
+package org.cyan.core.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cyan.core.data.model.Account;
+import org.cyan.events.model.AccountEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+
+@ExtendWith(MockitoExtension.class)
+class AccountEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, AccountEvent> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private AccountEventPublisher publisher(int maxInFlight) {
+        return new AccountEventPublisher(kafkaTemplate, meterRegistry, "account-events-topic", maxInFlight, 10);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("account.events.publish", "topic", "account-events-topic", "result", result).count();
+    }
+
+    @Test
+    void publish_InsideATransaction_ShouldSendOnlyAfterCommit() {
+        // Arrange
+        Mockito.when(kafkaTemplate.send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        TransactionSynchronizationManager.initSynchronization();
+        AccountEventPublisher publisher = publisher(10);
+
+        // Act
+        publisher.publish(Account.builder().id(7L).balance(500L).build(), "UPDATED");
+
+        // Assert
+        Mockito.verifyNoInteractions(kafkaTemplate);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        ArgumentCaptor<AccountEvent> event = ArgumentCaptor.forClass(AccountEvent.class);
+        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.eq("7"), event.capture());
+        Assertions.assertEquals(new AccountEvent(7L, "UPDATED", 500L), event.getValue());
+        Assertions.assertEquals(1, count("sent"));
+        Assertions.assertEquals(0, publisher.inFlight());
+    }
+
+    @Test
+    void publish_WhenTheTransactionRollsBack_ShouldSendNothing() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        publisher(10).publish(Account.builder().id(7L).balance(500L).build(), "CREATED");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        Mockito.verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void publish_ShouldNotWaitForTheAckAndShouldCountAFailedSend() {
+        // Arrange
+        CompletableFuture<SendResult<String, AccountEvent>> ack = new CompletableFuture<>();
+        Mockito.when(kafkaTemplate.send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class)))
+                .thenReturn(ack);
+        AccountEventPublisher publisher = publisher(10);
+
+        // Act
+        publisher.publish(Account.builder().id(1L).balance(0L).build(), "CREATED");
+
+        // Assert
+        Assertions.assertEquals(1, publisher.inFlight());
+        ack.completeExceptionally(new IllegalStateException("broker down"));
+        Assertions.assertEquals(0, publisher.inFlight());
+        Assertions.assertEquals(1, count("failed"));
+        Assertions.assertEquals(0, count("sent"));
+        Assertions.assertEquals(1, meterRegistry.timer("account.events.publish.latency", "topic", "account-events-topic").count());
+    }
+
+    @Test
+    void publish_WhenTheWindowIsFull_ShouldRejectUntilAnAckFreesASlot() {
+        // Arrange
+        CompletableFuture<SendResult<String, AccountEvent>> ack = new CompletableFuture<>();
+        Mockito.when(kafkaTemplate.send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class)))
+                .thenReturn(ack)
+                .thenReturn(CompletableFuture.completedFuture(null));
+        AccountEventPublisher publisher = publisher(1);
+        Account account = Account.builder().id(1L).balance(0L).build();
+
+        // Act
+        publisher.publish(account, "CREATED");
+        publisher.publish(account, "UPDATED");
+        ack.complete(null);
+        publisher.publish(account, "UPDATED");
+
+        // Assert
+        Mockito.verify(kafkaTemplate, Mockito.times(2))
+                .send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class));
+        Assertions.assertEquals(1, count("rejected"));
+        Assertions.assertEquals(2, count("sent"));
+    }
+}
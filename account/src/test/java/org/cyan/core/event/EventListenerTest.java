@@ -1,18 +1,32 @@
 package org.cyan.core.event;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.cyan.core.data.AccountBatchRepository;
 import org.cyan.core.data.AccountRepository;
 import org.cyan.core.data.model.Account;
-import org.cyan.core.event.model.AccountEvent;
-import org.cyan.core.event.model.AliasCreatedEvent;
+import org.cyan.events.model.AccountEvent;
+import org.cyan.events.model.AliasCreatedEvent;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.backoff.FixedBackOff;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -23,16 +37,43 @@ class EventListenerTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private AccountBatchRepository accountBatchRepository;
+
     @Mock
     private KafkaTemplate<String, AccountEvent> kafkaTemplate;
 
-    @InjectMocks
+    @Mock
+    private KafkaTemplate<String, Object> deadLetterTemplate;
+
+    @Captor
+    private ArgumentCaptor<ProducerRecord<String, Object>> deadLetter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private EventListener eventListener;
 
+    @BeforeEach
+    void setUp() {
+        eventListener = listener(null);
+    }
+
+    private EventListener listener(KeyOrderedExecutor executor) {
+        return new EventListener(accountRepository, accountBatchRepository, kafkaTemplate, deadLetterTemplate,
+                "alias-created-topic", TransactionOperations.withoutTransaction(),
+                meterRegistry, new FixedBackOff(1, 2), 1, 1_000, executor);
+    }
+
+    private void brokerAcks() {
+        Mockito.when(kafkaTemplate.send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
     @Test
     void listenAliasCreatedEvent_WhenAliasDoesNotExist_ShouldCreateNewAccount() {
         // Arrange
         AliasCreatedEvent event = new AliasCreatedEvent(123L, "new-alias");
+        brokerAcks();
         Mockito.when(accountRepository.findByAlias(event.getAlias())).thenReturn(Optional.empty());
         Mockito.when(accountRepository.save(ArgumentMatchers.any(Account.class))).thenAnswer(invocation -> {
             Account a = invocation.getArgument(0);
@@ -52,9 +93,9 @@ class EventListenerTest {
         Account savedAccount = accountCaptor.getValue();
         Assertions.assertEquals("new-alias", savedAccount.getAlias());
         Assertions.assertEquals("Default Bank", savedAccount.getBankName());
-        Assertions.assertEquals(BigDecimal.ZERO, savedAccount.getBalance());
+        Assertions.assertEquals(0L, savedAccount.getBalance());
 
-        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.any(AccountEvent.class));
+        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.eq("1"), ArgumentMatchers.any(AccountEvent.class));
     }
 
     @Test
@@ -71,7 +112,45 @@ class EventListenerTest {
         // Assert
         Mockito.verify(accountRepository).findByAlias(event.getAlias());
         Mockito.verify(accountRepository, Mockito.never()).save(ArgumentMatchers.any(Account.class));
-        Mockito.verify(kafkaTemplate, Mockito.never()).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.any(AccountEvent.class));
+        Mockito.verify(kafkaTemplate, Mockito.never()).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class));
+    }
+
+    @Test
+    void onAliasCreated_WithoutWorkerLanes_ShouldProcessAndAcknowledgeInline() {
+        // Arrange
+        AliasCreatedEvent event = new AliasCreatedEvent(123L, "existing-alias");
+        Mockito.when(accountRepository.findByAlias("existing-alias"))
+                .thenReturn(Optional.of(Account.builder().id(1L).alias("existing-alias").build()));
+        Acknowledgment acknowledgment = Mockito.mock(Acknowledgment.class);
+
+        // Act
+        eventListener.onAliasCreated(new ConsumerRecord<>("alias-created-topic", 0, 0L, null, event), acknowledgment);
+
+        // Assert
+        InOrder inOrder = Mockito.inOrder(accountRepository, acknowledgment);
+        inOrder.verify(accountRepository).findByAlias("existing-alias");
+        inOrder.verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void onAliasCreated_WithWorkerLanes_ShouldAcknowledgeEachRecordAfterProcessing() throws InterruptedException {
+        // Arrange
+        Mockito.when(accountRepository.findByAlias(ArgumentMatchers.anyString())).thenReturn(Optional.of(new Account()));
+        CountDownLatch acknowledged = new CountDownLatch(20);
+        Acknowledgment acknowledgment = acknowledged::countDown;
+
+        // Act
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4, 5_000)) {
+            EventListener parallel = listener(executor);
+            for (int i = 0; i < 20; i++) {
+                AliasCreatedEvent event = new AliasCreatedEvent((long) i, "alias-" + (i % 5));
+                parallel.onAliasCreated(new ConsumerRecord<>("alias-created-topic", 0, i, null, event), acknowledgment);
+            }
+
+            // Assert
+            Assertions.assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        }
+        Mockito.verify(accountRepository, Mockito.times(20)).findByAlias(ArgumentMatchers.anyString());
     }
 
     @Test
@@ -81,25 +160,29 @@ class EventListenerTest {
                 .id(1L)
                 .alias("test-alias")
                 .bankName("Test Bank")
-                .balance(BigDecimal.valueOf(1000))
+                .balance(100000L)
                 .build();
 
+        brokerAcks();
+
         // Act
         eventListener.publishAccountEvent(account, "CREATED");
 
         // Assert
         ArgumentCaptor<AccountEvent> eventCaptor = ArgumentCaptor.forClass(AccountEvent.class);
-        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), eventCaptor.capture());
+        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.eq("1"), eventCaptor.capture());
 
         AccountEvent sentEvent = eventCaptor.getValue();
         Assertions.assertEquals(1L, sentEvent.getAccountId());
         Assertions.assertEquals("CREATED", sentEvent.getEventType());
+        Assertions.assertEquals(100000L, sentEvent.getBalance());
     }
 
     @Test
     void processAliasCreation_ShouldCreateAccountAndPublishEvent() {
         // Arrange
         AliasCreatedEvent event = new AliasCreatedEvent(123L, "new-alias");
+        brokerAcks();
         Mockito.when(accountRepository.findByAlias(event.getAlias())).thenReturn(Optional.empty());
         Mockito.when(accountRepository.save(ArgumentMatchers.any(Account.class))).thenAnswer(invocation -> {
             Account a = invocation.getArgument(0);
@@ -112,6 +195,198 @@ class EventListenerTest {
 
         // Assert
         Mockito.verify(accountRepository).save(ArgumentMatchers.any(Account.class));
-        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.any(AccountEvent.class));
+        Mockito.verify(kafkaTemplate).send(ArgumentMatchers.eq("account-events-topic"), ArgumentMatchers.eq("1"), ArgumentMatchers.any(AccountEvent.class));
+    }
+
+    @Test
+    void onAliasCreated_WhenPublishFails_ShouldNotAcknowledgeSoTheRecordMovesToARetryTopic() {
+        // Arrange
+        Mockito.when(accountRepository.findByAlias("new-alias")).thenReturn(Optional.empty());
+        Mockito.when(accountRepository.save(ArgumentMatchers.any(Account.class))).thenAnswer(invocation -> {
+            Account a = invocation.getArgument(0);
+            a.setId(1L);
+            return a;
+        });
+        Mockito.when(kafkaTemplate.send(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any(AccountEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        Acknowledgment acknowledgment = Mockito.mock(Acknowledgment.class);
+        ConsumerRecord<String, AliasCreatedEvent> record =
+                new ConsumerRecord<>("alias-created-topic", 0, 0L, null, new AliasCreatedEvent(123L, "new-alias"));
+
+        // Act & Assert
+        Assertions.assertThrows(IllegalStateException.class, () -> eventListener.onAliasCreated(record, acknowledgment));
+        Mockito.verify(acknowledgment, Mockito.never()).acknowledge();
+        Assertions.assertEquals(1, meterRegistry.counter("account.alias-events.attempts", "topic", "alias-created-topic").count());
+        Assertions.assertEquals(1, meterRegistry.counter("account.alias-events.failures", "topic", "alias-created-topic").count());
+    }
+
+    @Test
+    void onDeadLetter_ShouldCountTheFailureAndAcknowledge() {
+        // Arrange
+        Acknowledgment acknowledgment = Mockito.mock(Acknowledgment.class);
+        ConsumerRecord<String, AliasCreatedEvent> record =
+                new ConsumerRecord<>("alias-created-topic-dlt", 0, 0L, "123", new AliasCreatedEvent(123L, "new-alias"));
+
+        // Act
+        eventListener.onDeadLetter(record, acknowledgment);
+
+        // Assert
+        Mockito.verify(acknowledgment).acknowledge();
+        Mockito.verifyNoInteractions(accountRepository, kafkaTemplate);
+        Assertions.assertEquals(1, meterRegistry.counter("account.alias-events", "result", "failed").count());
+    }
+
+    @Test
+    void onAliasCreated_WithWorkerLanes_ShouldRetryInPlaceBeforeAcknowledging() throws InterruptedException {
+        // Arrange: the first attempt fails, the retry finds the alias free and succeeds.
+        brokerAcks();
+        Mockito.when(accountRepository.findByAlias("flaky-alias"))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(Optional.empty());
+        Mockito.when(accountRepository.save(ArgumentMatchers.any(Account.class))).thenAnswer(invocation -> {
+            Account a = invocation.getArgument(0);
+            a.setId(7L);
+            return a;
+        });
+        CountDownLatch acknowledged = new CountDownLatch(1);
+
+        // Act
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 2, 5_000)) {
+            listener(executor).onAliasCreated(new ConsumerRecord<>("alias-created-topic", 0, 0L, null,
+                    new AliasCreatedEvent(1L, "flaky-alias")), acknowledged::countDown);
+
+            // Assert
+            Assertions.assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, meterRegistry.counter("account.alias-events", "result", "created").count());
+        Assertions.assertEquals(0, meterRegistry.counter("account.alias-events", "result", "failed").count());
+    }
+
+    @Test
+    void onAliasCreated_WithWorkerLanes_ShouldMoveAnExhaustedRecordToTheDeadLetterTopicBeforeAcknowledging()
+            throws InterruptedException {
+        // Arrange
+        Mockito.when(accountRepository.findByAlias("broken-alias")).thenThrow(new IllegalStateException("connection reset"));
+        Mockito.when(deadLetterTemplate.send(ArgumentMatchers.<ProducerRecord<String, Object>>any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        AliasCreatedEvent event = new AliasCreatedEvent(1L, "broken-alias");
+        CountDownLatch acknowledged = new CountDownLatch(1);
+
+        // Act
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 2, 5_000)) {
+            listener(executor).onAliasCreated(new ConsumerRecord<>("alias-created-topic", 0, 0L, "broken-alias", event),
+                    acknowledged::countDown);
+
+            // Assert
+            Assertions.assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        }
+        Mockito.verify(deadLetterTemplate).send(deadLetter.capture());
+        Assertions.assertEquals("alias-created-topic-dlt", deadLetter.getValue().topic());
+        Assertions.assertEquals("broken-alias", deadLetter.getValue().key());
+        Assertions.assertEquals(event, deadLetter.getValue().value());
+        Mockito.verify(accountRepository, Mockito.times(3)).findByAlias("broken-alias");
+    }
+
+    @Test
+    void onAliasCreated_WithWorkerLanes_WhenTheDeadLetterTopicRejectsTheRecord_ShouldRetryUntilItIsTaken()
+            throws InterruptedException {
+        // Arrange
+        Mockito.when(accountRepository.findByAlias("broken-alias")).thenThrow(new IllegalStateException("connection reset"));
+        Mockito.when(deadLetterTemplate.send(ArgumentMatchers.<ProducerRecord<String, Object>>any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        CountDownLatch acknowledged = new CountDownLatch(1);
+
+        // Act
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 2, 5_000)) {
+            listener(executor).onAliasCreated(new ConsumerRecord<>("alias-created-topic", 0, 0L, "broken-alias",
+                    new AliasCreatedEvent(1L, "broken-alias")), acknowledged::countDown);
+
+            // Assert
+            Assertions.assertTrue(acknowledged.await(5, TimeUnit.SECONDS));
+        }
+        Mockito.verify(deadLetterTemplate, Mockito.times(3)).send(ArgumentMatchers.<ProducerRecord<String, Object>>any());
+    }
+
+    @Test
+    void onAliasCreated_WithWorkerLanes_WhenClosedWhileTheDeadLetterTopicIsDown_ShouldStopWithoutAcknowledging() {
+        // Arrange
+        Mockito.when(accountRepository.findByAlias("broken-alias")).thenThrow(new IllegalStateException("connection reset"));
+        Mockito.when(deadLetterTemplate.send(ArgumentMatchers.<ProducerRecord<String, Object>>any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        Acknowledgment acknowledgment = Mockito.mock(Acknowledgment.class);
+        KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 2, 200);
+
+        // Act: close() interrupts the lane once the drain timeout passes.
+        listener(executor).onAliasCreated(new ConsumerRecord<>("alias-created-topic", 0, 0L, "broken-alias",
+                new AliasCreatedEvent(1L, "broken-alias")), acknowledgment);
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), executor::close);
+
+        // Assert: left for redelivery to the partition's next owner.
+        Mockito.verify(deadLetterTemplate, Mockito.atLeastOnce()).send(ArgumentMatchers.<ProducerRecord<String, Object>>any());
+        Mockito.verifyNoInteractions(acknowledgment);
+    }
+
+    @Test
+    void processAliasCreations_ShouldInsertOnlyNewAliasesAndPublishTheirEventsTogether() {
+        // Arrange
+        brokerAcks();
+        Mockito.when(accountBatchRepository.findExistingAliases(Set.of("taken", "new-1", "new-2")))
+                .thenReturn(Set.of("taken"));
+        Mockito.when(accountBatchRepository.insertIfAbsent(List.of("new-1", "new-2"), EventListener.DEFAULT_BANK_NAME))
+                .thenReturn(List.of(
+                        Account.builder().id(11L).alias("new-1").balance(0L).build(),
+                        Account.builder().id(12L).alias("new-2").balance(0L).build()));
+
+        // Act
+        eventListener.processAliasCreations(List.of(
+                new AliasCreatedEvent(1L, "taken"),
+                new AliasCreatedEvent(2L, "new-1"),
+                new AliasCreatedEvent(3L, "new-2"),
+                new AliasCreatedEvent(4L, "new-1")));
+
+        // Assert
+        Mockito.verify(kafkaTemplate).send(eq("account-events-topic"), eq("11"), any(AccountEvent.class));
+        Mockito.verify(kafkaTemplate).send(eq("account-events-topic"), eq("12"), any(AccountEvent.class));
+        Mockito.verifyNoInteractions(accountRepository);
+        Assertions.assertEquals(2, meterRegistry.counter("account.alias-events", "result", "created").count());
+        Assertions.assertEquals(2, meterRegistry.counter("account.alias-events", "result", "existing").count());
+    }
+
+    @Test
+    void processAliasCreations_WhenEveryAliasIsTaken_ShouldNotInsertOrPublish() {
+        // Arrange
+        Mockito.when(accountBatchRepository.findExistingAliases(Set.of("taken"))).thenReturn(Set.of("taken"));
+
+        // Act
+        eventListener.processAliasCreations(List.of(new AliasCreatedEvent(1L, "taken")));
+
+        // Assert
+        Mockito.verify(accountBatchRepository, Mockito.never()).insertIfAbsent(ArgumentMatchers.anyList(), ArgumentMatchers.anyString());
+        Mockito.verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void onAliasCreatedBatch_WhenBatchFails_ShouldRetryRecordsOneAtATimeAndNameTheFailingOne() {
+        // Arrange: the batch insert fails, then record by record the second alias still fails.
+        Mockito.when(accountBatchRepository.findExistingAliases(ArgumentMatchers.anyCollection()))
+                .thenThrow(new IllegalStateException("statement timeout"));
+        Mockito.when(accountRepository.findByAlias("taken")).thenReturn(Optional.of(new Account()));
+        Mockito.when(accountRepository.findByAlias("broken")).thenThrow(new IllegalStateException("connection reset"));
+        ConsumerRecord<String, AliasCreatedEvent> first =
+                new ConsumerRecord<>("alias-created-topic", 0, 0L, null, new AliasCreatedEvent(1L, "taken"));
+        ConsumerRecord<String, AliasCreatedEvent> second =
+                new ConsumerRecord<>("alias-created-topic", 0, 1L, null, new AliasCreatedEvent(2L, "broken"));
+        ConsumerRecord<String, AliasCreatedEvent> third =
+                new ConsumerRecord<>("alias-created-topic", 0, 2L, null, new AliasCreatedEvent(3L, "later"));
+
+        // Act
+        BatchListenerFailedException failure = Assertions.assertThrows(BatchListenerFailedException.class,
+                () -> eventListener.onAliasCreatedBatch(List.of(first, second, third)));
+
+        // Assert
+        Assertions.assertSame(second, failure.getRecord());
+        Mockito.verify(accountRepository, Mockito.never()).findByAlias("later");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package org.cyan.core.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+    @Test
+    void testTasksOfOneKeyRunInSubmissionOrder() throws InterruptedException {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(8 * 500);
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4, 5_000)) {
+            for (int i = 0; i < 500; i++) {
+                for (int k = 0; k < 8; k++) {
+                    String key = "alias-" + k;
+                    int sequence = i;
+                    executor.execute(key, () -> {
+                        seen.computeIfAbsent(key, x -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+                        done.countDown();
+                    });
+                }
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+
+        for (List<Integer> sequences : seen.values()) {
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(i, sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testDifferentKeysRunInParallel() throws InterruptedException {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch started = new CountDownLatch(4);
+        CountDownLatch release = new CountDownLatch(1);
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4, 5_000)) {
+            Map<Integer, String> keyPerLane = new HashMap<>();
+            for (int k = 0; keyPerLane.size() < 4; k++) {
+                keyPerLane.putIfAbsent(executor.laneOf("alias-" + k), "alias-" + k);
+            }
+            for (String key : keyPerLane.values()) {
+                executor.execute(key, () -> {
+                    threads.add(Thread.currentThread().getName());
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            // All four block at once, which is only possible on four threads.
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            release.countDown();
+        }
+        assertEquals(4, threads.size());
+    }
+
+    @Test
+    void testCloseDrainsQueuedTasks() {
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        try (KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 2, 5_000)) {
+            for (int i = 0; i < 100; i++) {
+                int task = i;
+                executor.execute(i % 3, () -> ran.add(task));
+            }
+        }
+        assertEquals(100, ran.size());
+    }
+}
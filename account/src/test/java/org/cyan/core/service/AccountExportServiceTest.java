@@ -0,0 +1,86 @@
+package org.cyan.core.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cyan.core.data.AccountExportRepository;
+import org.cyan.core.data.model.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountExportServiceTest {
+
+    @Mock
+    private AccountExportRepository exportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void export_ShouldWalkTheTableByKeysetAndWriteOneLinePerAccount() throws Exception {
+        // Arrange: pages of two; the second page is short, so the export ends there.
+        AccountExportService exportService = new AccountExportService(exportRepository, objectMapper, transactionManager, 2);
+        stubPage(0L, account(1L), account(2L));
+        stubPage(2L, account(5L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = exportService.export(0L, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+        JsonNode last = objectMapper.readTree(lines[2]);
+        assertEquals(5L, last.get("id").asLong());
+        assertEquals("alias-5", last.get("alias").asText());
+        assertEquals("12.34", last.get("balance").asText());
+        verify(exportRepository, times(2)).forEachAfter(anyLong(), eq(2), any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void export_WhenNothingIsLeft_ShouldWriteNothing() throws Exception {
+        // Arrange
+        AccountExportService exportService = new AccountExportService(exportRepository, objectMapper, transactionManager, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = exportService.export(100L, out);
+
+        // Assert
+        assertEquals(0, exported);
+        assertEquals(0, out.size());
+        verify(exportRepository).forEachAfter(eq(100L), anyInt(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPage(long afterId, Account... accounts) {
+        doAnswer(invocation -> {
+            Consumer<Account> consumer = invocation.getArgument(2);
+            for (Account account : accounts) {
+                consumer.accept(account);
+            }
+            return null;
+        }).when(exportRepository).forEachAfter(eq(afterId), anyInt(), any(Consumer.class));
+    }
+
+    private static Account account(long id) {
+        return Account.builder().id(id).alias("alias-" + id).bankName("Test Bank").balance(1234L).build();
+    }
+}
@@ -1,8 +1,9 @@
 package org.cyan.core.service;
 
+import org.cyan.config.cache.BulkCache;
 import org.cyan.core.data.AccountRepository;
 import org.cyan.core.data.model.Account;
-import org.cyan.core.event.EventListener;
+import org.cyan.core.event.AccountEventPublisher;
 import org.cyan.exception.AccountNotFoundException;
 import org.cyan.in.model.AccountRequest;
 import org.cyan.in.model.AccountResponse;
@@ -11,10 +12,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,19 +31,22 @@ class AccountServiceTest {
     private AccountRepository accountRepository;
 
     @Mock
-    private EventListener eventListener;
+    private AccountEventPublisher accountEventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
 
     @InjectMocks
     private AccountService accountService;
 
     @Test
     void createAccount_ShouldReturnCreatedAccount() {
-        AccountRequest request = AccountRequest.builder().alias("test-alias").bankName("Test Bank").balance(BigDecimal.valueOf(1000)).build();
+        AccountRequest request = AccountRequest.builder().alias("test-alias").bankName("Test Bank").balance(100000L).build();
         Account savedAccount = Account.builder()
                 .id(1L)
                 .alias("test-alias")
                 .bankName("Test Bank")
-                .balance(BigDecimal.valueOf(1000))
+                .balance(100000L)
                 .build();
 
         when(accountRepository.save(any(Account.class))).thenReturn(savedAccount);
@@ -52,10 +59,10 @@ class AccountServiceTest {
         assertEquals(1L, response.getId());
         assertEquals("test-alias", response.getAlias());
         assertEquals("Test Bank", response.getBankName());
-        assertEquals(BigDecimal.valueOf(1000), response.getBalance());
+        assertEquals(100000L, response.getBalance());
 
         verify(accountRepository).save(any(Account.class));
-        verify(eventListener).publishAccountEvent(savedAccount, "CREATED");
+        verify(accountEventPublisher).publish(savedAccount, "CREATED");
     }
 
     @Test
@@ -65,7 +72,7 @@ class AccountServiceTest {
                 .id(1L)
                 .alias("test-alias")
                 .bankName("Test Bank")
-                .balance(BigDecimal.ZERO)
+                .balance(0L)
                 .build();
 
         when(accountRepository.save(any(Account.class))).thenReturn(savedAccount);
@@ -74,7 +81,7 @@ class AccountServiceTest {
         AccountResponse response = accountService.createAccount(request);
 
         // Assert
-        assertEquals(BigDecimal.ZERO, response.getBalance());
+        assertEquals(0L, response.getBalance());
     }
 
     @Test
@@ -85,7 +92,7 @@ class AccountServiceTest {
                 .id(accountId)
                 .alias("test-alias")
                 .bankName("Test Bank")
-                .balance(BigDecimal.valueOf(1000))
+                .balance(100000L)
                 .build();
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
@@ -113,20 +120,20 @@ class AccountServiceTest {
     void updateAccount_WhenAccountExists_ShouldUpdateAndReturnAccount() throws AccountNotFoundException {
         // Arrange
         Long accountId = 1L;
-        AccountRequest request = AccountRequest.builder().alias("updated-alias").bankName("Updated Bank").balance(BigDecimal.valueOf(2000)).build();
+        AccountRequest request = AccountRequest.builder().alias("updated-alias").bankName("Updated Bank").balance(200000L).build();
 
         Account existingAccount = Account.builder()
                 .id(accountId)
                 .alias("old-alias")
                 .bankName("Old Bank")
-                .balance(BigDecimal.valueOf(1000))
+                .balance(100000L)
                 .build();
 
         Account updatedAccount = Account.builder()
                 .id(accountId)
                 .alias("updated-alias")
                 .bankName("Updated Bank")
-                .balance(BigDecimal.valueOf(2000))
+                .balance(200000L)
                 .build();
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(existingAccount));
@@ -140,18 +147,18 @@ class AccountServiceTest {
         assertEquals(accountId, response.getId());
         assertEquals("updated-alias", response.getAlias());
         assertEquals("Updated Bank", response.getBankName());
-        assertEquals(BigDecimal.valueOf(2000), response.getBalance());
+        assertEquals(200000L, response.getBalance());
 
         verify(accountRepository).findById(accountId);
         verify(accountRepository).save(existingAccount);
-        verify(eventListener).publishAccountEvent(updatedAccount, "UPDATED");
+        verify(accountEventPublisher).publish(updatedAccount, "UPDATED");
     }
 
     @Test
     void updateAccount_WhenAccountNotExists_ShouldThrowException() {
         // Arrange
         Long accountId = 1L;
-        AccountRequest request = AccountRequest.builder().alias("updated-alias").bankName("Updated Bank").balance(BigDecimal.valueOf(2000)).build();
+        AccountRequest request = AccountRequest.builder().alias("updated-alias").bankName("Updated Bank").balance(200000L).build();
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.empty());
 
@@ -160,4 +167,39 @@ class AccountServiceTest {
                 accountService.updateAccount(accountId, request));
     }
 
-}
\ No newline at end of file
+    @Test
+    void getAccountsByIds_ShouldServeCachedAccountsAndLoadAndCacheOnlyTheMisses() {
+        // Arrange: 1 is cached, 2 is only in the database, 3 does not exist.
+        Cache cache = mock(Cache.class, withSettings().extraInterfaces(BulkCache.class));
+        BulkCache bulk = (BulkCache) cache;
+        AccountResponse cached = AccountResponse.builder().id(1L).alias("cached").build();
+        Account stored = Account.builder().id(2L).alias("stored").bankName("Test Bank").balance(500L).build();
+        when(cacheManager.getCache("accounts")).thenReturn(cache);
+        when(bulk.getAll(Set.of(2L, 1L, 3L))).thenReturn(Map.of(1L, cached));
+        when(accountRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(stored));
+
+        // Act
+        List<AccountResponse> accounts = accountService.getAccountsByIds(List.of(2L, 1L, 3L, 2L));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), accounts.stream().map(AccountResponse::getId).toList());
+        assertSame(cached, accounts.get(1));
+        verify(bulk).putAll(Map.of(2L, accounts.get(0)));
+    }
+
+    @Test
+    void getAccountsByIds_WhenEverythingIsCached_ShouldNotQueryTheDatabase() {
+        // Arrange
+        Cache cache = mock(Cache.class, withSettings().extraInterfaces(BulkCache.class));
+        AccountResponse cached = AccountResponse.builder().id(1L).build();
+        when(cacheManager.getCache("accounts")).thenReturn(cache);
+        when(((BulkCache) cache).getAll(Set.of(1L))).thenReturn(Map.of(1L, cached));
+
+        // Act
+        List<AccountResponse> accounts = accountService.getAccountsByIds(List.of(1L));
+
+        // Assert
+        assertEquals(List.of(cached), accounts);
+        verifyNoInteractions(accountRepository);
+    }
+}
@@ -3,6 +3,7 @@ package org.cyan.in;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
+import org.cyan.core.service.AccountExportService;
 import org.cyan.core.service.AccountService;
 import org.cyan.exception.AccountNotFoundException;
 import org.cyan.in.model.AccountRequest;
@@ -16,8 +17,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
@@ -33,6 +37,9 @@ class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    @MockBean
+    private AccountExportService accountExportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,14 +51,14 @@ class AccountControllerTest {
         validRequest = AccountRequest.builder()
                 .alias("validAlias")
                 .bankName("Chase")
-                .balance(new BigDecimal("100.00"))
+                .balance(10000L)
                 .build();
 
         validResponse = AccountResponse.builder()
                 .id(1L)
                 .alias("validAlias")
                 .bankName("Chase")
-                .balance(new BigDecimal("100.00"))
+                .balance(10000L)
                 .build();
     }
 
@@ -69,6 +76,48 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.balance").value(100.00));
     }
 
+    @Test
+    void shouldLookUpSeveralAccountsByIds() throws Exception {
+        Mockito.when(accountService.getAccountsByIds(List.of(1L, 2L))).thenReturn(List.of(validResponse));
+
+        mockMvc.perform(get("/api/accounts").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1L));
+
+        mockMvc.perform(post("/api/accounts/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].alias").value("validAlias"));
+    }
+
+    @Test
+    void shouldRejectLookupsOfTooManyAccounts() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, AccountController.MAX_LOOKUP_ACCOUNTS + 1)
+                .boxed().toList();
+
+        mockMvc.perform(post("/api/accounts/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("at most")));
+    }
+
+    @Test
+    void shouldStreamTheExportAsNdjson() throws Exception {
+        Mockito.when(accountExportService.export(Mockito.eq(42L), Mockito.any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":43}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        mockMvc.perform(get("/api/accounts/export").param("after", "42"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":43}\n"));
+    }
+
     @Test
     void shouldReturnBadRequestForInvalidAlias() throws Exception {
         AccountRequest invalid = validRequest.toBuilder().alias("bad*alias").build();
@@ -94,7 +143,7 @@ class AccountControllerTest {
 
     @Test
     void shouldValidateBankNameInOrder() {
-        AccountRequest request = new AccountRequest("Alias123", "", BigDecimal.TEN);
+        AccountRequest request = new AccountRequest("Alias123", "", 1000L);
 
         Set<ConstraintViolation<AccountRequest>> violations = Validation.buildDefaultValidatorFactory().getValidator().validate(request);
 
@@ -116,7 +165,7 @@ class AccountControllerTest {
 
     @Test
     void shouldReturnBadRequestForNegativeBalance() throws Exception {
-        AccountRequest invalid = validRequest.toBuilder().balance(new BigDecimal("-5.00")).build();
+        AccountRequest invalid = validRequest.toBuilder().balance(-500L).build();
 
         mockMvc.perform(post("/api/accounts")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -1,20 +1,20 @@
 package org.cyan.core.event;
 
 import org.cyan.core.data.model.Alias;
-import org.cyan.core.event.model.AliasRegisteredEvent;
+import org.cyan.events.model.AliasCreatedEvent;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, AliasRegisteredEvent> kafkaTemplate;
+    private final KafkaTemplate<String, AliasCreatedEvent> kafkaTemplate;
 
-    public KafkaProducerService(KafkaTemplate<String, AliasRegisteredEvent> kafkaTemplate) {
+    public KafkaProducerService(KafkaTemplate<String, AliasCreatedEvent> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
     public void sendAliasRegisteredEvent(Alias alias) {
-        AliasRegisteredEvent event = AliasRegisteredEvent.builder().id(alias.getId()).name(alias.getName()).build();
+        AliasCreatedEvent event = AliasCreatedEvent.builder().id(alias.getId()).alias(alias.getName()).build();
         kafkaTemplate.send("alias-created-topic", event);
     }
 }
\ No newline at end of file
@@ -1,15 +0,0 @@
-package org.cyan.core.event.model;
-
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Builder
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class AliasRegisteredEvent {
-    private String name;
-    private Long id;
-}
\ No newline at end of file
@@ -2,7 +2,7 @@ package org.cyan.core.event;
 
 import org.cyan.core.data.model.Alias;
 import org.cyan.core.event.KafkaProducerService;
-import org.cyan.core.event.model.AliasRegisteredEvent;
+import org.cyan.events.model.AliasCreatedEvent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -16,7 +16,7 @@ import static org.mockito.Mockito.*;
 class KafkaProducerServiceTest {
 
     @Mock
-    private KafkaTemplate<String, AliasRegisteredEvent> kafkaTemplate;
+    private KafkaTemplate<String, AliasCreatedEvent> kafkaTemplate;
 
     @InjectMocks
     private KafkaProducerService kafkaProducerService;
@@ -30,6 +30,6 @@ class KafkaProducerServiceTest {
         kafkaProducerService.sendAliasRegisteredEvent(alias);
 
         // Then
-        verify(kafkaTemplate, times(1)).send(eq("alias-created-topic"), any(AliasRegisteredEvent.class));
+        verify(kafkaTemplate, times(1)).send("alias-created-topic", new AliasCreatedEvent(1L, "JohnDoe123"));
     }
 }
@@ -3,7 +3,7 @@ package org.cyan.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.cyan.core.data.AliasRepository;
 import org.cyan.core.data.model.Alias;
-import org.cyan.core.event.model.AliasRegisteredEvent;
+import org.cyan.events.model.AliasCreatedEvent;
 import org.cyan.in.model.CreateAliasRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -61,7 +61,7 @@ class AliasIntegrationTest {
     private AliasRepository aliasRepository;
 
     @Autowired
-    private KafkaTemplate<String, AliasRegisteredEvent> kafkaTemplate;
+    private KafkaTemplate<String, AliasCreatedEvent> kafkaTemplate;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -0,0 +1,58 @@
+package org.cyan.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.kafka.EventDeserializer;
+import org.cyan.events.model.AccountEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    public ConsumerFactory<String, byte[]> transferConsumerFactory() {
+        // Decoded by the listener, which skips unreadable transfers instead of failing the poll.
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> transferKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(transferConsumerFactory());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, AccountEvent> accountEventConsumerFactory() {
+        // Binary events, and JSON ones written before the binary format.
+        return new DefaultKafkaConsumerFactory<>(consumerProps(), new StringDeserializer(), new EventDeserializer<>(EventCodecs.ACCOUNT_EVENT));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, AccountEvent> accountEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, AccountEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(accountEventConsumerFactory());
+        return factory;
+    }
+
+    private Map<String, Object> consumerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // Never apply records of aborted producer transactions.
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return props;
+    }
+}
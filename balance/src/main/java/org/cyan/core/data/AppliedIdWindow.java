@@ -0,0 +1,53 @@
+package org.cyan.core.data;
+
+/**
+ * The producer ids most recently applied on one partition, for exact duplicate checks. Ids are kept
+ * in the order they were applied and the oldest is forgotten first once {@code capacity} are held,
+ * so a republished id is caught as long as fewer than {@code capacity} others were applied since,
+ * whatever its value relative to them.
+ * <p>
+ * Lookups go through a {@link LongLongHashMap} and may run on any thread; {@link #add} and
+ * {@link #ids} must not race each other, which holds because one partition is applied by one thread
+ * and snapshots copy the window while nothing is being applied.
+ */
+public class AppliedIdWindow {
+
+    private final long[] ring;
+    private final LongLongHashMap index;
+    private int next;
+    private int size;
+
+    public AppliedIdWindow(int capacity) {
+        this.ring = new long[capacity];
+        this.index = new LongLongHashMap(capacity);
+    }
+
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    /** Remembers {@code id}, forgetting the oldest id if the window is full. */
+    public void add(long id) {
+        if (index.containsKey(id)) {
+            return;
+        }
+        if (size == ring.length) {
+            index.remove(ring[next]);
+        } else {
+            size++;
+        }
+        ring[next] = id;
+        index.put(id, 1L);
+        next = (next + 1) % ring.length;
+    }
+
+    /** The remembered ids, oldest first. */
+    public long[] ids() {
+        long[] ids = new long[size];
+        int oldest = size == ring.length ? next : 0;
+        for (int i = 0; i < size; i++) {
+            ids[i] = ring[(oldest + i) % ring.length];
+        }
+        return ids;
+    }
+}
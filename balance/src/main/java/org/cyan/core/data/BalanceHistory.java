@@ -0,0 +1,149 @@
+package org.cyan.core.data;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-account balance history, one {@link HistorySegment} per account. Answers "balance as of T"
+ * and "changes between T1 and T2" from the event stream alone. Each account keeps roughly its
+ * latest {@code max-entries-per-account} changes; older blocks are dropped whole.
+ * <p>
+ * {@link #freeze()} hands out a read-only view of the current history for the snapshot writer at
+ * the cost of copying references. Segments are copied on write: the first change to a segment
+ * after a freeze goes to a fresh copy, so the frozen view never changes while it is written out.
+ */
+@Component
+public class BalanceHistory {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, HistorySegment> segments = new HashMap<>();
+    private final int maxEntriesPerAccount;
+    private int generation;
+
+    public BalanceHistory(@Value("${app.balance.history.max-entries-per-account:100000}") int maxEntriesPerAccount) {
+        this.maxEntriesPerAccount = maxEntriesPerAccount;
+    }
+
+    /**
+     * A read-only view of the history as it is now. Later changes go to copies of the segments
+     * they touch, so the view stays as it was; it must not be recorded to.
+     */
+    public BalanceHistory freeze() {
+        lock.writeLock().lock();
+        try {
+            BalanceHistory frozen = new BalanceHistory(maxEntriesPerAccount);
+            frozen.segments.putAll(segments);
+            generation++;
+            return frozen;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Appends the balance {@code accountId} had after the event at {@code offset}. */
+    public void record(long accountId, long offset, long timestamp, long balance) {
+        lock.writeLock().lock();
+        try {
+            HistorySegment segment = segments.get(accountId);
+            if (segment == null || segment.generation != generation) {
+                segment = segment == null ? new HistorySegment() : segment.copy(generation);
+                segment.generation = generation;
+                segments.put(accountId, segment);
+            }
+            segment.append(offset, timestamp, balance);
+            if (segment.size() > maxEntriesPerAccount + HistorySegment.BLOCK) {
+                segment.dropOldestBlock();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** The balance of {@code accountId} as of {@code timestamp}, or {@code null} if it had none yet. */
+    public Long balanceAt(long accountId, long timestamp) {
+        lock.readLock().lock();
+        try {
+            HistorySegment segment = segments.get(accountId);
+            if (segment == null) {
+                return null;
+            }
+            long balance = segment.balanceAt(timestamp, Long.MIN_VALUE);
+            return balance == Long.MIN_VALUE ? null : balance;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Changes of {@code accountId} between {@code from} and {@code to} inclusive, oldest first. */
+    public List<BalanceHistoryEntry> changes(long accountId, long from, long to, int limit) {
+        List<BalanceHistoryEntry> changes = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            HistorySegment segment = segments.get(accountId);
+            if (segment != null) {
+                segment.changes(from, to, limit, changes::add);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return changes;
+    }
+
+    public boolean contains(long accountId) {
+        lock.readLock().lock();
+        try {
+            return segments.containsKey(accountId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int accounts() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void forEach(BiConsumer<Long, HistorySegment> consumer) {
+        lock.readLock().lock();
+        try {
+            segments.forEach(consumer);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Replaces the whole history with {@code restored}; only valid before the listeners start. */
+    public void replace(BalanceHistory restored) {
+        lock.writeLock().lock();
+        try {
+            segments.clear();
+            restored.forEach((accountId, segment) -> {
+                segment.generation = generation;
+                segments.put(accountId, segment);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void put(long accountId, HistorySegment segment) {
+        lock.writeLock().lock();
+        try {
+            segments.put(accountId, segment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.cyan.core.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** One balance change: the source record's offset, its timestamp (epoch millis) and the new balance. */
+@Getter
+@AllArgsConstructor
+public class BalanceHistoryEntry {
+    private final long offset;
+    private final long timestamp;
+    private final long balance;
+}
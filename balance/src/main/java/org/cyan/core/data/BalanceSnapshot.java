@@ -0,0 +1,21 @@
+package org.cyan.core.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Balances and their history restored from disk and, per partition, the next offset to consume
+ * after them and the producer ids most recently applied, oldest first. The history comes from its own
+ * file and is empty when that file could not be read.
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceSnapshot {
+    private final LongLongHashMap balances;
+    private final Map<TopicPartition, Long> offsets;
+    private final Map<TopicPartition, long[]> appliedIds;
+    private final BalanceHistory history;
+}
@@ -0,0 +1,385 @@
+package org.cyan.core.data;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Persists the balance view to a memory-mapped file together with the next Kafka offset of every
+ * partition it has consumed. A snapshot is written to a temporary file and atomically renamed over
+ * the previous one, so a crash mid-write leaves the last complete snapshot in place.
+ * <p>
+ * The balance history goes to a file of its own, {@code <path>.history.<id>}, written before the
+ * snapshot that names its id; the previous history file is deleted only once the new snapshot is in
+ * place. The snapshot itself stays as small as the balances, and a crash between the two writes
+ * leaves the old snapshot with the old history.
+ * <p>
+ * Snapshot layout (big endian): magic, version, history id, offset count, then
+ * {@code (topic, partition, offset)} triples, the applied-id count, then {@code (topic, partition,
+ * id count, ids)} in the order they were applied, entry count,
+ * then {@code (accountId, balance)} pairs, and a CRC32 of everything before it. History layout:
+ * magic, version, id, account count, then {@code (accountId, segment)} pairs in the
+ * {@link HistorySegment} encoding, and a CRC32. Files are mapped in windows, so neither is limited
+ * to 2 GB. A snapshot of an older version is ignored, which rebuilds the view from the beginning;
+ * a missing or damaged history file only leaves the history empty.
+ */
+@Slf4j
+@Component
+public class BalanceSnapshotStore {
+
+    private static final int MAGIC = 0x42414C53; // "BALS"
+    private static final int VERSION = 5;
+    private static final int HISTORY_MAGIC = 0x42414C48; // "BALH"
+    private static final int HISTORY_VERSION = 1;
+    private static final long DEFAULT_WINDOW = 64L * 1024 * 1024;
+
+    private final Path path;
+    private final long window;
+    private long lastHistoryId;
+
+    public BalanceSnapshotStore(@Value("${app.balance.snapshot.path:data/balance.snapshot}") Path path) {
+        this(path, DEFAULT_WINDOW);
+    }
+
+    BalanceSnapshotStore(Path path, long window) {
+        this.path = path;
+        this.window = window;
+    }
+
+    /**
+     * Writes the history, then the snapshot. Callers pass copies, or a {@link BalanceHistory#freeze()
+     * frozen} history, that do not change while this runs; the live view can keep changing.
+     */
+    public synchronized void write(LongLongHashMap balances, Map<TopicPartition, Long> offsets,
+                                   Map<TopicPartition, long[]> appliedIds, BalanceHistory history) throws IOException {
+        long historyId = Math.max(System.currentTimeMillis(), lastHistoryId + 1);
+        writeAtomically(historyPath(historyId), out -> {
+            out.putInt(HISTORY_MAGIC);
+            out.putInt(HISTORY_VERSION);
+            out.putLong(historyId);
+            out.putInt(history.accounts());
+            history.forEach((accountId, segment) -> {
+                out.putLong(accountId);
+                segment.writeTo(out);
+            });
+        });
+        writeAtomically(path, out -> {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(historyId);
+            writePositions(out, offsets);
+            writeAppliedIds(out, appliedIds);
+            out.putLong(balances.size());
+            balances.forEach((accountId, balance) -> {
+                out.putLong(accountId);
+                out.putLong(balance);
+            });
+        });
+        lastHistoryId = historyId;
+        deleteHistoriesExcept(historyId);
+    }
+
+    /** The latest snapshot, or empty when there is none or it fails its checksum. */
+    public Optional<BalanceSnapshot> load() throws IOException {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        long historyId;
+        Map<TopicPartition, Long> offsets;
+        Map<TopicPartition, long[]> appliedIds;
+        LongLongHashMap balances;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedReader in = new MappedReader(channel, window);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                log.warn("Ignoring balance snapshot {} with unknown format", path);
+                return Optional.empty();
+            }
+            historyId = in.getLong();
+            offsets = readPositions(in);
+            appliedIds = readAppliedIds(in);
+            long entries = in.getLong();
+            balances = new LongLongHashMap((int) Math.min(entries, Integer.MAX_VALUE / 4));
+            for (long i = 0; i < entries; i++) {
+                balances.put(in.getLong(), in.getLong());
+            }
+            if (!in.checksumMatches()) {
+                log.warn("Ignoring balance snapshot {} with a bad checksum", path);
+                return Optional.empty();
+            }
+        } catch (BufferUnderflowException e) {
+            log.warn("Ignoring truncated balance snapshot {}", path);
+            return Optional.empty();
+        }
+        lastHistoryId = historyId;
+        return Optional.of(new BalanceSnapshot(balances, offsets, appliedIds, loadHistory(historyId)));
+    }
+
+    private BalanceHistory loadHistory(long historyId) throws IOException {
+        Path historyPath = historyPath(historyId);
+        BalanceHistory history = new BalanceHistory(Integer.MAX_VALUE);
+        if (!Files.exists(historyPath)) {
+            log.warn("Balance history {} is missing, starting with an empty history", historyPath);
+            return history;
+        }
+        try (FileChannel channel = FileChannel.open(historyPath, StandardOpenOption.READ)) {
+            MappedReader in = new MappedReader(channel, window);
+            if (in.getInt() != HISTORY_MAGIC || in.getInt() != HISTORY_VERSION || in.getLong() != historyId) {
+                log.warn("Ignoring balance history {} with unknown format", historyPath);
+                return new BalanceHistory(Integer.MAX_VALUE);
+            }
+            int accounts = in.getInt();
+            for (int i = 0; i < accounts; i++) {
+                history.put(in.getLong(), HistorySegment.readFrom(in));
+            }
+            if (!in.checksumMatches()) {
+                log.warn("Ignoring balance history {} with a bad checksum", historyPath);
+                return new BalanceHistory(Integer.MAX_VALUE);
+            }
+            return history;
+        } catch (BufferUnderflowException e) {
+            log.warn("Ignoring truncated balance history {}", historyPath);
+            return new BalanceHistory(Integer.MAX_VALUE);
+        }
+    }
+
+    Path historyPath(long historyId) {
+        return path.resolveSibling(path.getFileName() + ".history." + historyId);
+    }
+
+    private void writeAtomically(Path target, Consumer<MappedWriter> body) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = parent.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedWriter out = new MappedWriter(channel, window);
+            body.accept(out);
+            out.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteHistoriesExcept(long historyId) throws IOException {
+        String keep = historyPath(historyId).getFileName().toString();
+        try (DirectoryStream<Path> histories = Files.newDirectoryStream(path.toAbsolutePath().getParent(),
+                path.getFileName() + ".history.*")) {
+            for (Path history : histories) {
+                if (!history.getFileName().toString().equals(keep) && !history.toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(history);
+                }
+            }
+        }
+    }
+
+    private static void writePositions(MappedWriter out, Map<TopicPartition, Long> positions) {
+        out.putInt(positions.size());
+        for (Map.Entry<TopicPartition, Long> position : positions.entrySet()) {
+            byte[] topic = position.getKey().topic().getBytes(StandardCharsets.UTF_8);
+            out.putInt(topic.length);
+            out.put(topic);
+            out.putInt(position.getKey().partition());
+            out.putLong(position.getValue());
+        }
+    }
+
+    private static void writeAppliedIds(MappedWriter out, Map<TopicPartition, long[]> appliedIds) {
+        out.putInt(appliedIds.size());
+        for (Map.Entry<TopicPartition, long[]> partition : appliedIds.entrySet()) {
+            byte[] topic = partition.getKey().topic().getBytes(StandardCharsets.UTF_8);
+            out.putInt(topic.length);
+            out.put(topic);
+            out.putInt(partition.getKey().partition());
+            out.putInt(partition.getValue().length);
+            for (long id : partition.getValue()) {
+                out.putLong(id);
+            }
+        }
+    }
+
+    private static Map<TopicPartition, long[]> readAppliedIds(MappedReader in) throws IOException {
+        int count = in.getInt();
+        Map<TopicPartition, long[]> appliedIds = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            byte[] topic = new byte[in.getInt()];
+            in.get(topic);
+            TopicPartition partition = new TopicPartition(new String(topic, StandardCharsets.UTF_8), in.getInt());
+            long[] ids = new long[in.getInt()];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = in.getLong();
+            }
+            appliedIds.put(partition, ids);
+        }
+        return appliedIds;
+    }
+
+    private static Map<TopicPartition, Long> readPositions(MappedReader in) throws IOException {
+        int count = in.getInt();
+        Map<TopicPartition, Long> positions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            byte[] topic = new byte[in.getInt()];
+            in.get(topic);
+            positions.put(new TopicPartition(new String(topic, StandardCharsets.UTF_8), in.getInt()), in.getLong());
+        }
+        return positions;
+    }
+
+    /** Sequential writer over a sliding mapped window; remaps at the current position when full. */
+    private static final class MappedWriter implements HistorySegment.Output {
+        private final FileChannel channel;
+        private final long windowSize;
+        private final CRC32 crc = new CRC32();
+        private long base;
+        private int checksummed;
+        private MappedByteBuffer window;
+
+        private MappedWriter(FileChannel channel, long windowSize) throws IOException {
+            this.channel = channel;
+            this.windowSize = windowSize;
+            this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, windowSize);
+        }
+
+        @Override
+        public void putInt(int value) {
+            ensure(Integer.BYTES);
+            window.putInt(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            ensure(Long.BYTES);
+            window.putLong(value);
+        }
+
+        void put(byte[] bytes) {
+            put(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void put(byte[] bytes, int offset, int length) {
+            for (int written = 0; written < length; ) {
+                ensure(1);
+                int chunk = Math.min(window.remaining(), length - written);
+                window.put(bytes, offset + written, chunk);
+                written += chunk;
+            }
+        }
+
+        /** Appends the checksum, trims the file to its length and forces it to disk. */
+        void finish() throws IOException {
+            checksumWindow();
+            putLong(crc.getValue());
+            window.force();
+            channel.truncate(base + window.position());
+            channel.force(true);
+        }
+
+        private void ensure(int bytes) {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            checksumWindow();
+            window.force();
+            base += window.position();
+            try {
+                window = channel.map(FileChannel.MapMode.READ_WRITE, base, windowSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            checksummed = 0;
+        }
+
+        private void checksumWindow() {
+            crc.update(window.duplicate().position(checksummed).limit(window.position()));
+            checksummed = window.position();
+        }
+    }
+
+    /** Sequential reader over a sliding mapped window, checksumming what it consumes. */
+    private static final class MappedReader implements HistorySegment.Input {
+        private final FileChannel channel;
+        private final long windowSize;
+        private final long size;
+        private final CRC32 crc = new CRC32();
+        private long base;
+        private int checksummed;
+        private MappedByteBuffer window;
+
+        private MappedReader(FileChannel channel, long windowSize) throws IOException {
+            this.channel = channel;
+            this.windowSize = windowSize;
+            this.size = channel.size();
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(windowSize, size));
+        }
+
+        @Override
+        public int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return window.getInt();
+        }
+
+        @Override
+        public long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return window.getLong();
+        }
+
+        void get(byte[] bytes) throws IOException {
+            get(bytes, bytes.length);
+        }
+
+        @Override
+        public void get(byte[] bytes, int length) throws IOException {
+            for (int read = 0; read < length; ) {
+                ensure(1);
+                int chunk = Math.min(window.remaining(), length - read);
+                window.get(bytes, read, chunk);
+                read += chunk;
+            }
+        }
+
+        /** Reads the trailing checksum and compares it with the bytes consumed so far. */
+        boolean checksumMatches() throws IOException {
+            checksumWindow();
+            long expected = crc.getValue();
+            return getLong() == expected && base + window.position() == size;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            checksumWindow();
+            base += window.position();
+            if (base + bytes > size) {
+                throw new BufferUnderflowException();
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(windowSize, size - base));
+            checksummed = 0;
+        }
+
+        private void checksumWindow() {
+            crc.update(window.duplicate().position(checksummed).limit(window.position()));
+            checksummed = window.position();
+        }
+    }
+}
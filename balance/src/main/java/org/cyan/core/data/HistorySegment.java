@@ -0,0 +1,270 @@
+package org.cyan.core.data;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Append-only balance history of one account. Entries are grouped in blocks of {@link #BLOCK};
+ * the first entry of every block is kept absolute in a sparse index, and the rest are stored as
+ * varint deltas from their predecessor (zigzag for offset and balance, plain for timestamp).
+ * A lookup binary-searches the index and decodes at most one or two blocks.
+ * <p>
+ * Timestamps are clamped so they never decrease; events of one account arrive from several
+ * partitions, and the index relies on time order. Not thread-safe, see {@link BalanceHistory}.
+ */
+final class HistorySegment {
+
+    static final int BLOCK = 64;
+
+    private byte[] bytes = new byte[64];
+    private int length;
+    private int entries;
+
+    private int blocks;
+    private int[] blockStart = new int[4];
+    private long[] blockOffset = new long[4];
+    private long[] blockTime = new long[4];
+    private long[] blockBalance = new long[4];
+
+    private long lastOffset;
+    private long lastTime;
+    private long lastBalance;
+
+    /** The {@link BalanceHistory} generation this segment may be changed in; older ones are frozen. */
+    int generation;
+
+    void append(long offset, long timestamp, long balance) {
+        long time = entries == 0 ? timestamp : Math.max(timestamp, lastTime);
+        if (entries % BLOCK == 0) {
+            addBlock(offset, time, balance);
+        } else {
+            writeVarLong(zigzag(offset - lastOffset));
+            writeVarLong(time - lastTime);
+            writeVarLong(zigzag(balance - lastBalance));
+        }
+        lastOffset = offset;
+        lastTime = time;
+        lastBalance = balance;
+        entries++;
+    }
+
+    int size() {
+        return entries;
+    }
+
+    /** A deep copy that can be appended to without changing this segment. */
+    HistorySegment copy(int generation) {
+        HistorySegment copy = new HistorySegment();
+        copy.bytes = Arrays.copyOf(bytes, Math.max(64, length));
+        copy.length = length;
+        copy.entries = entries;
+        copy.blocks = blocks;
+        copy.blockStart = blockStart.clone();
+        copy.blockOffset = blockOffset.clone();
+        copy.blockTime = blockTime.clone();
+        copy.blockBalance = blockBalance.clone();
+        copy.lastOffset = lastOffset;
+        copy.lastTime = lastTime;
+        copy.lastBalance = lastBalance;
+        copy.generation = generation;
+        return copy;
+    }
+
+    /** Drops the oldest block; blocks start from absolute values, so nothing needs re-encoding. */
+    void dropOldestBlock() {
+        if (blocks <= 1) {
+            return;
+        }
+        int cut = blockStart[1];
+        System.arraycopy(bytes, cut, bytes, 0, length - cut);
+        length -= cut;
+        blocks--;
+        for (int b = 0; b < blocks; b++) {
+            blockStart[b] = blockStart[b + 1] - cut;
+            blockOffset[b] = blockOffset[b + 1];
+            blockTime[b] = blockTime[b + 1];
+            blockBalance[b] = blockBalance[b + 1];
+        }
+        entries -= BLOCK;
+    }
+
+    /** The balance after the last change at or before {@code timestamp}, or {@code missing}. */
+    long balanceAt(long timestamp, long missing) {
+        int block = lastBlockAtOrBefore(timestamp);
+        if (block < 0) {
+            return missing;
+        }
+        long[] result = {missing};
+        scan(block, (offset, time, balance) -> {
+            if (time > timestamp) {
+                return false;
+            }
+            result[0] = balance;
+            return true;
+        });
+        return result[0];
+    }
+
+    /** Changes with {@code from <= timestamp <= to}, oldest first, at most {@code limit} of them. */
+    void changes(long from, long to, int limit, Consumer<BalanceHistoryEntry> consumer) {
+        // Equal timestamps may straddle a block boundary, so start in the block before the first match.
+        int block = Math.max(0, lastBlockAtOrBefore(from - 1));
+        int[] emitted = {0};
+        scan(block, (offset, time, balance) -> {
+            if (time > to || emitted[0] >= limit) {
+                return false;
+            }
+            if (time >= from) {
+                consumer.accept(new BalanceHistoryEntry(offset, time, balance));
+                emitted[0]++;
+            }
+            return true;
+        });
+    }
+
+    void writeTo(Output out) {
+        out.putInt(entries);
+        out.putInt(blocks);
+        for (int b = 0; b < blocks; b++) {
+            out.putInt(blockStart[b]);
+            out.putLong(blockOffset[b]);
+            out.putLong(blockTime[b]);
+            out.putLong(blockBalance[b]);
+        }
+        out.putLong(lastOffset);
+        out.putLong(lastTime);
+        out.putLong(lastBalance);
+        out.putInt(length);
+        out.put(bytes, 0, length);
+    }
+
+    static HistorySegment readFrom(Input in) throws IOException {
+        HistorySegment segment = new HistorySegment();
+        segment.entries = in.getInt();
+        segment.blocks = in.getInt();
+        int capacity = Math.max(4, segment.blocks);
+        segment.blockStart = new int[capacity];
+        segment.blockOffset = new long[capacity];
+        segment.blockTime = new long[capacity];
+        segment.blockBalance = new long[capacity];
+        for (int b = 0; b < segment.blocks; b++) {
+            segment.blockStart[b] = in.getInt();
+            segment.blockOffset[b] = in.getLong();
+            segment.blockTime[b] = in.getLong();
+            segment.blockBalance[b] = in.getLong();
+        }
+        segment.lastOffset = in.getLong();
+        segment.lastTime = in.getLong();
+        segment.lastBalance = in.getLong();
+        segment.length = in.getInt();
+        segment.bytes = new byte[Math.max(64, segment.length)];
+        in.get(segment.bytes, segment.length);
+        return segment;
+    }
+
+    interface Output {
+        void putInt(int value);
+
+        void putLong(long value);
+
+        void put(byte[] bytes, int offset, int length);
+    }
+
+    interface Input {
+        int getInt() throws IOException;
+
+        long getLong() throws IOException;
+
+        void get(byte[] bytes, int length) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        /** Returns {@code false} to stop the scan. */
+        boolean visit(long offset, long timestamp, long balance);
+    }
+
+    private void scan(int fromBlock, EntryVisitor visitor) {
+        for (int b = fromBlock; b < blocks; b++) {
+            long offset = blockOffset[b];
+            long time = blockTime[b];
+            long balance = blockBalance[b];
+            if (!visitor.visit(offset, time, balance)) {
+                return;
+            }
+            int end = b + 1 < blocks ? blockStart[b + 1] : length;
+            int[] pos = {blockStart[b]};
+            while (pos[0] < end) {
+                offset += unzigzag(readVarLong(pos));
+                time += readVarLong(pos);
+                balance += unzigzag(readVarLong(pos));
+                if (!visitor.visit(offset, time, balance)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int lastBlockAtOrBefore(long timestamp) {
+        int low = 0;
+        int high = blocks - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blockTime[mid] <= timestamp) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private void addBlock(long offset, long time, long balance) {
+        if (blocks == blockStart.length) {
+            int capacity = blocks * 2;
+            blockStart = Arrays.copyOf(blockStart, capacity);
+            blockOffset = Arrays.copyOf(blockOffset, capacity);
+            blockTime = Arrays.copyOf(blockTime, capacity);
+            blockBalance = Arrays.copyOf(blockBalance, capacity);
+        }
+        blockStart[blocks] = length;
+        blockOffset[blocks] = offset;
+        blockTime[blocks] = time;
+        blockBalance[blocks] = balance;
+        blocks++;
+    }
+
+    private void writeVarLong(long value) {
+        if (length + 10 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    private long readVarLong(int[] pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,273 @@
+package org.cyan.core.data;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing {@code long -> long} hash map with linear probing. Keys and values are
+ * interleaved in a single {@code long[]}, so an entry costs two array slots and no objects.
+ * Key {@code 0} marks a free slot in the table and is kept in a separate field.
+ * <p>
+ * Writers take the write lock of a {@link StampedLock}. Readers first try an optimistic read and
+ * fall back to the read lock only if a write interleaved. The table is read through one array
+ * reference, so a racing resize can produce a stale value but never an out-of-range index.
+ */
+public class LongLongHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final StampedLock lock = new StampedLock();
+    /** Even index: key, odd index: value. Length is twice the (power of two) capacity. */
+    private long[] table;
+    private int size;
+    private int resizeAt;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /** The value mapped to {@code key}, or {@code missing} when there is none. */
+    public long get(long key, long missing) {
+        long stamp = lock.tryOptimisticRead();
+        long value = find(key, missing);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(key, missing);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public boolean containsKey(long key) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = contains(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = contains(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    public void put(long key, long value) {
+        long stamp = lock.writeLock();
+        try {
+            if (key == 0) {
+                size += hasZeroKey ? 0 : 1;
+                hasZeroKey = true;
+                zeroValue = value;
+                return;
+            }
+            int slot = slotOf(table, key);
+            if (table[slot] == 0) {
+                insert(slot, key, value);
+            } else {
+                table[slot + 1] = value;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Adds {@code delta} to the value of {@code key}, starting from zero, and returns the new value. */
+    public long addTo(long key, long delta) {
+        long stamp = lock.writeLock();
+        try {
+            if (key == 0) {
+                size += hasZeroKey ? 0 : 1;
+                zeroValue = hasZeroKey ? Math.addExact(zeroValue, delta) : delta;
+                hasZeroKey = true;
+                return zeroValue;
+            }
+            int slot = slotOf(table, key);
+            if (table[slot] == 0) {
+                insert(slot, key, delta);
+                return delta;
+            }
+            return table[slot + 1] = Math.addExact(table[slot + 1], delta);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            if (key == 0) {
+                if (!hasZeroKey) {
+                    return false;
+                }
+                hasZeroKey = false;
+                zeroValue = 0;
+                size--;
+                return true;
+            }
+            int slot = slotOf(table, key);
+            if (table[slot] == 0) {
+                return false;
+            }
+            shiftBack(slot);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** An independent copy of the map, taken under the read lock. */
+    public LongLongHashMap copy() {
+        long stamp = lock.readLock();
+        try {
+            LongLongHashMap copy = new LongLongHashMap();
+            copy.table = table.clone();
+            copy.size = size;
+            copy.resizeAt = resizeAt;
+            copy.hasZeroKey = hasZeroKey;
+            copy.zeroValue = zeroValue;
+            return copy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Visits every entry under the read lock; writers wait until the visit is done. */
+    public void forEach(EntryConsumer consumer) {
+        long stamp = lock.readLock();
+        try {
+            if (hasZeroKey) {
+                consumer.accept(0, zeroValue);
+            }
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != 0) {
+                    consumer.accept(table[i], table[i + 1]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private long find(long key, long missing) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : missing;
+        }
+        long[] t = table;
+        int slot = probe(t, key);
+        return slot < 0 ? missing : t[slot + 1];
+    }
+
+    private boolean contains(long key) {
+        return key == 0 ? hasZeroKey : probe(table, key) >= 0;
+    }
+
+    /** The slot holding {@code key}, or -1. Bounded so that a torn optimistic read cannot spin. */
+    private static int probe(long[] t, long key) {
+        int mask = t.length - 2;
+        int slot = index(key, mask);
+        for (int probes = 0; probes < t.length / 2; probes++) {
+            long current = t[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0) {
+                return -1;
+            }
+            slot = (slot + 2) & mask;
+        }
+        return -1;
+    }
+
+    /** The slot holding {@code key}, or the free slot where it belongs. */
+    private static int slotOf(long[] t, long key) {
+        int mask = t.length - 2;
+        int slot = index(key, mask);
+        while (t[slot] != 0 && t[slot] != key) {
+            slot = (slot + 2) & mask;
+        }
+        return slot;
+    }
+
+    private static int index(long key, int mask) {
+        long h = key * GOLDEN_RATIO;
+        return ((int) (h ^ (h >>> 32)) << 1) & mask;
+    }
+
+    private void insert(int slot, long key, long value) {
+        table[slot] = key;
+        table[slot + 1] = value;
+        if (++size > resizeAt) {
+            rehash(table.length);
+        }
+    }
+
+    /** Backward-shift deletion: pulls later entries of the same probe run into the freed slot. */
+    private void shiftBack(int slot) {
+        int mask = table.length - 2;
+        int free = slot;
+        int next = (free + 2) & mask;
+        while (table[next] != 0) {
+            int home = index(table[next], mask);
+            boolean movable = free <= next ? (home <= free || home > next) : (home <= free && home > next);
+            if (movable) {
+                table[free] = table[next];
+                table[free + 1] = table[next + 1];
+                free = next;
+            }
+            next = (next + 2) & mask;
+        }
+        table[free] = 0;
+        table[free + 1] = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = table;
+        allocate(newCapacity);
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0) {
+                int slot = slotOf(table, old[i]);
+                table[slot] = old[i];
+                table[slot + 1] = old[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity * 2];
+        // Load factor 0.5 keeps probe runs short; the table is still only 32 bytes per account.
+        resizeAt = capacity / 2;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
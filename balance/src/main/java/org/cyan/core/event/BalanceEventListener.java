@@ -0,0 +1,135 @@
+package org.cyan.core.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.cyan.core.event.model.EventPosition;
+import org.cyan.core.service.BalanceService;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.EventFormatException;
+import org.cyan.events.model.AccountEvent;
+import org.cyan.events.model.TransferEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Applies transfer and account events to the {@link BalanceService} view. Every instance reads both
+ * topics under its own group id; on assignment each partition is positioned at the offset recorded
+ * in the restored snapshot, or at the beginning if the snapshot has none. Malformed events are
+ * counted and skipped instead of blocking the partition, and transfers republished by the
+ * transactions outbox are recognised by their outbox id and dropped.
+ */
+@Slf4j
+@Component
+public class BalanceEventListener implements ConsumerSeekAware {
+
+    static final String OUTBOX_ID_HEADER = "outbox-id";
+
+    private final BalanceService balanceService;
+    private final Counter transfersApplied;
+    private final Counter accountEventsApplied;
+    private final Counter skipped;
+    private final Counter duplicates;
+
+    public BalanceEventListener(BalanceService balanceService, MeterRegistry meterRegistry) {
+        this.balanceService = balanceService;
+        this.transfersApplied = meterRegistry.counter("balance.events.applied", "type", "transfer");
+        this.accountEventsApplied = meterRegistry.counter("balance.events.applied", "type", "account");
+        this.skipped = meterRegistry.counter("balance.events.skipped");
+        this.duplicates = meterRegistry.counter("balance.events.duplicates");
+    }
+
+    @KafkaListener(topics = "${app.kafka.topics.transfers:transactions}",
+            groupId = "balance-service-${random.uuid}",
+            containerFactory = "transferKafkaListenerContainerFactory")
+    public void onTransfer(ConsumerRecord<String, byte[]> record) {
+        EventPosition at = EventPosition.of(record, outboxId(record));
+        if (balanceService.isDuplicate(at)) {
+            balanceService.skip(at);
+            duplicates.increment();
+            log.debug("Dropping republished transfer event at {}", at);
+            return;
+        }
+        applyTransfer(at, record.value());
+    }
+
+    @KafkaListener(topics = "${app.kafka.topics.account-events:account-events-topic}",
+            groupId = "balance-service-${random.uuid}",
+            containerFactory = "accountEventKafkaListenerContainerFactory")
+    public void onAccountEvent(ConsumerRecord<String, AccountEvent> record) {
+        applyAccountEvent(EventPosition.of(record), record.value());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            Long offset = balanceService.nextOffset(partition);
+            if (offset != null) {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+
+    private void applyTransfer(EventPosition at, byte[] payload) {
+        TransferEvent event;
+        try {
+            event = EventCodecs.TRANSFER.decode(payload);
+        } catch (EventFormatException e) {
+            skip(at, "Unreadable transfer event at {}", at);
+            return;
+        }
+        if (event == null) {
+            skip(at, "Empty transfer event at {}", at);
+            return;
+        }
+        if (event.getFromAccountId() == null || event.getToAccountId() == null
+                || event.getAmount() == null || event.getAmount() <= 0) {
+            skip(at, "Incomplete transfer event: {}", event);
+            return;
+        }
+        balanceService.applyTransfer(at, event.getFromAccountId(), event.getToAccountId(), event.getAmount());
+        transfersApplied.increment();
+    }
+
+    private void applyAccountEvent(EventPosition at, AccountEvent event) {
+        if (event == null || event.getAccountId() == null || event.getEventType() == null) {
+            skip(at, "Incomplete account event: {}", event);
+            return;
+        }
+        long balance = event.getBalance() == null ? 0L : event.getBalance();
+        switch (event.getEventType()) {
+            case "CREATED" -> balanceService.openAccount(at, event.getAccountId(), balance);
+            case "UPDATED" -> balanceService.seedBalance(at, event.getAccountId(), balance);
+            case "DELETED" -> balanceService.closeAccount(at, event.getAccountId());
+            default -> {
+                skip(at, "Unknown account event type: {}", event);
+                return;
+            }
+        }
+        accountEventsApplied.increment();
+    }
+
+    /** The transactions outbox id, sent as an 8-byte header; {@code null} for events without one. */
+    private static Long outboxId(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(OUTBOX_ID_HEADER);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return null;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    private void skip(EventPosition at, String message, Object event) {
+        balanceService.skip(at);
+        skipped.increment();
+        log.warn(message, event);
+    }
+}
@@ -0,0 +1,34 @@
+package org.cyan.core.event.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Where an event was read from: its partition, offset and record timestamp (epoch millis), plus
+ * the producer's sequence number for the event when it carries one, e.g. its outbox id.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EventPosition {
+    private final TopicPartition partition;
+    private final long offset;
+    private final long timestamp;
+    private final Long sequence;
+
+    public EventPosition(TopicPartition partition, long offset, long timestamp) {
+        this(partition, offset, timestamp, null);
+    }
+
+    public static EventPosition of(ConsumerRecord<?, ?> record) {
+        return of(record, null);
+    }
+
+    public static EventPosition of(ConsumerRecord<?, ?> record, Long sequence) {
+        return new EventPosition(new TopicPartition(record.topic(), record.partition()), record.offset(),
+                record.timestamp(), sequence);
+    }
+}
@@ -0,0 +1,276 @@
+package org.cyan.core.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.cyan.core.data.AppliedIdWindow;
+import org.cyan.core.data.BalanceHistory;
+import org.cyan.core.data.BalanceHistoryEntry;
+import org.cyan.core.data.BalanceSnapshot;
+import org.cyan.core.data.BalanceSnapshotStore;
+import org.cyan.core.data.LongLongHashMap;
+import org.cyan.core.event.model.EventPosition;
+import org.cyan.exception.AccountNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Materialized view of account balances, built from the transfer and account event streams and
+ * held in a primitive {@link LongLongHashMap}. Balances are in minor units, see
+ * {@link org.cyan.events.money.Money}.
+ * <p>
+ * Every change is applied together with the Kafka position it came from, and each new balance is
+ * appended to the {@link BalanceHistory} under the record's timestamp. Listeners share the read
+ * side of {@code applyLock}; a snapshot takes the write side only long enough to copy the balances
+ * and offsets and freeze the history, so what it writes always describes the same point in both
+ * streams while the file itself is written without holding up event processing. Within that, every change of one
+ * account holds the account's stripe of {@code accountLocks} from the map update through its history
+ * record, so the two topics' listeners cannot record an account's balances out of order.
+ * <p>
+ * Transfers are the only source of balance movements. An account event seeds the balance when the
+ * account is created, or when an update is the first the view hears of it; later updates restate
+ * the account row, which the view has already moved past, and change nothing.
+ * <p>
+ * Together with restoring from that snapshot, this applies every record exactly once. The one
+ * thing offsets cannot catch is a producer publishing the same event twice, as the outbox relay
+ * does after a failed pass; events that carry a sequence are therefore also checked against the
+ * last {@code app.balance.dedupe.window} sequences applied on their partition, which are
+ * snapshotted with the offsets. The check is on the exact sequence: outbox ids are assigned at
+ * insert, not commit, so a transfer can legitimately arrive after one with a higher id.
+ */
+@Service
+public class BalanceService {
+
+    private static final int ACCOUNT_LOCK_STRIPES = 64;
+
+    private final ReadWriteLock applyLock = new ReentrantReadWriteLock();
+    private final Lock[] accountLocks = new Lock[ACCOUNT_LOCK_STRIPES];
+    private final Map<TopicPartition, Long> nextOffsets = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, AppliedIdWindow> appliedIds = new ConcurrentHashMap<>();
+    private final List<LongConsumer> changeListeners = new CopyOnWriteArrayList<>();
+    private final BalanceHistory history;
+    private final int dedupeWindow;
+    private volatile LongLongHashMap balances;
+
+    public BalanceService(MeterRegistry meterRegistry,
+                          BalanceHistory history,
+                          @Value("${app.balance.expected-accounts:1024}") int expectedAccounts,
+                          @Value("${app.balance.dedupe.window:100000}") int dedupeWindow) {
+        this.history = history;
+        this.dedupeWindow = dedupeWindow;
+        this.balances = new LongLongHashMap(expectedAccounts);
+        for (int i = 0; i < accountLocks.length; i++) {
+            accountLocks[i] = new ReentrantLock();
+        }
+        meterRegistry.gauge("balance.view.accounts", this, service -> service.balances.size());
+    }
+
+    public long getBalance(long accountId) {
+        LongLongHashMap current = balances;
+        long balance = current.get(accountId, Long.MIN_VALUE);
+        if (balance == Long.MIN_VALUE && !current.containsKey(accountId)) {
+            throw new AccountNotFoundException("Account not found with id: " + accountId);
+        }
+        return balance;
+    }
+
+    /** Registers a callback that receives the id of every account whose balance changed. */
+    public void onChange(LongConsumer listener) {
+        changeListeners.add(listener);
+    }
+
+    public void applyTransfer(EventPosition at, long fromAccountId, long toAccountId, long amount) {
+        applyLock.readLock().lock();
+        try {
+            change(at, fromAccountId, () -> balances.addTo(fromAccountId, -amount));
+            change(at, toAccountId, () -> balances.addTo(toAccountId, amount));
+            consumed(at);
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * An opening balance is a credit rather than an overwrite, so a transfer that reached the view
+     * before the account event is not lost.
+     */
+    public void openAccount(EventPosition at, long accountId, long openingBalance) {
+        applyLock.readLock().lock();
+        try {
+            change(at, accountId, () -> balances.addTo(accountId, openingBalance));
+            consumed(at);
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * An account-service update seeds the balance of an account the view does not know yet, for
+     * example when its creation event predates the retained topic, and is otherwise ignored: the
+     * transfers applied since creation already moved the view past the account row it carries.
+     */
+    public void seedBalance(EventPosition at, long accountId, long balance) {
+        applyLock.readLock().lock();
+        try {
+            Lock lock = lockFor(accountId);
+            boolean seeded = false;
+            lock.lock();
+            try {
+                if (!balances.containsKey(accountId)) {
+                    balances.put(accountId, balance);
+                    history.record(accountId, at.getOffset(), at.getTimestamp(), balance);
+                    seeded = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (seeded) {
+                notifyListeners(accountId);
+            }
+            consumed(at);
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    /** A closed account leaves the view; its history records a zero balance from then on. */
+    public void closeAccount(EventPosition at, long accountId) {
+        applyLock.readLock().lock();
+        try {
+            change(at, accountId, () -> {
+                balances.remove(accountId);
+                return 0L;
+            });
+            consumed(at);
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the event at {@code at} repeats one already applied, judged by its exact producer
+     * sequence. Events of one partition are applied by one thread, so the answer holds until it is applied.
+     */
+    public boolean isDuplicate(EventPosition at) {
+        AppliedIdWindow applied = appliedIds.get(at.getPartition());
+        return at.getSequence() != null && applied != null && applied.contains(at.getSequence());
+    }
+
+    /** Records that the event at {@code at} was consumed without changing any balance. */
+    public void skip(EventPosition at) {
+        applyLock.readLock().lock();
+        try {
+            consumed(at);
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    /** The balance of {@code accountId}, or {@code missing} if the view has no such account. */
+    public long getBalance(long accountId, long missing) {
+        return balances.get(accountId, missing);
+    }
+
+    /** The balance of {@code accountId} as of {@code timestamp} (epoch millis). */
+    public long getBalanceAt(long accountId, long timestamp) {
+        Long balance = history.balanceAt(accountId, timestamp);
+        if (balance == null) {
+            throw new AccountNotFoundException("No balance recorded for account " + accountId + " at " + timestamp);
+        }
+        return balance;
+    }
+
+    /** Balance changes of {@code accountId} between {@code from} and {@code to} (epoch millis, inclusive). */
+    public List<BalanceHistoryEntry> getHistory(long accountId, long from, long to, int limit) {
+        if (!history.contains(accountId)) {
+            throw new AccountNotFoundException("Account not found with id: " + accountId);
+        }
+        return history.changes(accountId, from, to, limit);
+    }
+
+    /** The offset to resume {@code partition} from, or {@code null} if nothing was consumed from it. */
+    public Long nextOffset(TopicPartition partition) {
+        return nextOffsets.get(partition);
+    }
+
+    /** Replaces the view with a restored snapshot; only valid before the listeners start. */
+    public void restore(BalanceSnapshot snapshot) {
+        applyLock.writeLock().lock();
+        try {
+            balances = snapshot.getBalances();
+            nextOffsets.clear();
+            nextOffsets.putAll(snapshot.getOffsets());
+            appliedIds.clear();
+            snapshot.getAppliedIds().forEach((partition, ids) -> {
+                AppliedIdWindow window = new AppliedIdWindow(dedupeWindow);
+                for (long id : ids) {
+                    window.add(id);
+                }
+                appliedIds.put(partition, window);
+            });
+            history.replace(snapshot.getHistory());
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+    }
+
+    /** Writes the view, its history and its offsets as of one point; events are held only while it is copied. */
+    public void snapshot(BalanceSnapshotStore store) throws IOException {
+        LongLongHashMap balancesCopy;
+        Map<TopicPartition, Long> offsetsCopy;
+        Map<TopicPartition, long[]> appliedIdsCopy = new HashMap<>();
+        BalanceHistory historyCopy;
+        applyLock.writeLock().lock();
+        try {
+            balancesCopy = balances.copy();
+            offsetsCopy = new HashMap<>(nextOffsets);
+            appliedIds.forEach((partition, window) -> appliedIdsCopy.put(partition, window.ids()));
+            historyCopy = history.freeze();
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+        store.write(balancesCopy, offsetsCopy, appliedIdsCopy, historyCopy);
+    }
+
+    /** Applies {@code update} and records the balance it returns as one step for {@code accountId}. */
+    private void change(EventPosition at, long accountId, LongSupplier update) {
+        Lock lock = lockFor(accountId);
+        lock.lock();
+        try {
+            history.record(accountId, at.getOffset(), at.getTimestamp(), update.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(accountId);
+    }
+
+    private void notifyListeners(long accountId) {
+        for (LongConsumer listener : changeListeners) {
+            listener.accept(accountId);
+        }
+    }
+
+    private Lock lockFor(long accountId) {
+        return accountLocks[Long.hashCode(accountId * 0x9E3779B97F4A7C15L) & (ACCOUNT_LOCK_STRIPES - 1)];
+    }
+
+    private void consumed(EventPosition at) {
+        nextOffsets.merge(at.getPartition(), at.getOffset() + 1, Math::max);
+        if (at.getSequence() != null) {
+            appliedIds.computeIfAbsent(at.getPartition(), partition -> new AppliedIdWindow(dedupeWindow))
+                    .add(at.getSequence());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.cyan.core.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.BalanceSnapshot;
+import org.cyan.core.data.BalanceSnapshotStore;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Restores the balance view from the latest snapshot before the Kafka listeners start, so they
+ * resume from the recorded offsets instead of replaying both topics, and writes a new snapshot
+ * periodically and on shutdown.
+ */
+@Slf4j
+@Component
+public class BalanceSnapshotter {
+
+    private final BalanceService balanceService;
+    private final BalanceSnapshotStore store;
+    private final Timer snapshotTimer;
+
+    public BalanceSnapshotter(BalanceService balanceService, BalanceSnapshotStore store, MeterRegistry meterRegistry) {
+        this.balanceService = balanceService;
+        this.store = store;
+        this.snapshotTimer = meterRegistry.timer("balance.snapshot.duration");
+    }
+
+    @PostConstruct
+    public void restore() {
+        long start = System.nanoTime();
+        try {
+            Optional<BalanceSnapshot> snapshot = store.load();
+            if (snapshot.isEmpty()) {
+                log.info("No balance snapshot found, rebuilding from the start of the event streams");
+                return;
+            }
+            balanceService.restore(snapshot.get());
+            log.info("Restored {} balances in {} ms, resuming from {}", snapshot.get().getBalances().size(),
+                    (System.nanoTime() - start) / 1_000_000, snapshot.get().getOffsets());
+        } catch (IOException e) {
+            log.warn("Could not read balance snapshot, rebuilding from the start of the event streams", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.balance.snapshot.interval-ms:30000}",
+            fixedDelayString = "${app.balance.snapshot.interval-ms:30000}")
+    public void snapshot() {
+        try {
+            snapshotTimer.recordCallable(() -> {
+                balanceService.snapshot(store);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Balance snapshot failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+}
@@ -0,0 +1,164 @@
+package org.cyan.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.exception.InvalidRequestException;
+import org.cyan.in.model.BalanceResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes balance changes to Server-Sent Events subscribers. A change only marks its account as
+ * pending; every coalescing window the pending accounts are drained and each subscriber receives a
+ * single {@code balances} frame with the current balance of its changed accounts, however many
+ * events hit them in between.
+ */
+@Slf4j
+@Service
+public class BalanceStreamService {
+
+    static final String EVENT_NAME = "balances";
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final BalanceService balanceService;
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final int maxAccounts;
+    private final long timeoutMillis;
+    private final Counter changes;
+    private final Counter frames;
+
+    public BalanceStreamService(BalanceService balanceService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.balance.stream.max-accounts:100}") int maxAccounts,
+                                @Value("${app.balance.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.balanceService = balanceService;
+        this.maxAccounts = maxAccounts;
+        this.timeoutMillis = timeoutMillis;
+        this.changes = meterRegistry.counter("balance.stream.changes");
+        this.frames = meterRegistry.counter("balance.stream.frames");
+        meterRegistry.gauge("balance.stream.subscribers", subscriptions);
+        balanceService.onChange(this::markChanged);
+    }
+
+    /** Opens a stream for {@code accountIds}; the first frame carries their current balances. */
+    public SseEmitter subscribe(List<Long> accountIds) {
+        if (accountIds == null || accountIds.isEmpty() || accountIds.size() > maxAccounts) {
+            throw new InvalidRequestException("Subscribe to between 1 and " + maxAccounts + " accounts");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, Set.copyOf(accountIds));
+        for (Long accountId : subscription.accountIds) {
+            subscribers.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        subscriptions.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(error -> unsubscribe(subscription));
+
+        send(subscription, balances(subscription.accountIds));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.balance.stream.coalesce-window-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Subscription, List<BalanceResponse>> batches = new IdentityHashMap<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            Long accountId = it.next();
+            it.remove();
+            Set<Subscription> interested = subscribers.get(accountId);
+            if (interested == null) {
+                continue;
+            }
+            BalanceResponse balance = balance(accountId);
+            for (Subscription subscription : interested) {
+                batches.computeIfAbsent(subscription, s -> new ArrayList<>()).add(balance);
+            }
+        }
+        batches.forEach(this::send);
+    }
+
+    private void markChanged(long accountId) {
+        // Only accounts somebody watches are tracked, so the event path stays allocation-light.
+        if (subscribers.containsKey(accountId)) {
+            pending.add(accountId);
+            changes.increment();
+        }
+    }
+
+    private void send(Subscription subscription, List<BalanceResponse> balances) {
+        if (balances.isEmpty()) {
+            return;
+        }
+        try {
+            subscription.emitter.send(SseEmitter.event().name(EVENT_NAME).data(balances));
+            frames.increment();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping balance stream subscriber", e);
+            unsubscribe(subscription);
+            subscription.emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscription.active.compareAndSet(true, false)) {
+            return;
+        }
+        subscriptions.decrementAndGet();
+        for (Long accountId : subscription.accountIds) {
+            subscribers.computeIfPresent(accountId, (id, set) -> {
+                set.remove(subscription);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private List<BalanceResponse> balances(Set<Long> accountIds) {
+        List<BalanceResponse> balances = new ArrayList<>(accountIds.size());
+        for (Long accountId : accountIds) {
+            BalanceResponse balance = balance(accountId);
+            if (balance.getBalance() != null) {
+                balances.add(balance);
+            }
+        }
+        return balances;
+    }
+
+    /** A closed or unknown account is sent with a {@code null} balance. */
+    private BalanceResponse balance(long accountId) {
+        long balance = balanceService.getBalance(accountId, CLOSED);
+        return BalanceResponse.builder()
+                .accountId(accountId)
+                .balance(balance == CLOSED ? null : balance)
+                .build();
+    }
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final Set<Long> accountIds;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        private Subscription(SseEmitter emitter, Set<Long> accountIds) {
+            this.emitter = emitter;
+            this.accountIds = accountIds;
+        }
+    }
+}
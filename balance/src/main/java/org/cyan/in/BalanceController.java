@@ -0,0 +1,95 @@
+package org.cyan.in;
+
+import lombok.RequiredArgsConstructor;
+import org.cyan.core.service.BalanceService;
+import org.cyan.core.service.BalanceStreamService;
+import org.cyan.exception.InvalidRequestException;
+import org.cyan.in.model.BalanceHistoryResponse;
+import org.cyan.in.model.BalanceResponse;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/balances")
+@RequiredArgsConstructor
+public class BalanceController {
+    private static final int MAX_HISTORY_LIMIT = 10_000;
+    private static final int MAX_LOOKUP_ACCOUNTS = 10_000;
+
+    private final BalanceService balanceService;
+    private final BalanceStreamService balanceStreamService;
+
+    @GetMapping("/{accountId}")
+    public ResponseEntity<BalanceResponse> getBalance(@PathVariable Long accountId) {
+        return ResponseEntity.ok(BalanceResponse.builder()
+                .accountId(accountId)
+                .balance(balanceService.getBalance(accountId))
+                .build());
+    }
+
+    /** Current balances of the requested accounts the view knows; unknown ids are left out. */
+    @PostMapping("/lookup")
+    public ResponseEntity<List<BalanceResponse>> lookupBalances(@RequestBody List<Long> accountIds) {
+        if (accountIds.size() > MAX_LOOKUP_ACCOUNTS) {
+            throw new InvalidRequestException("Look up at most " + MAX_LOOKUP_ACCOUNTS + " accounts at a time");
+        }
+        List<BalanceResponse> balances = new ArrayList<>(accountIds.size());
+        for (Long accountId : accountIds) {
+            long balance = balanceService.getBalance(accountId, Long.MIN_VALUE);
+            if (balance != Long.MIN_VALUE) {
+                balances.add(BalanceResponse.builder().accountId(accountId).balance(balance).build());
+            }
+        }
+        return ResponseEntity.ok(balances);
+    }
+
+    /** The balance of {@code accountId} after the last change at or before {@code time}. */
+    @GetMapping("/{accountId}/history/at")
+    public ResponseEntity<BalanceResponse> getBalanceAt(@PathVariable Long accountId, @RequestParam Instant time) {
+        return ResponseEntity.ok(BalanceResponse.builder()
+                .accountId(accountId)
+                .balance(balanceService.getBalanceAt(accountId, time.toEpochMilli()))
+                .asOf(time)
+                .build());
+    }
+
+    /** Balance changes of {@code accountId} between {@code from} and {@code to} inclusive, oldest first. */
+    @GetMapping("/{accountId}/history")
+    public ResponseEntity<List<BalanceHistoryResponse>> getHistory(@PathVariable Long accountId,
+                                                                   @RequestParam Instant from,
+                                                                   @RequestParam Instant to,
+                                                                   @RequestParam(defaultValue = "1000") int limit) {
+        if (from.isAfter(to) || limit < 1 || limit > MAX_HISTORY_LIMIT) {
+            throw new InvalidRequestException("Expected from <= to and a limit between 1 and " + MAX_HISTORY_LIMIT);
+        }
+        return ResponseEntity.ok(balanceService.getHistory(accountId, from.toEpochMilli(), to.toEpochMilli(), limit)
+                .stream()
+                .map(entry -> BalanceHistoryResponse.builder()
+                        .offset(entry.getOffset())
+                        .timestamp(Instant.ofEpochMilli(entry.getTimestamp()))
+                        .balance(entry.getBalance())
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Server-Sent Events stream of balance changes for {@code accounts}. Changes are coalesced per
+     * account, so each frame carries the latest balances rather than every event.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalances(@RequestParam("accounts") List<Long> accountIds) {
+        return balanceStreamService.subscribe(accountIds);
+    }
+}
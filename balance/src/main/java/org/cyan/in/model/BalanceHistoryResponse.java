@@ -0,0 +1,27 @@
+package org.cyan.in.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cyan.events.money.Money;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceHistoryResponse {
+    /** Offset of the event that produced this balance, within its own topic partition. */
+    private Long offset;
+
+    private Instant timestamp;
+
+    /** Minor units; serialized as a decimal such as {@code 100.00}. */
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long balance;
+}
@@ -0,0 +1,29 @@
+package org.cyan.in.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cyan.events.money.Money;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceResponse {
+    private Long accountId;
+
+    /** Minor units; serialized as a decimal such as {@code 100.00}. */
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long balance;
+
+    /** Set when the balance is historical rather than current. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant asOf;
+}
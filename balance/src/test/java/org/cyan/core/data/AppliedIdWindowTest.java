@@ -0,0 +1,31 @@
+package org.cyan.core.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppliedIdWindowTest {
+
+    @Test
+    void testIdsAreMatchedExactlyWhateverTheirOrder() {
+        AppliedIdWindow window = new AppliedIdWindow(10);
+        window.add(5L);
+        window.add(2L);
+
+        assertTrue(window.contains(5L));
+        assertTrue(window.contains(2L));
+        assertFalse(window.contains(4L));
+        assertFalse(window.contains(1L));
+    }
+
+    @Test
+    void testOldestIdIsForgottenFirst() {
+        AppliedIdWindow window = new AppliedIdWindow(3);
+        for (long id : new long[]{10L, 30L, 20L, 30L, 40L}) {
+            window.add(id);
+        }
+
+        assertFalse(window.contains(10L));
+        assertArrayEquals(new long[]{30L, 20L, 40L}, window.ids());
+    }
+}
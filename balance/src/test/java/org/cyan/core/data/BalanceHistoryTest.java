@@ -0,0 +1,87 @@
+package org.cyan.core.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceHistoryTest {
+
+    @Test
+    void testBalanceAsOfTimeAcrossBlocks() {
+        BalanceHistory history = new BalanceHistory(1_000);
+        // Three full blocks and a partial one; balances swing negative to exercise zigzag deltas.
+        for (int i = 0; i < 200; i++) {
+            history.record(7L, 1_000 + i, 10_000L + i * 10L, i % 2 == 0 ? i * 100L : -i * 100L);
+        }
+
+        assertNull(history.balanceAt(7L, 9_999L));
+        assertEquals(0L, history.balanceAt(7L, 10_000L));
+        assertEquals(-6_300L, history.balanceAt(7L, 10_639L));
+        assertEquals(6_400L, history.balanceAt(7L, 10_640L));
+        assertEquals(-19_900L, history.balanceAt(7L, Long.MAX_VALUE));
+        assertNull(history.balanceAt(8L, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testFrozenHistoryIsUnaffectedByLaterRecords() {
+        BalanceHistory history = new BalanceHistory(1_000);
+        for (int i = 0; i < 70; i++) {
+            history.record(1L, i, 1_000L + i, i);
+        }
+
+        BalanceHistory frozen = history.freeze();
+        history.record(1L, 70, 1_070L, -5L);
+        history.record(2L, 0, 1_070L, 9L);
+
+        assertEquals(69L, frozen.balanceAt(1L, Long.MAX_VALUE));
+        assertEquals(70, frozen.changes(1L, 0L, Long.MAX_VALUE, 1_000).size());
+        assertNull(frozen.balanceAt(2L, Long.MAX_VALUE));
+        assertEquals(-5L, history.balanceAt(1L, Long.MAX_VALUE));
+        assertEquals(71, history.changes(1L, 0L, Long.MAX_VALUE, 1_000).size());
+    }
+
+    @Test
+    void testChangesBetweenTimesAreInclusiveAndLimited() {
+        BalanceHistory history = new BalanceHistory(1_000);
+        for (int i = 0; i < 150; i++) {
+            history.record(1L, i, 5_000L + i, i);
+        }
+
+        List<BalanceHistoryEntry> changes = history.changes(1L, 5_060L, 5_070L, 100);
+        assertEquals(11, changes.size());
+        assertEquals(60L, changes.get(0).getOffset());
+        assertEquals(5_070L, changes.get(10).getTimestamp());
+
+        assertEquals(3, history.changes(1L, 5_000L, 6_000L, 3).size());
+        assertTrue(history.changes(1L, 7_000L, 8_000L, 100).isEmpty());
+    }
+
+    @Test
+    void testOutOfOrderTimestampsAreClampedAndEqualTimesAreAllReturned() {
+        BalanceHistory history = new BalanceHistory(1_000);
+        history.record(1L, 0, 100L, 10L);
+        history.record(1L, 1, 90L, 20L);
+        for (int i = 2; i < 130; i++) {
+            history.record(1L, i, 200L, i);
+        }
+
+        assertEquals(20L, history.balanceAt(1L, 100L));
+        assertEquals(2, history.changes(1L, 100L, 100L, 10).size());
+        assertEquals(128, history.changes(1L, 200L, 200L, 1_000).size());
+    }
+
+    @Test
+    void testOldestBlocksAreDroppedPastTheRetention() {
+        BalanceHistory history = new BalanceHistory(100);
+        for (int i = 0; i < 1_000; i++) {
+            history.record(1L, i, i, i);
+        }
+
+        List<BalanceHistoryEntry> retained = history.changes(1L, 0L, Long.MAX_VALUE, 10_000);
+        assertTrue(retained.size() >= 100 && retained.size() <= 100 + HistorySegment.BLOCK);
+        assertEquals(999L, retained.get(retained.size() - 1).getBalance());
+        assertNull(history.balanceAt(1L, retained.get(0).getTimestamp() - 1));
+    }
+}
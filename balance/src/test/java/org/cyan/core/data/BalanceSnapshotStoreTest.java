@@ -0,0 +1,148 @@
+package org.cyan.core.data;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testMissingSnapshotLoadsEmpty() throws IOException {
+        assertTrue(new BalanceSnapshotStore(dir.resolve("balance.snapshot")).load().isEmpty());
+    }
+
+    @Test
+    void testRoundTripAcrossMappedWindows() throws IOException {
+        // A 100-byte window forces a remap every few entries, including mid-value.
+        BalanceSnapshotStore store = new BalanceSnapshotStore(dir.resolve("balance.snapshot"), 100);
+        LongLongHashMap balances = new LongLongHashMap();
+        for (long accountId = 0; accountId < 1_000; accountId++) {
+            balances.put(accountId, accountId * 100 - 5_000);
+        }
+        Map<TopicPartition, Long> offsets = Map.of(
+                new TopicPartition("transactions", 0), 1_234L,
+                new TopicPartition("account-events-topic", 3), 56L);
+
+        store.write(balances, offsets, Map.of(new TopicPartition("transactions", 0), new long[]{99L, 97L, 98L}),
+                new BalanceHistory(1_000));
+        BalanceSnapshot snapshot = store.load().orElseThrow();
+
+        assertEquals(offsets, snapshot.getOffsets());
+        assertEquals(1, snapshot.getAppliedIds().size());
+        assertArrayEquals(new long[]{99L, 97L, 98L}, snapshot.getAppliedIds().get(new TopicPartition("transactions", 0)));
+        assertEquals(1_000, snapshot.getBalances().size());
+        for (long accountId = 0; accountId < 1_000; accountId++) {
+            assertEquals(accountId * 100 - 5_000, snapshot.getBalances().get(accountId, Long.MIN_VALUE));
+        }
+    }
+
+    @Test
+    void testHistoryRoundTripsWithTheBalances() throws IOException {
+        BalanceSnapshotStore store = new BalanceSnapshotStore(dir.resolve("balance.snapshot"), 100);
+        BalanceHistory history = new BalanceHistory(1_000);
+        for (int i = 0; i < 300; i++) {
+            history.record(i % 3, i, 1_000L + i, i * 7L);
+        }
+
+        store.write(new LongLongHashMap(), Map.of(), Map.of(), history);
+        BalanceHistory restored = store.load().orElseThrow().getHistory();
+
+        assertEquals(3, restored.accounts());
+        assertEquals(296L * 7, restored.balanceAt(2L, 1_298L));
+        assertEquals(100, restored.changes(0L, 0L, Long.MAX_VALUE, 1_000).size());
+        restored.record(0L, 300, 1_300L, 1L);
+        assertEquals(1L, restored.balanceAt(0L, 1_300L));
+    }
+
+    @Test
+    void testHistoryIsWrittenToItsOwnFile() throws IOException {
+        Path path = dir.resolve("balance.snapshot");
+        BalanceSnapshotStore store = new BalanceSnapshotStore(path);
+        BalanceHistory history = new BalanceHistory(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            history.record(i, i, 1_000L + i, i);
+        }
+        LongLongHashMap balances = new LongLongHashMap();
+        balances.put(1L, 100L);
+
+        store.write(balances, Map.of(), Map.of(), history);
+        long snapshotSize = Files.size(path);
+        store.write(balances, Map.of(), Map.of(), history);
+
+        assertEquals(snapshotSize, Files.size(path));
+        assertTrue(snapshotSize < 100);
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("balance.snapshot.history.")).count());
+        }
+        assertEquals(1_000, store.load().orElseThrow().getHistory().accounts());
+    }
+
+    @Test
+    void testMissingHistoryKeepsTheBalances() throws IOException {
+        Path path = dir.resolve("balance.snapshot");
+        BalanceSnapshotStore store = new BalanceSnapshotStore(path);
+        LongLongHashMap balances = new LongLongHashMap();
+        balances.put(1L, 100L);
+        BalanceHistory history = new BalanceHistory(1_000);
+        history.record(1L, 0, 1_000L, 100L);
+        store.write(balances, Map.of(), Map.of(), history);
+        try (var files = Files.list(dir)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().contains(".history.")).toList()) {
+                Files.delete(file);
+            }
+        }
+
+        BalanceSnapshot snapshot = store.load().orElseThrow();
+
+        assertEquals(100L, snapshot.getBalances().get(1L, 0L));
+        assertEquals(0, snapshot.getHistory().accounts());
+    }
+
+    @Test
+    void testNewSnapshotReplacesPreviousOne() throws IOException {
+        BalanceSnapshotStore store = new BalanceSnapshotStore(dir.resolve("balance.snapshot"));
+        LongLongHashMap balances = new LongLongHashMap();
+        balances.put(1L, 100L);
+        store.write(balances, Map.of(new TopicPartition("transactions", 0), 10L), Map.of(), new BalanceHistory(1_000));
+        balances.put(1L, 250L);
+        store.write(balances, Map.of(new TopicPartition("transactions", 0), 11L), Map.of(), new BalanceHistory(1_000));
+
+        BalanceSnapshot snapshot = store.load().orElseThrow();
+
+        assertEquals(250L, snapshot.getBalances().get(1L, 0L));
+        assertEquals(11L, snapshot.getOffsets().get(new TopicPartition("transactions", 0)));
+        assertFalse(Files.exists(dir.resolve("balance.snapshot.tmp")));
+    }
+
+    @Test
+    void testCorruptOrTruncatedSnapshotIsIgnored() throws IOException {
+        Path path = dir.resolve("balance.snapshot");
+        BalanceSnapshotStore store = new BalanceSnapshotStore(path);
+        LongLongHashMap balances = new LongLongHashMap();
+        balances.put(1L, 100L);
+        store.write(balances, Map.of(), Map.of(), new BalanceHistory(1_000));
+        byte[] bytes = Files.readAllBytes(path);
+
+        bytes[bytes.length - 12] ^= 1;
+        Files.write(path, bytes);
+        Optional<BalanceSnapshot> corrupt = store.load();
+
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        Optional<BalanceSnapshot> truncated = store.load();
+
+        assertTrue(corrupt.isEmpty());
+        assertTrue(truncated.isEmpty());
+    }
+}
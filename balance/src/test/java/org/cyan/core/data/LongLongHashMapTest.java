@@ -0,0 +1,82 @@
+package org.cyan.core.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void testPutGetAndAddTo() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        map.put(7L, 100L);
+        assertEquals(100L, map.get(7L, -1L));
+        assertEquals(150L, map.addTo(7L, 50L));
+        assertEquals(-20L, map.addTo(8L, -20L));
+        assertEquals(-1L, map.get(9L, -1L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testZeroKeyIsStoredOutsideTheTable() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertFalse(map.containsKey(0L));
+        map.addTo(0L, 5L);
+
+        assertTrue(map.containsKey(0L));
+        assertEquals(5L, map.get(0L, -1L));
+        assertTrue(map.remove(0L));
+        assertFalse(map.containsKey(0L));
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomOperations() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.addTo(key, 3L);
+                    expected.merge(key, 3L, Long::sum);
+                }
+                case 1 -> {
+                    map.put(key, i);
+                    expected.put(key, (long) i);
+                }
+                default -> assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key, Long.MIN_VALUE)));
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void testReadersSeeConsistentValuesWhileTableGrows() throws InterruptedException {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1L, 42L);
+        Thread writer = new Thread(() -> {
+            for (long key = 2; key < 200_000; key++) {
+                map.put(key, key);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            assertEquals(42L, map.get(1L, -1L));
+        }
+        writer.join();
+        assertEquals(199_999, map.size());
+    }
+}
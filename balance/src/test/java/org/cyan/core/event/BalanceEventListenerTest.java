@@ -0,0 +1,163 @@
+package org.cyan.core.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.cyan.core.data.BalanceHistory;
+import org.cyan.core.service.BalanceService;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.model.AccountEvent;
+import org.cyan.events.model.TransferEvent;
+import org.cyan.exception.AccountNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BalanceEventListenerTest {
+
+    private MeterRegistry meterRegistry;
+    private BalanceService balanceService;
+    private BalanceEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        balanceService = new BalanceService(meterRegistry, new BalanceHistory(1_000), 16, 1_000);
+        listener = new BalanceEventListener(balanceService, meterRegistry);
+    }
+
+    private long offset;
+
+    private ConsumerRecord<String, AccountEvent> accountEvent(long accountId, String type, Long balance) {
+        AccountEvent event = AccountEvent.builder().accountId(accountId).eventType(type).balance(balance).build();
+        return new ConsumerRecord<>("account-events-topic", 0, offset++, null, event);
+    }
+
+    private ConsumerRecord<String, byte[]> transfer(String json) {
+        return transfer(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ConsumerRecord<String, byte[]> transfer(byte[] payload) {
+        return new ConsumerRecord<>("transactions", 0, offset++, null, payload);
+    }
+
+    @Test
+    void testTransferMovesFundsBetweenOpenedAccounts() {
+        listener.onAccountEvent(accountEvent(10L, "CREATED", 10000L));
+        listener.onAccountEvent(accountEvent(20L, "CREATED", 0L));
+
+        listener.onTransfer(transfer("{\"fromAlias\":\"Alice\",\"toAlias\":\"Bob\",\"fromAccountId\":10,\"toAccountId\":20,\"amount\":2500}"));
+
+        assertEquals(7500L, balanceService.getBalance(10L));
+        assertEquals(2500L, balanceService.getBalance(20L));
+    }
+
+    @Test
+    void testBinaryTransfersAreApplied() {
+        listener.onAccountEvent(accountEvent(10L, "CREATED", 10000L));
+        listener.onAccountEvent(accountEvent(20L, "CREATED", 0L));
+
+        listener.onTransfer(transfer(EventCodecs.TRANSFER.encode(new TransferEvent("Alice", "Bob", 10L, 20L, 2500L))));
+
+        assertEquals(7500L, balanceService.getBalance(10L));
+        assertEquals(2500L, balanceService.getBalance(20L));
+    }
+
+    @Test
+    void testTransferBeforeCreationIsNotLost() {
+        listener.onTransfer(transfer("{\"fromAccountId\":10,\"toAccountId\":20,\"amount\":500}"));
+        listener.onAccountEvent(accountEvent(20L, "CREATED", 1000L));
+
+        assertEquals(1500L, balanceService.getBalance(20L));
+    }
+
+    @Test
+    void testUpdateKeepsAppliedTransfersAndDeleteRemoves() {
+        listener.onAccountEvent(accountEvent(10L, "CREATED", 100L));
+        listener.onTransfer(transfer("{\"fromAccountId\":20,\"toAccountId\":10,\"amount\":500}"));
+        // The account row still says 100: restating it must not undo the transfer.
+        listener.onAccountEvent(accountEvent(10L, "UPDATED", 100L));
+        assertEquals(600L, balanceService.getBalance(10L));
+
+        listener.onAccountEvent(accountEvent(10L, "DELETED", null));
+        assertThrows(AccountNotFoundException.class, () -> balanceService.getBalance(10L));
+    }
+
+    @Test
+    void testUpdateSeedsAnAccountTheViewDoesNotKnow() {
+        listener.onAccountEvent(accountEvent(30L, "UPDATED", 900L));
+
+        assertEquals(900L, balanceService.getBalance(30L));
+    }
+
+    @Test
+    void testMalformedEventsAreSkipped() {
+        listener.onTransfer(transfer("Transfer: Alice to Bob amount: 30.00"));
+        listener.onTransfer(transfer("{\"fromAccountId\":10,\"toAccountId\":20,\"amount\":-5}"));
+        listener.onAccountEvent(accountEvent(10L, "RENAMED", 1L));
+
+        assertEquals(3, meterRegistry.counter("balance.events.skipped").count());
+        assertThrows(AccountNotFoundException.class, () -> balanceService.getBalance(10L));
+    }
+
+    @Test
+    void testSkippedEventsStillAdvanceTheirPartition() {
+        listener.onTransfer(transfer("{\"fromAccountId\":10,\"toAccountId\":20,\"amount\":500}"));
+        listener.onTransfer(transfer("not json"));
+
+        assertEquals(2L, balanceService.nextOffset(new TopicPartition("transactions", 0)));
+        assertNull(balanceService.nextOffset(new TopicPartition("account-events-topic", 0)));
+    }
+
+    private ConsumerRecord<String, byte[]> republishable(long outboxId, String payload) {
+        ConsumerRecord<String, byte[]> record = transfer(payload);
+        record.headers().add(BalanceEventListener.OUTBOX_ID_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(outboxId).array());
+        return record;
+    }
+
+    @Test
+    void testRepublishedTransfersAreAppliedOnce() {
+        String payload = "{\"fromAccountId\":10,\"toAccountId\":20,\"amount\":500}";
+        listener.onTransfer(republishable(1L, payload));
+        listener.onTransfer(republishable(2L, payload));
+        // A failed relay pass sends 1 and 2 again, then continues with 3.
+        listener.onTransfer(republishable(1L, payload));
+        listener.onTransfer(republishable(2L, payload));
+        listener.onTransfer(republishable(3L, payload));
+
+        assertEquals(1500L, balanceService.getBalance(20L));
+        assertEquals(2, meterRegistry.counter("balance.events.duplicates").count());
+        assertEquals(5L, balanceService.nextOffset(new TopicPartition("transactions", 0)));
+    }
+
+    @Test
+    void testLowerOutboxIdCommittedLaterIsApplied() {
+        String payload = "{\"fromAccountId\":10,\"toAccountId\":20,\"amount\":500}";
+        listener.onTransfer(republishable(5L, payload));
+        listener.onTransfer(republishable(4L, payload));
+
+        assertEquals(1000L, balanceService.getBalance(20L));
+        assertEquals(0, meterRegistry.counter("balance.events.duplicates").count());
+    }
+
+    @Test
+    void testAssignedPartitionsResumeFromRecordedOffsets() {
+        listener.onTransfer(transfer("{\"fromAccountId\":10,\"toAccountId\":20,\"amount\":500}"));
+        ConsumerSeekAware.ConsumerSeekCallback callback = mock(ConsumerSeekAware.ConsumerSeekCallback.class);
+
+        listener.onPartitionsAssigned(Map.of(
+                new TopicPartition("transactions", 0), 0L,
+                new TopicPartition("transactions", 1), 0L), callback);
+
+        verify(callback).seek("transactions", 0, 1L);
+        verify(callback).seekToBeginning("transactions", 1);
+    }
+}
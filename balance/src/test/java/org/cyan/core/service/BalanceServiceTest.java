@@ -0,0 +1,46 @@
+package org.cyan.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.cyan.core.data.BalanceHistory;
+import org.cyan.core.event.model.EventPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceServiceTest {
+
+    private final BalanceService balanceService = new BalanceService(new SimpleMeterRegistry(), new BalanceHistory(100_000), 16, 1_000);
+
+    @Test
+    void testHistoryEndsAtTheBalanceUnderConcurrentChanges() throws Exception {
+        // Both topics credit account 1 at once; its last recorded balance must be the final one.
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> runs = new ArrayList<>();
+        for (String topic : List.of("transactions", "account-events-topic")) {
+            runs.add(executor.submit(() -> {
+                for (long offset = 0; offset < 5_000; offset++) {
+                    EventPosition at = new EventPosition(new TopicPartition(topic, 0), offset, 0L);
+                    if (topic.equals("transactions")) {
+                        balanceService.applyTransfer(at, 2L, 1L, 1L);
+                    } else {
+                        balanceService.openAccount(at, 1L, 1L);
+                    }
+                }
+            }));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        executor.shutdown();
+
+        assertEquals(10_000L, balanceService.getBalance(1L));
+        assertEquals(10_000L, balanceService.getBalanceAt(1L, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,99 @@
+package org.cyan.core.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.cyan.config.GlobalExceptionHandler;
+import org.cyan.core.data.BalanceHistory;
+import org.cyan.core.event.model.EventPosition;
+import org.cyan.in.BalanceController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BalanceStreamServiceTest {
+
+    private MeterRegistry meterRegistry;
+    private BalanceService balanceService;
+    private BalanceStreamService streamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        balanceService = new BalanceService(meterRegistry, new BalanceHistory(1_000), 16, 1_000);
+        streamService = new BalanceStreamService(balanceService, meterRegistry, 2, 60_000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new BalanceController(balanceService, streamService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        balanceService.openAccount(at(), 1L, 10_000L);
+        balanceService.openAccount(at(), 2L, 0L);
+    }
+
+    private long offset;
+
+    private EventPosition at() {
+        return new EventPosition(new TopicPartition("transactions", 0), offset++, 0L);
+    }
+
+    private MockHttpServletResponse subscribe(String accounts) throws Exception {
+        return mockMvc.perform(get("/api/balances/stream").param("accounts", accounts))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static int frames(String body) {
+        return body.split("event:balances", -1).length - 1;
+    }
+
+    @Test
+    void testFirstFrameCarriesCurrentBalances() throws Exception {
+        MockHttpServletResponse response = subscribe("1,2");
+
+        String body = response.getContentAsString();
+        assertEquals(1, frames(body));
+        assertTrue(body.contains("{\"accountId\":1,\"balance\":100.00}"));
+        assertTrue(body.contains("{\"accountId\":2,\"balance\":0.00}"));
+    }
+
+    @Test
+    void testBurstOfChangesIsCoalescedIntoOneFrame() throws Exception {
+        MockHttpServletResponse response = subscribe("2");
+
+        for (int i = 0; i < 1_000; i++) {
+            balanceService.applyTransfer(at(), 1L, 2L, 1L);
+        }
+        streamService.flush();
+        streamService.flush();
+
+        String body = response.getContentAsString();
+        assertEquals(2, frames(body));
+        assertTrue(body.endsWith("data:[{\"accountId\":2,\"balance\":10.00}]\n\n"));
+        assertEquals(1_000, meterRegistry.counter("balance.stream.changes").count());
+        assertEquals(2, meterRegistry.counter("balance.stream.frames").count());
+    }
+
+    @Test
+    void testUnwatchedAccountsAreNotSent() throws Exception {
+        MockHttpServletResponse response = subscribe("2");
+
+        balanceService.openAccount(at(), 3L, 500L);
+        streamService.flush();
+
+        assertEquals(1, frames(response.getContentAsString()));
+        assertEquals(0, meterRegistry.counter("balance.stream.changes").count());
+    }
+
+    @Test
+    void testTooManyAccountsIsRejected() throws Exception {
+        mockMvc.perform(get("/api/balances/stream").param("accounts", "1,2,3"))
+                .andExpect(status().isBadRequest());
+    }
+}
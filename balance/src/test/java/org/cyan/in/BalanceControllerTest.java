@@ -0,0 +1,92 @@
+package org.cyan.in;
+
+import org.cyan.core.data.BalanceHistoryEntry;
+import org.cyan.core.service.BalanceService;
+import org.cyan.core.service.BalanceStreamService;
+import org.cyan.exception.AccountNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BalanceController.class)
+class BalanceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BalanceService balanceService;
+
+    @MockBean
+    private BalanceStreamService balanceStreamService;
+
+    @Test
+    void shouldReturnBalanceAsDecimal() throws Exception {
+        Mockito.when(balanceService.getBalance(1L)).thenReturn(12550L);
+
+        mockMvc.perform(get("/api/balances/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(1L))
+                .andExpect(jsonPath("$.balance").value(125.50));
+    }
+
+    @Test
+    void shouldLookUpKnownAccountsOnly() throws Exception {
+        Mockito.when(balanceService.getBalance(1L, Long.MIN_VALUE)).thenReturn(12550L);
+        Mockito.when(balanceService.getBalance(2L, Long.MIN_VALUE)).thenReturn(Long.MIN_VALUE);
+
+        mockMvc.perform(post("/api/balances/lookup").contentType(MediaType.APPLICATION_JSON).content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].accountId").value(1L))
+                .andExpect(jsonPath("$[0].balance").value(125.50));
+    }
+
+    @Test
+    void shouldReturnHistoricalBalanceAsOfTime() throws Exception {
+        Instant time = Instant.parse("2024-03-01T12:00:00Z");
+        Mockito.when(balanceService.getBalanceAt(1L, time.toEpochMilli())).thenReturn(9900L);
+
+        mockMvc.perform(get("/api/balances/1/history/at").param("time", time.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(99.00))
+                .andExpect(jsonPath("$.asOf").value("2024-03-01T12:00:00Z"));
+    }
+
+    @Test
+    void shouldReturnChangesBetweenTimes() throws Exception {
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+        Instant to = Instant.parse("2024-03-02T00:00:00Z");
+        Mockito.when(balanceService.getHistory(1L, from.toEpochMilli(), to.toEpochMilli(), 1000))
+                .thenReturn(List.of(new BalanceHistoryEntry(42L, from.plusSeconds(60).toEpochMilli(), 500L)));
+
+        mockMvc.perform(get("/api/balances/1/history").param("from", from.toString()).param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].offset").value(42L))
+                .andExpect(jsonPath("$[0].timestamp").value("2024-03-01T00:01:00Z"))
+                .andExpect(jsonPath("$[0].balance").value(5.00));
+
+        mockMvc.perform(get("/api/balances/1/history").param("from", to.toString()).param("to", from.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownAccount() throws Exception {
+        Mockito.when(balanceService.getBalance(2L)).thenThrow(new AccountNotFoundException("Account not found with id: 2"));
+
+        mockMvc.perform(get("/api/balances/2"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Account not found with id: 2"));
+    }
+}
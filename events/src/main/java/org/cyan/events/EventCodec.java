@@ -0,0 +1,187 @@
+package org.cyan.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Encodes one event type in the binary event format of a {@link SchemaRegistry} subject:
+ * <pre>
+ * 0xC1 | subject id (varint) | schema version (varint) | presence mask (varint) | present fields in schema order
+ * </pre>
+ * No class or field names are written. The codec always writes the newest registered version,
+ * and {@link Builder#build} checks that its fields are exactly that version's. It reads every
+ * version: fields an older writer did not have stay {@code null}, and fields appended by a newer
+ * writer are left unread, so producers and consumers can be upgraded in either order.
+ * <p>
+ * Payloads without the magic byte are read as JSON, the format the topics carried before, so
+ * records written before the switch can still be consumed.
+ */
+public final class EventCodec<T> {
+
+    /** Not valid as the first byte of UTF-8 text, so it cannot be confused with a JSON payload. */
+    static final int MAGIC = 0xC1;
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Class<T> type;
+    private final Supplier<T> factory;
+    private final List<Accessor<T>> accessors;
+    private final Schema schema;
+    private final SchemaRegistry registry;
+
+    private EventCodec(Class<T> type, Supplier<T> factory, List<Accessor<T>> accessors, Schema schema, SchemaRegistry registry) {
+        this.type = type;
+        this.factory = factory;
+        this.accessors = accessors;
+        this.schema = schema;
+        this.registry = registry;
+    }
+
+    public static <T> Builder<T> builder(Class<T> type, String subject, Supplier<T> factory) {
+        return new Builder<>(type, subject, factory);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /** The version this codec writes. */
+    public Schema schema() {
+        return schema;
+    }
+
+    /** Whether {@code payload} is in the binary event format rather than JSON. */
+    public static boolean isBinary(byte[] payload) {
+        return payload != null && payload.length > 0 && (payload[0] & 0xFF) == MAGIC;
+    }
+
+    public byte[] encode(T event) {
+        if (event == null) {
+            return null;
+        }
+        long present = 0;
+        Object[] values = new Object[accessors.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = accessors.get(i).getter().apply(event);
+            if (values[i] != null) {
+                present |= 1L << i;
+            }
+        }
+        EventWriter out = new EventWriter(64);
+        out.writeByte(MAGIC);
+        out.writeVarLong(schema.id());
+        out.writeVarLong(schema.version());
+        out.writeVarLong(present);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                switch (accessors.get(i).field().type()) {
+                    case INT64, MONEY -> out.writeSignedVarLong((Long) values[i]);
+                    case STRING -> out.writeString((String) values[i]);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** Reads a binary or a JSON payload; {@code null} stays {@code null}. */
+    public T decode(byte[] payload) {
+        if (payload == null) {
+            return null;
+        }
+        if (!isBinary(payload)) {
+            try {
+                return JSON.readValue(payload, type);
+            } catch (IOException e) {
+                throw new EventFormatException("Unreadable " + schema.subject() + " event", e);
+            }
+        }
+
+        EventReader in = new EventReader(payload, 1);
+        long id = in.readVarLong();
+        if (id != schema.id()) {
+            throw new EventFormatException("Expected a " + schema.subject() + " event (id " + schema.id() + "), got subject id " + id);
+        }
+        long version = in.readVarLong();
+        int fields = fieldsOf(version);
+        long present = in.readVarLong();
+        T event = factory.get();
+        for (int i = 0; i < fields; i++) {
+            if ((present & (1L << i)) != 0) {
+                Accessor<T> accessor = accessors.get(i);
+                Object value = switch (accessor.field().type()) {
+                    case INT64, MONEY -> in.readSignedVarLong();
+                    case STRING -> in.readString();
+                };
+                accessor.setter().accept(event, value);
+            }
+        }
+        return event;
+    }
+
+    /** How many leading fields a payload of {@code version} carries that this codec knows. */
+    private int fieldsOf(long version) {
+        if (version > schema.version()) {
+            // A newer writer only appended fields; the ones after ours are left unread.
+            return accessors.size();
+        }
+        Schema written = registry.find(schema.subject(), (int) version);
+        if (written == null) {
+            throw new EventFormatException("Unknown " + schema.subject() + " schema version " + version);
+        }
+        return written.fields().size();
+    }
+
+    private record Accessor<T>(Schema.Field field, Function<T, ?> getter, BiConsumer<T, Object> setter) {
+    }
+
+    public static final class Builder<T> {
+        private final Class<T> type;
+        private final String subject;
+        private final Supplier<T> factory;
+        private final List<Accessor<T>> accessors = new ArrayList<>();
+
+        private Builder(Class<T> type, String subject, Supplier<T> factory) {
+            this.type = type;
+            this.subject = subject;
+            this.factory = factory;
+        }
+
+        public Builder<T> int64(String name, Function<T, Long> getter, BiConsumer<T, Long> setter) {
+            return field(name, Schema.FieldType.INT64, getter, setter);
+        }
+
+        /** An amount held as {@link org.cyan.events.money.Money} minor units. */
+        public Builder<T> money(String name, Function<T, Long> getter, BiConsumer<T, Long> setter) {
+            return field(name, Schema.FieldType.MONEY, getter, setter);
+        }
+
+        public Builder<T> string(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+            return field(name, Schema.FieldType.STRING, getter, setter);
+        }
+
+        /** Fails unless the fields added so far are exactly those of the newest registered version. */
+        public EventCodec<T> build(SchemaRegistry registry) {
+            Schema schema = registry.latest(subject);
+            List<Schema.Field> fields = accessors.stream().map(Accessor::field).toList();
+            if (!fields.equals(schema.fields())) {
+                throw new EventFormatException("Codec of " + type.getSimpleName() + " has fields " + fields
+                        + " but " + subject + ".v" + schema.version() + " is registered as " + schema.fields());
+            }
+            return new EventCodec<>(type, factory, List.copyOf(accessors), schema, registry);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <V> Builder<T> field(String name, Schema.FieldType fieldType, Function<T, V> getter, BiConsumer<T, V> setter) {
+            accessors.add(new Accessor<>(new Schema.Field(name, fieldType), getter, (BiConsumer<T, Object>) setter));
+            return this;
+        }
+    }
+}
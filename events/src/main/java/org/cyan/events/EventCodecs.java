@@ -0,0 +1,50 @@
+package org.cyan.events;
+
+import org.cyan.events.model.AccountEvent;
+import org.cyan.events.model.AliasCreatedEvent;
+import org.cyan.events.model.TransferEvent;
+
+import java.util.Map;
+
+/** The codecs of the inter-service events, checked against the bundled {@link SchemaRegistry}. */
+public final class EventCodecs {
+
+    public static final EventCodec<AliasCreatedEvent> ALIAS_CREATED =
+            EventCodec.builder(AliasCreatedEvent.class, "alias-created", AliasCreatedEvent::new)
+                    .int64("id", AliasCreatedEvent::getId, AliasCreatedEvent::setId)
+                    .string("alias", AliasCreatedEvent::getAlias, AliasCreatedEvent::setAlias)
+                    .build(SchemaRegistry.bundled());
+
+    public static final EventCodec<AccountEvent> ACCOUNT_EVENT =
+            EventCodec.builder(AccountEvent.class, "account-event", AccountEvent::new)
+                    .int64("accountId", AccountEvent::getAccountId, AccountEvent::setAccountId)
+                    .string("eventType", AccountEvent::getEventType, AccountEvent::setEventType)
+                    .money("balance", AccountEvent::getBalance, AccountEvent::setBalance)
+                    .build(SchemaRegistry.bundled());
+
+    public static final EventCodec<TransferEvent> TRANSFER =
+            EventCodec.builder(TransferEvent.class, "transfer", TransferEvent::new)
+                    .string("fromAlias", TransferEvent::getFromAlias, TransferEvent::setFromAlias)
+                    .string("toAlias", TransferEvent::getToAlias, TransferEvent::setToAlias)
+                    .int64("fromAccountId", TransferEvent::getFromAccountId, TransferEvent::setFromAccountId)
+                    .int64("toAccountId", TransferEvent::getToAccountId, TransferEvent::setToAccountId)
+                    .money("amount", TransferEvent::getAmount, TransferEvent::setAmount)
+                    .build(SchemaRegistry.bundled());
+
+    private static final Map<Class<?>, EventCodec<?>> BY_TYPE = Map.of(
+            AliasCreatedEvent.class, ALIAS_CREATED,
+            AccountEvent.class, ACCOUNT_EVENT,
+            TransferEvent.class, TRANSFER);
+
+    private EventCodecs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> EventCodec<T> forType(Class<T> type) {
+        EventCodec<T> codec = (EventCodec<T>) BY_TYPE.get(type);
+        if (codec == null) {
+            throw new EventFormatException("No event codec for " + type.getName());
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,12 @@
+package org.cyan.events;
+
+/** An event that cannot be encoded or decoded, or a codec that does not match the registry. */
+public class EventFormatException extends RuntimeException {
+    public EventFormatException(String message) {
+        super(message);
+    }
+
+    public EventFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,53 @@
+package org.cyan.events;
+
+import java.nio.charset.StandardCharsets;
+
+/** Reads what {@link EventWriter} wrote; running past the end is an {@link EventFormatException}. */
+final class EventReader {
+
+    private final byte[] bytes;
+    private int position;
+
+    EventReader(byte[] bytes, int position) {
+        this.bytes = bytes;
+        this.position = position;
+    }
+
+    int readByte() {
+        require(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EventFormatException("Malformed varint at byte " + position);
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+        long length = readVarLong();
+        if (length > bytes.length - position) {
+            throw new EventFormatException("String of " + length + " bytes runs past the end of the event");
+        }
+        String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private void require(int count) {
+        if (position + count > bytes.length) {
+            throw new EventFormatException("Event truncated at byte " + position);
+        }
+    }
+}
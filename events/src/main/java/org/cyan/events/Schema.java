@@ -0,0 +1,50 @@
+package org.cyan.events;
+
+import java.util.List;
+
+/**
+ * One registered version of an event subject: its wire id and its fields in wire order.
+ *
+ * @param id      identifies the subject on the wire; shared by all of its versions
+ * @param version starts at 1 and grows by one with every appended field list
+ */
+public record Schema(String subject, int id, int version, List<Field> fields) {
+
+    public record Field(String name, FieldType type) {
+        @Override
+        public String toString() {
+            return name + ":" + type.typeName();
+        }
+    }
+
+    public enum FieldType {
+        /** Zigzag varint. */
+        INT64("int64"),
+        /**
+         * An amount in {@link org.cyan.events.money.Money} minor units, written exactly like
+         * {@link #INT64}; the type tells readers the value is money, not a plain count.
+         */
+        MONEY("money"),
+        /** Varint byte length, then UTF-8. */
+        STRING("string");
+
+        private final String typeName;
+
+        FieldType(String typeName) {
+            this.typeName = typeName;
+        }
+
+        public String typeName() {
+            return typeName;
+        }
+
+        static FieldType of(String typeName) {
+            for (FieldType type : values()) {
+                if (type.typeName.equals(typeName)) {
+                    return type;
+                }
+            }
+            throw new EventFormatException("Unknown field type '" + typeName + "'");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.cyan.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A file-based stand-in for a schema registry: every event subject with its wire id and the field
+ * list of each version, read from a properties file such as the bundled
+ * {@code event-schemas.properties}:
+ * <pre>
+ * alias-created.id = 1
+ * alias-created.v1 = id:int64, alias:string
+ * </pre>
+ * The file is checked when it is loaded: ids are unique, versions count up from 1 and every
+ * version only appends fields to the one before it, so a reader of any version can read a prefix
+ * of any other. Anything else (removing, renaming, reordering or retyping a field) needs a new
+ * subject.
+ */
+public final class SchemaRegistry {
+
+    /** Fields are flagged in one 64-bit presence mask. */
+    static final int MAX_FIELDS = 63;
+
+    private static final String BUNDLED = "event-schemas.properties";
+    private static final Pattern KEY = Pattern.compile("([a-z0-9-]+)\\.(id|v([1-9][0-9]*))");
+
+    private final Map<String, List<Schema>> versionsBySubject;
+
+    private SchemaRegistry(Map<String, List<Schema>> versionsBySubject) {
+        this.versionsBySubject = versionsBySubject;
+    }
+
+    /** The registry shipped with this module. */
+    public static SchemaRegistry bundled() {
+        return Bundled.INSTANCE;
+    }
+
+    public static SchemaRegistry load(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in, file.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read schema registry " + file, e);
+        }
+    }
+
+    public static SchemaRegistry load(InputStream in, String source) {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read schema registry " + source, e);
+        }
+
+        Map<String, Integer> ids = new HashMap<>();
+        Map<String, TreeMap<Integer, List<Schema.Field>>> fields = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            Matcher matcher = KEY.matcher(key);
+            if (!matcher.matches()) {
+                throw new EventFormatException(source + ": unexpected key '" + key + "'");
+            }
+            String subject = matcher.group(1);
+            String value = properties.getProperty(key).trim();
+            if (matcher.group(3) == null) {
+                ids.put(subject, parseId(source, key, value));
+            } else {
+                fields.computeIfAbsent(subject, s -> new TreeMap<>())
+                        .put(Integer.parseInt(matcher.group(3)), parseFields(source, key, value));
+            }
+        }
+
+        Map<String, List<Schema>> versionsBySubject = new HashMap<>();
+        Set<Integer> usedIds = new HashSet<>();
+        for (Map.Entry<String, TreeMap<Integer, List<Schema.Field>>> entry : fields.entrySet()) {
+            String subject = entry.getKey();
+            Integer id = ids.remove(subject);
+            if (id == null) {
+                throw new EventFormatException(source + ": " + subject + " has no id");
+            }
+            if (!usedIds.add(id)) {
+                throw new EventFormatException(source + ": id " + id + " is used twice");
+            }
+            versionsBySubject.put(subject, versions(source, subject, id, entry.getValue()));
+        }
+        if (!ids.isEmpty()) {
+            throw new EventFormatException(source + ": " + ids.keySet() + " have an id but no versions");
+        }
+        return new SchemaRegistry(versionsBySubject);
+    }
+
+    /** The newest version of {@code subject}. */
+    public Schema latest(String subject) {
+        List<Schema> versions = versionsBySubject.get(subject);
+        if (versions == null) {
+            throw new EventFormatException("No schema registered for " + subject);
+        }
+        return versions.get(versions.size() - 1);
+    }
+
+    /** The given version of {@code subject}, or {@code null} if it is not registered. */
+    public Schema find(String subject, int version) {
+        List<Schema> versions = versionsBySubject.get(subject);
+        return versions == null || version < 1 || version > versions.size() ? null : versions.get(version - 1);
+    }
+
+    public Set<String> subjects() {
+        return versionsBySubject.keySet();
+    }
+
+    private static List<Schema> versions(String source, String subject, int id, TreeMap<Integer, List<Schema.Field>> fieldsByVersion) {
+        List<Schema> versions = new ArrayList<>();
+        List<Schema.Field> previous = List.of();
+        for (Map.Entry<Integer, List<Schema.Field>> entry : fieldsByVersion.entrySet()) {
+            int version = entry.getKey();
+            List<Schema.Field> current = entry.getValue();
+            if (version != versions.size() + 1) {
+                throw new EventFormatException(source + ": " + subject + " skips from v" + versions.size() + " to v" + version);
+            }
+            if (current.size() < previous.size() || !current.subList(0, previous.size()).equals(previous)) {
+                throw new EventFormatException(source + ": " + subject + ".v" + version
+                        + " must keep the fields of v" + (version - 1) + " " + previous + " and only append to them");
+            }
+            versions.add(new Schema(subject, id, version, current));
+            previous = current;
+        }
+        return List.copyOf(versions);
+    }
+
+    private static int parseId(String source, String key, String value) {
+        try {
+            int id = Integer.parseInt(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new EventFormatException(source + ": " + key + " must be a positive number, got '" + value + "'");
+    }
+
+    private static List<Schema.Field> parseFields(String source, String key, String value) {
+        List<Schema.Field> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (String field : value.split(",")) {
+            String[] parts = field.trim().split(":");
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new EventFormatException(source + ": " + key + " has a malformed field '" + field.trim() + "'");
+            }
+            String name = parts[0].trim();
+            if (!names.add(name)) {
+                throw new EventFormatException(source + ": " + key + " declares " + name + " twice");
+            }
+            fields.add(new Schema.Field(name, Schema.FieldType.of(parts[1].trim())));
+        }
+        if (fields.size() > MAX_FIELDS) {
+            throw new EventFormatException(source + ": " + key + " has more than " + MAX_FIELDS + " fields");
+        }
+        return List.copyOf(fields);
+    }
+
+    private static final class Bundled {
+        private static final SchemaRegistry INSTANCE = load();
+
+        private static SchemaRegistry load() {
+            InputStream in = SchemaRegistry.class.getResourceAsStream(BUNDLED);
+            if (in == null) {
+                throw new IllegalStateException(BUNDLED + " is missing from the classpath");
+            }
+            return SchemaRegistry.load(in, BUNDLED);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.cyan.events.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.cyan.events.EventCodec;
+import org.cyan.events.EventFormatException;
+
+/**
+ * Reads one event type with its {@link EventCodec}, from the binary event format or from the JSON
+ * written before it. Type headers are ignored; the codec decides what the payload is.
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+
+    private final EventCodec<T> codec;
+
+    public EventDeserializer(EventCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        try {
+            return codec.decode(data);
+        } catch (EventFormatException e) {
+            throw new SerializationException("Could not deserialize " + codec.schema().subject() + " event from " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.cyan.events.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.EventFormatException;
+
+/**
+ * Writes any event of {@link EventCodecs} in the binary event format. Has a no-argument
+ * constructor, so it can be configured by class name ({@code value.serializer}).
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return encode(data);
+        } catch (EventFormatException e) {
+            throw new SerializationException("Could not serialize event for " + topic, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] encode(T data) {
+        return EventCodecs.forType((Class<T>) data.getClass()).encode(data);
+    }
+}
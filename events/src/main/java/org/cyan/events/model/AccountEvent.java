@@ -0,0 +1,21 @@
+package org.cyan.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Payload of {@code account-events-topic}, produced by the account service and keyed by account id. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountEvent {
+    private Long accountId;
+    private String eventType; // CREATED, UPDATED, DELETED
+    /**
+     * Balance after the change, in {@link org.cyan.events.money.Money} minor units ({@code money} in
+     * the schema); lets the balance service seed its view.
+     */
+    private Long balance;
+}
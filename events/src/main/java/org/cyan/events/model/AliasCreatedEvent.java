@@ -0,0 +1,21 @@
+package org.cyan.events.model;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of {@code alias-created-topic}, produced by the alias service. JSON records written
+ * before this contract named the alias {@code name}, which is still accepted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AliasCreatedEvent {
+    private Long id;
+    @JsonAlias("name")
+    private String alias;
+}
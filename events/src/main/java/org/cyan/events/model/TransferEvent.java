@@ -0,0 +1,24 @@
+package org.cyan.events.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload of the {@code transactions} topic, produced by the transactions outbox and keyed by the
+ * sender alias. {@code amount} is in {@link org.cyan.events.money.Money} minor units, a
+ * {@code money} field in the schema; the account ids let consumers apply the transfer
+ * without resolving aliases.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferEvent {
+    private String fromAlias;
+    private String toAlias;
+    private Long fromAccountId;
+    private Long toAccountId;
+    private Long amount;
+}
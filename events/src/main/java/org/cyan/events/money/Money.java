@@ -0,0 +1,123 @@
+package org.cyan.events.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Money as a {@code long} count of minor units (cents), so balances and amounts are exact and the
+ * transfer path does plain long arithmetic without boxing or {@link java.math.BigDecimal}.
+ * On the wire amounts stay decimal ({@code 12.5} is {@code 1250} minor units); the nested
+ * serializer and deserializer convert at the JSON boundary.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_UNITS_PER_UNIT);
+    }
+
+    /**
+     * Parses a decimal amount such as {@code "12.5"} or {@code "-0.07"} into minor units. More than
+     * {@value #SCALE} fraction digits are rejected unless the extra digits are zeros, so nothing is
+     * ever rounded away silently.
+     */
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            throw new IllegalArgumentException("Invalid amount: '" + text + "'");
+        }
+
+        long units = 0;
+        int digits = 0;
+        for (; i < length && text.charAt(i) != '.'; i++, digits++) {
+            units = Math.addExact(Math.multiplyExact(units, 10), digit(text, i));
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < length) {
+            for (i++; i < length; i++, fractionDigits++) {
+                int digit = digit(text, i);
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + digit;
+                } else if (digit != 0) {
+                    throw new IllegalArgumentException("Amount has more than " + SCALE + " decimal places: '" + text + "'");
+                }
+            }
+        }
+        if (digits == 0 && fractionDigits == 0) {
+            throw new IllegalArgumentException("Invalid amount: '" + text + "'");
+        }
+        for (int pad = fractionDigits; pad < SCALE; pad++) {
+            fraction *= 10;
+        }
+
+        long minor = Math.addExact(Math.multiplyExact(units, MINOR_UNITS_PER_UNIT), fraction);
+        return negative ? -minor : minor;
+    }
+
+    /** Formats minor units as a plain decimal with exactly {@value #SCALE} fraction digits. */
+    public static String format(long minorUnits) {
+        StringBuilder out = new StringBuilder(24);
+        if (minorUnits < 0) {
+            out.append('-');
+        }
+        long units = Math.abs(minorUnits / MINOR_UNITS_PER_UNIT);
+        long fraction = Math.abs(minorUnits % MINOR_UNITS_PER_UNIT);
+        out.append(units).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction).toString();
+    }
+
+    private static int digit(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Invalid amount: '" + text + "'");
+        }
+        return c - '0';
+    }
+
+    /** Writes minor units as a JSON decimal number. */
+    public static class Serializer extends JsonSerializer<Long> {
+        @Override
+        public void serialize(Long value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(format(value));
+        }
+    }
+
+    /** Reads a JSON decimal number (or numeric string) into minor units. */
+    public static class Deserializer extends JsonDeserializer<Long> {
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.hasToken(JsonToken.VALUE_NUMBER_INT) && !p.hasToken(JsonToken.VALUE_NUMBER_FLOAT)
+                    && !p.hasToken(JsonToken.VALUE_STRING)) {
+                return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+            }
+            String text = p.getText().trim();
+            try {
+                return parse(text);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, text, e.getMessage());
+            }
+        }
+    }
+}
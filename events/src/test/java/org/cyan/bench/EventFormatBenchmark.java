@@ -0,0 +1,105 @@
+package org.cyan.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cyan.events.EventCodec;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.model.AccountEvent;
+import org.cyan.events.model.AliasCreatedEvent;
+import org.cyan.events.model.TransferEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the same events as the JSON the topics carried before (what Spring's
+ * {@code JsonSerializer} and {@code JsonDeserializer} do with a plain {@link ObjectMapper}) and in
+ * the binary event format. The average payload size is printed when each trial starts; run with
+ * {@code -prof gc} to compare allocation per operation as well.
+ *
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main EventFormatBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventFormatBenchmark {
+
+    private static final int EVENTS = 256;
+    private static final String[] TYPES = {"CREATED", "UPDATED", "DELETED"};
+
+    @Param({"alias-created", "account-event", "transfer"})
+    public String event;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Class<?> type;
+    private EventCodec<Object> codec;
+    private final Object[] events = new Object[EVENTS];
+    private final byte[][] encoded = new byte[EVENTS][];
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void encodeEvents() {
+        Random random = new Random(42);
+        long bytes = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = switch (event) {
+                case "alias-created" -> new AliasCreatedEvent(1_000L + random.nextInt(5_000_000), alias(random));
+                case "account-event" -> new AccountEvent(1_000L + random.nextInt(5_000_000),
+                        TYPES[random.nextInt(TYPES.length)], (long) random.nextInt(100_000_000));
+                default -> new TransferEvent(alias(random), alias(random), 1_000L + random.nextInt(5_000_000),
+                        1_000L + random.nextInt(5_000_000), (long) random.nextInt(1_000_000));
+            };
+        }
+        type = events[0].getClass();
+        codec = (EventCodec<Object>) EventCodecs.forType(type);
+        for (int i = 0; i < EVENTS; i++) {
+            encoded[i] = encode(events[i]);
+            bytes += encoded[i].length;
+        }
+        System.out.printf("%n%s as %s: %.1f bytes per event%n", event, format, (double) bytes / EVENTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void encode(Blackhole blackhole) {
+        for (Object value : events) {
+            blackhole.consume(encode(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void decode(Blackhole blackhole) throws IOException {
+        for (byte[] value : encoded) {
+            blackhole.consume("json".equals(format) ? objectMapper.readValue(value, type) : codec.decode(value));
+        }
+    }
+
+    private byte[] encode(Object value) {
+        if ("binary".equals(format)) {
+            return codec.encode(value);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String alias(Random random) {
+        return "alias." + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+    }
+}
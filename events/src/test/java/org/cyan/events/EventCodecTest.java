@@ -0,0 +1,133 @@
+package org.cyan.events;
+
+import org.cyan.events.model.AliasCreatedEvent;
+import org.cyan.events.model.TransferEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecTest {
+
+    static class Sample {
+        Long id;
+        String name;
+        Long extra;
+    }
+
+    private static SchemaRegistry registry(String properties) {
+        return SchemaRegistry.load(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)), "test");
+    }
+
+    private static EventCodec<Sample> v1(SchemaRegistry registry) {
+        return EventCodec.builder(Sample.class, "sample", Sample::new)
+                .int64("id", s -> s.id, (s, v) -> s.id = v)
+                .string("name", s -> s.name, (s, v) -> s.name = v)
+                .build(registry);
+    }
+
+    private static EventCodec<Sample> v2(SchemaRegistry registry) {
+        return EventCodec.builder(Sample.class, "sample", Sample::new)
+                .int64("id", s -> s.id, (s, v) -> s.id = v)
+                .string("name", s -> s.name, (s, v) -> s.name = v)
+                .int64("extra", s -> s.extra, (s, v) -> s.extra = v)
+                .build(registry);
+    }
+
+    private static Sample sample(Long id, String name, Long extra) {
+        Sample sample = new Sample();
+        sample.id = id;
+        sample.name = name;
+        sample.extra = extra;
+        return sample;
+    }
+
+    @Test
+    void testTransferRoundTripsWithoutFieldNames() {
+        TransferEvent event = new TransferEvent("Alice", "Bob", 10L, -20L, 2500L);
+
+        byte[] encoded = EventCodecs.TRANSFER.encode(event);
+
+        assertTrue(EventCodec.isBinary(encoded));
+        assertEquals(event, EventCodecs.TRANSFER.decode(encoded));
+        assertFalse(new String(encoded, StandardCharsets.UTF_8).contains("fromAlias"));
+    }
+
+    @Test
+    void testMoneyFieldsAreWrittenLikeInt64() {
+        // The transfer schema before its amount was declared as money.
+        EventCodec<TransferEvent> int64Codec = EventCodec.builder(TransferEvent.class, "transfer", TransferEvent::new)
+                .string("fromAlias", TransferEvent::getFromAlias, TransferEvent::setFromAlias)
+                .string("toAlias", TransferEvent::getToAlias, TransferEvent::setToAlias)
+                .int64("fromAccountId", TransferEvent::getFromAccountId, TransferEvent::setFromAccountId)
+                .int64("toAccountId", TransferEvent::getToAccountId, TransferEvent::setToAccountId)
+                .int64("amount", TransferEvent::getAmount, TransferEvent::setAmount)
+                .build(registry("transfer.id=3\ntransfer.v1=fromAlias:string, toAlias:string,"
+                        + " fromAccountId:int64, toAccountId:int64, amount:int64\n"));
+        TransferEvent event = new TransferEvent("Alice", "Bob", 10L, 20L, -123_456_789L);
+
+        byte[] encoded = EventCodecs.TRANSFER.encode(event);
+
+        assertEquals(Schema.FieldType.MONEY, EventCodecs.TRANSFER.schema().fields().get(4).type());
+        assertArrayEquals(int64Codec.encode(event), encoded);
+        assertEquals(event, int64Codec.decode(encoded));
+    }
+
+    @Test
+    void testNullFieldsAreLeftOutAndReadBackAsNull() {
+        AliasCreatedEvent event = new AliasCreatedEvent(7L, null);
+
+        byte[] encoded = EventCodecs.ALIAS_CREATED.encode(event);
+
+        // magic, subject id, version, presence mask, id
+        assertEquals(5, encoded.length);
+        assertEquals(event, EventCodecs.ALIAS_CREATED.decode(encoded));
+    }
+
+    @Test
+    void testJsonPayloadsAreStillRead() {
+        byte[] current = "{\"id\":7,\"alias\":\"alice\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] legacy = "{\"name\":\"alice\",\"id\":7,\"unknown\":true}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(new AliasCreatedEvent(7L, "alice"), EventCodecs.ALIAS_CREATED.decode(current));
+        assertEquals(new AliasCreatedEvent(7L, "alice"), EventCodecs.ALIAS_CREATED.decode(legacy));
+        assertThrows(EventFormatException.class,
+                () -> EventCodecs.ALIAS_CREATED.decode("not json".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testOldAndNewReadersReadEachOthersVersions() {
+        SchemaRegistry oldRegistry = registry("sample.id=9\nsample.v1=id:int64, name:string\n");
+        SchemaRegistry newRegistry = registry("sample.id=9\nsample.v1=id:int64, name:string\nsample.v2=id:int64, name:string, extra:int64\n");
+        EventCodec<Sample> oldCodec = v1(oldRegistry);
+        EventCodec<Sample> newCodec = v2(newRegistry);
+
+        Sample fromNew = oldCodec.decode(newCodec.encode(sample(1L, "a", 99L)));
+        Sample fromOld = newCodec.decode(oldCodec.encode(sample(1L, "a", null)));
+
+        assertEquals(1L, fromNew.id);
+        assertEquals("a", fromNew.name);
+        assertEquals(1L, fromOld.id);
+        assertNull(fromOld.extra);
+    }
+
+    @Test
+    void testCodecMustMatchTheNewestRegisteredVersion() {
+        SchemaRegistry registry = registry("sample.id=9\nsample.v1=id:int64, name:string\nsample.v2=id:int64, name:string, extra:int64\n");
+
+        assertThrows(EventFormatException.class, () -> v1(registry));
+        assertThrows(EventFormatException.class, () -> v2(registry("sample.id=9\nsample.v1=id:int64, name:string\n")));
+    }
+
+    @Test
+    void testOtherSubjectsAndTruncatedPayloadsAreRejected() {
+        byte[] alias = EventCodecs.ALIAS_CREATED.encode(new AliasCreatedEvent(7L, "alice"));
+
+        assertThrows(EventFormatException.class, () -> EventCodecs.TRANSFER.decode(alias));
+        assertThrows(EventFormatException.class,
+                () -> EventCodecs.ALIAS_CREATED.decode(Arrays.copyOf(alias, alias.length - 2)));
+    }
+}
@@ -0,0 +1,54 @@
+package org.cyan.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaRegistryTest {
+
+    private static SchemaRegistry registry(String properties) {
+        return SchemaRegistry.load(new ByteArrayInputStream(properties.getBytes(StandardCharsets.UTF_8)), "test");
+    }
+
+    @Test
+    void testBundledRegistryHasEveryTopic() {
+        SchemaRegistry registry = SchemaRegistry.bundled();
+
+        assertEquals(Set.of("alias-created", "account-event", "transfer"), registry.subjects());
+        assertEquals(1, registry.latest("alias-created").id());
+        assertEquals(List.of(new Schema.Field("id", Schema.FieldType.INT64), new Schema.Field("alias", Schema.FieldType.STRING)),
+                registry.latest("alias-created").fields());
+    }
+
+    @Test
+    void testVersionsAreLookedUpBySubject() {
+        SchemaRegistry registry = registry("a.id=1\na.v1=x:int64\na.v2=x:int64, y:string\n");
+
+        assertEquals(2, registry.latest("a").version());
+        assertEquals(1, registry.find("a", 1).fields().size());
+        assertNull(registry.find("a", 3));
+        assertNull(registry.find("b", 1));
+        assertThrows(EventFormatException.class, () -> registry.latest("b"));
+    }
+
+    @Test
+    void testIncompatibleRegistriesAreRejected() {
+        // a version that changes an existing field
+        assertThrows(EventFormatException.class, () -> registry("a.id=1\na.v1=x:int64\na.v2=x:string\n"));
+        // a version that drops a field
+        assertThrows(EventFormatException.class, () -> registry("a.id=1\na.v1=x:int64, y:string\na.v2=x:int64\n"));
+        // a missing version
+        assertThrows(EventFormatException.class, () -> registry("a.id=1\na.v1=x:int64\na.v3=x:int64, y:int64\n"));
+        // a reused id
+        assertThrows(EventFormatException.class, () -> registry("a.id=1\na.v1=x:int64\nb.id=1\nb.v1=x:int64\n"));
+        // an unknown type
+        assertThrows(EventFormatException.class, () -> registry("a.id=1\na.v1=x:double\n"));
+        // a subject without an id
+        assertThrows(EventFormatException.class, () -> registry("a.v1=x:int64\n"));
+    }
+}
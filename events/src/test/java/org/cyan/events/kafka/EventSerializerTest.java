@@ -0,0 +1,31 @@
+package org.cyan.events.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.model.AccountEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSerializerTest {
+
+    @Test
+    void testEventsRoundTripThroughTheKafkaSerializers() {
+        EventSerializer serializer = new EventSerializer();
+        EventDeserializer<AccountEvent> deserializer = new EventDeserializer<>(EventCodecs.ACCOUNT_EVENT);
+        AccountEvent event = new AccountEvent(1L, "CREATED", 5000L);
+
+        assertEquals(event, deserializer.deserialize("account-events-topic", serializer.serialize("account-events-topic", event)));
+        assertNull(serializer.serialize("account-events-topic", null));
+        assertNull(deserializer.deserialize("account-events-topic", null));
+    }
+
+    @Test
+    void testUnknownTypesAndUnreadablePayloadsFailAsSerializationErrors() {
+        assertThrows(SerializationException.class, () -> new EventSerializer().serialize("topic", "text"));
+        assertThrows(SerializationException.class, () -> new EventDeserializer<>(EventCodecs.ACCOUNT_EVENT)
+                .deserialize("account-events-topic", "{".getBytes(StandardCharsets.UTF_8)));
+    }
+}
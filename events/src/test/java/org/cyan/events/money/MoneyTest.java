@@ -0,0 +1,36 @@
+package org.cyan.events.money;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testParseScalesToMinorUnits() {
+        assertEquals(1250L, Money.parse("12.5"));
+        assertEquals(1250L, Money.parse("12.50"));
+        assertEquals(1200L, Money.parse("12"));
+        assertEquals(7L, Money.parse("0.07"));
+        assertEquals(-7L, Money.parse("-.07"));
+        assertEquals(1250L, Money.parse("12.5000"));
+    }
+
+    @Test
+    void testParseRejectsSubCentAndGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("10.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1e3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("-"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("."));
+        assertThrows(ArithmeticException.class, () -> Money.parse("999999999999999999999"));
+    }
+
+    @Test
+    void testFormatAlwaysHasTwoDecimals() {
+        assertEquals("12.50", Money.format(1250L));
+        assertEquals("0.07", Money.format(7L));
+        assertEquals("-0.07", Money.format(-7L));
+        assertEquals("-3.10", Money.format(-310L));
+        assertEquals(1234567L, Money.parse(Money.format(1234567L)));
+    }
+}
@@ -0,0 +1,100 @@
+package org.cyan.platform;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread mode ({@code app.virtual-threads.enabled=true}) for every service that has
+ * this module on its classpath. Runs Tomcat requests, the application task executor used for
+ * {@code @Async} and async MVC, and every Kafka listener container on virtual threads, so requests
+ * blocked on JDBC or on a broker ack no longer hold a platform thread, and starts the
+ * {@link PinningMonitor}. Needs Java 21 at runtime; on older JVMs the service keeps its platform pools.
+ * The services build for and ship on Java 17, where this mode only logs a warning.
+ */
+@Slf4j
+@AutoConfiguration(before = TaskExecutionAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "app.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsAutoConfiguration {
+
+    public VirtualThreadsAutoConfiguration() {
+        if (VirtualThreads.isSupported()) {
+            log.info("Virtual-thread mode enabled");
+        } else {
+            log.warn("Virtual-thread mode requested, but Java {} has no virtual threads; the mode does nothing "
+                    + "and every pool stays on platform threads", Runtime.version().feature());
+        }
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @Conditional(Supported.class)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("async-vt-"));
+    }
+
+    @Bean
+    @Conditional(Supported.class)
+    public PinningMonitor pinningMonitor(ObjectProvider<MeterRegistry> meterRegistry,
+                                         @Value("${app.virtual-threads.pinning.threshold:20ms}") Duration threshold) {
+        return new PinningMonitor(meterRegistry.getIfAvailable(), threshold);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+    static class Tomcat {
+        @Bean
+        @Conditional(Supported.class)
+        public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+            return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(AbstractKafkaListenerContainerFactory.class)
+    static class Kafka {
+        @Bean
+        @Conditional(Supported.class)
+        public static BeanPostProcessor kafkaListenerVirtualThreads() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                    if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+                        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+                        executor.setThreadFactory(VirtualThreads.threadFactory(beanName + "-vt-"));
+                        factory.getContainerProperties().setListenerTaskExecutor(executor);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    static class Supported implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return VirtualThreads.isSupported();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.cyan.config;
 
 import org.cyan.exceptions.AliasNotFoundException;
+import org.cyan.exceptions.IdempotencyKeyReusedException;
 import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.LedgerUnavailableException;
+import org.cyan.exceptions.TransferConflictException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -34,4 +37,25 @@ public class GlobalExceptionHandler {
                 ErrorResponse.builder().error("Alias not found").message(ex.getMessage()).build(),
                 HttpStatus.NOT_FOUND);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(TransferConflictException.class)
+    public ResponseEntity<ErrorResponse> handleTransferConflictException(TransferConflictException ex) {
+        return new ResponseEntity<>(
+                ErrorResponse.builder().error("Transfer conflict").message(ex.getMessage()).build(),
+                HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(LedgerUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleLedgerUnavailableException(LedgerUnavailableException ex) {
+        return new ResponseEntity<>(
+                ErrorResponse.builder().error("Ledger unavailable").message(ex.getMessage()).build(),
+                HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return new ResponseEntity<>(
+                ErrorResponse.builder().error("Idempotency key reused").message(ex.getMessage()).build(),
+                HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+}
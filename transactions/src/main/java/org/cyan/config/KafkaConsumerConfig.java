@@ -0,0 +1,62 @@
+package org.cyan.config;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.kafka.EventDeserializer;
+import org.cyan.events.model.AliasCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    /**
+     * The alias cache consumer has no group: it assigns itself every partition and never commits,
+     * so a restart leaves nothing behind on the broker and replays the topic from the start.
+     */
+    @Bean
+    public ConsumerFactory<String, AliasCreatedEvent> aliasCreatedConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        // Binary events, and JSON ones written before the binary format.
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new EventDeserializer<>(EventCodecs.ALIAS_CREATED));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, AliasCreatedEvent> aliasCreatedKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, AliasCreatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(aliasCreatedConsumerFactory());
+        factory.setBatchListener(true);
+        // Without a group there is nothing to commit to; MANUAL with no acknowledgment commits nothing.
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /** Partition numbers of {@code alias-created-topic}, for the manually assigned alias cache consumer. */
+    @Bean
+    public String[] aliasCreatedPartitions(@Value("${app.kafka.topics.alias-created:alias-created-topic}") String topic) {
+        try (Consumer<String, AliasCreatedEvent> consumer = aliasCreatedConsumerFactory().createConsumer()) {
+            return consumer.partitionsFor(topic).stream()
+                    .map(PartitionInfo::partition)
+                    .map(String::valueOf)
+                    .toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.cyan.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.cyan.core.data.AliasRepository;
+import org.cyan.core.data.model.AccountRef;
+import org.cyan.core.data.model.NamedAccountRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Near-cache for alias to account resolution. Aliases never change once created, so a resolved
+ * reference is kept until it is evicted by size or TTL; misses read through to Postgres. Unknown
+ * aliases are not cached, because the alias may be created (and its account opened) a moment later.
+ */
+@Component
+public class AliasCache {
+
+    private final AliasRepository aliasRepository;
+    private final BoundedTtlCache<String, CachedRef> refs;
+    private final Counter hits;
+    private final Counter misses;
+
+    public AliasCache(AliasRepository aliasRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.alias.cache.max-entries:100000}") int maxEntries,
+                      @Value("${app.alias.cache.ttl:PT1H}") Duration ttl) {
+        this.aliasRepository = aliasRepository;
+        this.refs = new BoundedTtlCache<>(maxEntries, ttl);
+        this.hits = meterRegistry.counter("alias.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("alias.cache.requests", "result", "miss");
+        meterRegistry.gauge("alias.cache.size", refs, BoundedTtlCache::size);
+    }
+
+    /** The alias and account ids behind {@code name}, or {@code null} when it does not resolve. */
+    public AccountRef resolve(String name) {
+        CachedRef cached = refs.get(name);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        AccountRef ref = aliasRepository.findAccountRefByName(name);
+        if (ref != null) {
+            refs.put(name, new CachedRef(name, ref.getAliasId(), ref.getAccountId()));
+        }
+        return ref;
+    }
+
+    /** Resolves many names with at most one query for the ones not cached; unknown names are absent. */
+    public Map<String, NamedAccountRef> resolveAll(Collection<String> names) {
+        Map<String, NamedAccountRef> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            CachedRef cached = refs.get(name);
+            if (cached != null) {
+                resolved.put(name, cached);
+            } else {
+                missing.add(name);
+            }
+        }
+        hits.increment(resolved.size());
+        if (!missing.isEmpty()) {
+            misses.increment(missing.size());
+            for (NamedAccountRef ref : aliasRepository.findAccountRefsByNameIn(missing)) {
+                CachedRef cached = new CachedRef(ref.getName(), ref.getAliasId(), ref.getAccountId());
+                refs.put(cached.getName(), cached);
+                resolved.put(cached.getName(), cached);
+            }
+        }
+        return resolved;
+    }
+
+    /** Loads newly created aliases ahead of their first transfer, with one query for those not cached. */
+    public void warmAll(Collection<String> names) {
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (refs.get(name) == null) {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (NamedAccountRef ref : aliasRepository.findAccountRefsByNameIn(missing)) {
+            refs.put(ref.getName(), new CachedRef(ref.getName(), ref.getAliasId(), ref.getAccountId()));
+        }
+    }
+
+    public void evict(String name) {
+        refs.remove(name);
+    }
+
+    private static final class CachedRef implements NamedAccountRef {
+        private final String name;
+        private final Long aliasId;
+        private final Long accountId;
+
+        private CachedRef(String name, Long aliasId, Long accountId) {
+            this.name = name;
+            this.aliasId = aliasId;
+            this.accountId = accountId;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Long getAliasId() {
+            return aliasId;
+        }
+
+        @Override
+        public Long getAccountId() {
+            return accountId;
+        }
+    }
+}
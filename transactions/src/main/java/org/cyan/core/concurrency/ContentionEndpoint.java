@@ -0,0 +1,29 @@
+package org.cyan.core.concurrency;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/contention}: the most contended accounts with their conflict and retry counts.
+ * Kept out of Micrometer tags on purpose, one series per account id would explode cardinality.
+ */
+@Component
+@Endpoint(id = "contention")
+public class ContentionEndpoint {
+
+    private static final int TOP_ACCOUNTS = 50;
+
+    private final ContentionTracker contentionTracker;
+
+    public ContentionEndpoint(ContentionTracker contentionTracker) {
+        this.contentionTracker = contentionTracker;
+    }
+
+    @ReadOperation
+    public List<ContentionSnapshot> contention() {
+        return contentionTracker.top(TOP_ACCOUNTS);
+    }
+}
@@ -0,0 +1,16 @@
+package org.cyan.core.concurrency;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ContentionSnapshot {
+    private final long accountId;
+    private final long attempts;
+    private final long conflicts;
+    private final long retries;
+    private final long pessimisticAttempts;
+    private final double conflictRate;
+    private final boolean pessimistic;
+}
@@ -0,0 +1,151 @@
+package org.cyan.core.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-account conflict statistics. Each attempt feeds an exponentially weighted conflict rate;
+ * accounts whose rate is above the threshold are "hot" and get locked pessimistically. Successful
+ * pessimistic attempts count as conflict-free samples, so a cooled-down account drifts back to
+ * optimistic updates on its own.
+ */
+@Component
+public class ContentionTracker {
+
+    private final Map<Long, AccountContention> accounts = new ConcurrentHashMap<>();
+    private final double threshold;
+    private final double smoothing;
+    private final long idleMillis;
+
+    public ContentionTracker(@Value("${app.transfer.concurrency.pessimistic-threshold:0.3}") double threshold,
+                             @Value("${app.transfer.concurrency.smoothing:0.2}") double smoothing,
+                             @Value("${app.transfer.concurrency.idle-eviction-ms:60000}") long idleMillis) {
+        this.threshold = threshold;
+        this.smoothing = smoothing;
+        this.idleMillis = idleMillis;
+    }
+
+    public boolean isHot(long accountId) {
+        AccountContention contention = accounts.get(accountId);
+        return contention != null && contention.rate() > threshold;
+    }
+
+    public void recordSuccess(long accountId, boolean pessimistic) {
+        contention(accountId).record(false, pessimistic);
+    }
+
+    public void recordConflict(long accountId) {
+        contention(accountId).record(true, false);
+    }
+
+    public void recordRetry(long accountId) {
+        contention(accountId).retry();
+    }
+
+    public int hotAccounts() {
+        int hot = 0;
+        for (AccountContention contention : accounts.values()) {
+            if (contention.rate() > threshold) {
+                hot++;
+            }
+        }
+        return hot;
+    }
+
+    /** The {@code limit} accounts with the most conflicts, most contended first. */
+    public List<ContentionSnapshot> top(int limit) {
+        return accounts.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey(), threshold))
+                .sorted(Comparator.comparingLong(ContentionSnapshot::getConflicts).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfer.concurrency.idle-eviction-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        accounts.values().removeIf(contention -> contention.lastSeen() < cutoff);
+    }
+
+    private AccountContention contention(long accountId) {
+        return accounts.computeIfAbsent(accountId, id -> new AccountContention(smoothing));
+    }
+
+    private static final class AccountContention {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double smoothing;
+        private long attempts;
+        private long conflicts;
+        private long retries;
+        private long pessimisticAttempts;
+        private double rate;
+        private volatile long lastSeen = System.currentTimeMillis();
+
+        private AccountContention(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        void record(boolean conflict, boolean pessimistic) {
+            lock.lock();
+            try {
+                attempts++;
+                if (conflict) {
+                    conflicts++;
+                }
+                if (pessimistic) {
+                    pessimisticAttempts++;
+                }
+                rate += smoothing * ((conflict ? 1.0 : 0.0) - rate);
+                lastSeen = System.currentTimeMillis();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void retry() {
+            lock.lock();
+            try {
+                retries++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        double rate() {
+            lock.lock();
+            try {
+                return rate;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long lastSeen() {
+            return lastSeen;
+        }
+
+        ContentionSnapshot snapshot(long accountId, double threshold) {
+            lock.lock();
+            try {
+                return ContentionSnapshot.builder()
+                        .accountId(accountId)
+                        .attempts(attempts)
+                        .conflicts(conflicts)
+                        .retries(retries)
+                        .pessimisticAttempts(pessimisticAttempts)
+                        .conflictRate(rate)
+                        .pessimistic(rate > threshold)
+                        .build();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
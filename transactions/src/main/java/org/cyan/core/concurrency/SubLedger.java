@@ -0,0 +1,142 @@
+package org.cyan.core.concurrency;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.AccountBucketRepository;
+import org.cyan.core.data.TransferBatchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits very hot receiver accounts into balance buckets. Credits to a split account land in a
+ * random bucket instead of the account row, so concurrent credits no longer queue on one row lock.
+ * Debits lock the account row and sweep the buckets into it when the row alone cannot cover the
+ * amount; {@link #consolidate()} folds the buckets back periodically so reads of the account row
+ * stay close to the logical balance.
+ *
+ * <p>Accounts are split when listed in {@code app.transfer.sub-ledger.accounts} or, with
+ * {@code auto-split}, as soon as the {@link ContentionTracker} reports them hot. A split is
+ * committed on its own before any credit is routed to the buckets, and other instances pick it up
+ * on the next refresh.
+ *
+ * <p>With {@code app.transfer.sub-ledger.enabled=false}, which the ledger engine requires, nothing
+ * is split, credited to a bucket, swept or consolidated. Buckets left from earlier runs keep their
+ * balances; the engine counts them when it loads an account.
+ */
+@Slf4j
+@Component
+public class SubLedger {
+
+    private final AccountBucketRepository accountBucketRepository;
+    private final TransferBatchRepository transferBatchRepository;
+    private final ContentionTracker contentionTracker;
+    private final TransactionTemplate ownTransaction;
+    private final Set<Long> splitAccounts = ConcurrentHashMap.newKeySet();
+    private final boolean enabled;
+    private final int buckets;
+    private final boolean autoSplit;
+    private final List<Long> configuredAccounts;
+
+    public SubLedger(AccountBucketRepository accountBucketRepository,
+                     TransferBatchRepository transferBatchRepository,
+                     ContentionTracker contentionTracker,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.transfer.sub-ledger.enabled:true}") boolean enabled,
+                     @Value("${app.transfer.sub-ledger.buckets:16}") int buckets,
+                     @Value("${app.transfer.sub-ledger.auto-split:true}") boolean autoSplit,
+                     @Value("${app.transfer.sub-ledger.accounts:}") List<Long> configuredAccounts) {
+        this.accountBucketRepository = accountBucketRepository;
+        this.transferBatchRepository = transferBatchRepository;
+        this.contentionTracker = contentionTracker;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.buckets = buckets;
+        this.autoSplit = autoSplit;
+        this.configuredAccounts = configuredAccounts;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        configuredAccounts.forEach(this::split);
+        refresh();
+    }
+
+    public boolean isSplit(long accountId) {
+        return splitAccounts.contains(accountId);
+    }
+
+    /**
+     * Whether a credit to {@code accountId} should go to a bucket. Splits the account first when it
+     * has become hot and auto-split is enabled.
+     */
+    public boolean routesCredits(long accountId) {
+        if (!enabled) {
+            return false;
+        }
+        if (isSplit(accountId)) {
+            return true;
+        }
+        if (autoSplit && contentionTracker.isHot(accountId)) {
+            split(accountId);
+            return true;
+        }
+        return false;
+    }
+
+    /** Credits a random bucket, in the caller's transaction. */
+    public void credit(long accountId, long amount) {
+        int bucket = ThreadLocalRandom.current().nextInt(buckets);
+        if (!accountBucketRepository.credit(accountId, bucket, amount)) {
+            log.warn("Bucket {} of account {} is missing, crediting the account row", bucket, accountId);
+            transferBatchRepository.applyBalanceDeltas(Map.of(accountId, amount));
+        }
+    }
+
+    /** Moves all bucket balances into the account row; the caller must hold the account row lock. */
+    public long sweep(long accountId) {
+        return accountBucketRepository.sweep(accountId);
+    }
+
+    void split(long accountId) {
+        ownTransaction.executeWithoutResult(status -> accountBucketRepository.createBuckets(accountId, buckets));
+        if (splitAccounts.add(accountId)) {
+            log.info("Split account {} into {} buckets", accountId, buckets);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfer.sub-ledger.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        splitAccounts.addAll(accountBucketRepository.findSplitAccountIds());
+    }
+
+    @Scheduled(fixedDelayString = "${app.transfer.sub-ledger.consolidate-interval-ms:1000}")
+    public void consolidate() {
+        for (Long accountId : splitAccounts) {
+            try {
+                ownTransaction.executeWithoutResult(status -> {
+                    transferBatchRepository.lockBalances(List.of(accountId));
+                    accountBucketRepository.sweep(accountId);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Could not consolidate buckets of account {}", accountId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.cyan.core.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.TransferConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies the balance side of a single transfer. By default the debit is one guarded
+ * {@code UPDATE ... WHERE balance >= :amount} and the credit one plain {@code UPDATE}, so an
+ * uncontended transfer costs two statements and no read. An attempt that fails on a deadlock, a
+ * lock timeout or a serialization failure rolls back to a JDBC savepoint and is retried after a
+ * jittered backoff. Accounts whose conflict rate crosses the threshold, and the last attempt of
+ * any transfer, take {@code SELECT ... FOR UPDATE} locks first instead. Rows are always touched in
+ * ascending id order, so opposite-direction transfers between two accounts cannot deadlock.
+ *
+ * <p>Credits to accounts split by the {@link SubLedger} go to one of their buckets and leave the
+ * account row alone; debits from a split account always lock and may sweep its buckets.
+ */
+@Slf4j
+@Component
+public class TransferConcurrencyControl {
+
+    private final TransferBatchRepository transferBatchRepository;
+    private final ContentionTracker contentionTracker;
+    private final SubLedger subLedger;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final Counter optimisticConflicts;
+    private final Counter pessimisticConflicts;
+    private final Counter retries;
+    private final Counter pessimisticAttempts;
+    private final Counter exhausted;
+
+    public TransferConcurrencyControl(TransferBatchRepository transferBatchRepository,
+                                      ContentionTracker contentionTracker,
+                                      SubLedger subLedger,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.transfer.concurrency.max-attempts:5}") int maxAttempts,
+                                      @Value("${app.transfer.concurrency.backoff-base-ms:2}") long backoffBaseMs,
+                                      @Value("${app.transfer.concurrency.backoff-max-ms:50}") long backoffMaxMs) {
+        this.transferBatchRepository = transferBatchRepository;
+        this.contentionTracker = contentionTracker;
+        this.subLedger = subLedger;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.optimisticConflicts = meterRegistry.counter("transfer.concurrency.conflicts", "mode", "optimistic");
+        this.pessimisticConflicts = meterRegistry.counter("transfer.concurrency.conflicts", "mode", "pessimistic");
+        this.retries = meterRegistry.counter("transfer.concurrency.retries");
+        this.pessimisticAttempts = meterRegistry.counter("transfer.concurrency.pessimistic.attempts");
+        this.exhausted = meterRegistry.counter("transfer.concurrency.exhausted");
+        meterRegistry.gauge("transfer.concurrency.hot.accounts", contentionTracker, ContentionTracker::hotAccounts);
+    }
+
+    /**
+     * Debits {@code fromAccountId} and credits {@code toAccountId} by {@code amount} minor units in
+     * the caller's transaction, which must be active: every attempt is a savepoint within it.
+     *
+     * @throws InsufficientFundsException if the sender cannot cover the amount
+     * @throws TransferConflictException  if every attempt lost a race
+     */
+    public void transfer(long fromAccountId, long toAccountId, long amount) {
+        boolean creditToBucket = fromAccountId != toAccountId && subLedger.routesCredits(toAccountId);
+        boolean splitSender = subLedger.isSplit(fromAccountId);
+        Map<Long, Long> deltas = new TreeMap<>();
+        deltas.merge(fromAccountId, -amount, Long::sum);
+        if (!creditToBucket) {
+            deltas.merge(toAccountId, amount, Long::sum);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            boolean pessimistic = attempt == maxAttempts || splitSender || anyHot(deltas.keySet());
+            try {
+                transferBatchRepository.inSavepoint(() -> {
+                    if (pessimistic) {
+                        applyPessimistic(fromAccountId, amount, deltas, splitSender);
+                    } else {
+                        applyGuarded(fromAccountId, amount, deltas);
+                    }
+                    if (creditToBucket) {
+                        subLedger.credit(toAccountId, amount);
+                    }
+                });
+                if (pessimistic) {
+                    pessimisticAttempts.increment();
+                }
+                deltas.keySet().forEach(accountId -> contentionTracker.recordSuccess(accountId, pessimistic));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                (pessimistic ? pessimisticConflicts : optimisticConflicts).increment();
+                deltas.keySet().forEach(contentionTracker::recordConflict);
+                if (attempt >= maxAttempts) {
+                    throw giveUp(e);
+                }
+            }
+            retries.increment();
+            deltas.keySet().forEach(contentionTracker::recordRetry);
+            backoff(attempt);
+        }
+    }
+
+    private boolean anyHot(Iterable<Long> accountIds) {
+        for (Long accountId : accountIds) {
+            if (contentionTracker.isHot(accountId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The fast path: the debit checks and moves the balance in one statement, the credits follow in
+     * id order. Only a debit that matched no row reads the account, to tell a missing account from
+     * a short one, and applies the debit under that lock if a concurrent credit has covered it since.
+     */
+    private void applyGuarded(long fromAccountId, long amount, Map<Long, Long> deltas) {
+        for (Map.Entry<Long, Long> delta : deltas.entrySet()) {
+            long accountId = delta.getKey();
+            if (accountId != fromAccountId) {
+                if (!transferBatchRepository.applyBalanceDelta(accountId, delta.getValue())) {
+                    throw new IllegalStateException("Account " + accountId + " not found");
+                }
+            } else if (!transferBatchRepository.applyBalanceDeltaIfAtLeast(accountId, delta.getValue(), amount)) {
+                checkFunds(accountId, amount, transferBatchRepository.lockBalances(List.of(accountId)).get(accountId));
+                transferBatchRepository.applyBalanceDeltas(Map.of(accountId, delta.getValue()));
+            }
+        }
+    }
+
+    private void applyPessimistic(long fromAccountId, long amount, Map<Long, Long> deltas, boolean splitSender) {
+        Map<Long, Long> balances = transferBatchRepository.lockBalances(deltas.keySet());
+        Long available = balances.get(fromAccountId);
+        if (splitSender && available != null && available < amount) {
+            available += subLedger.sweep(fromAccountId);
+        }
+        checkFunds(fromAccountId, amount, available);
+        for (Long accountId : deltas.keySet()) {
+            if (!balances.containsKey(accountId)) {
+                throw new IllegalStateException("Account " + accountId + " not found");
+            }
+        }
+        transferBatchRepository.applyBalanceDeltas(deltas);
+    }
+
+    private static void checkFunds(long fromAccountId, long amount, Long balance) {
+        if (balance == null) {
+            throw new IllegalStateException("Account " + fromAccountId + " not found");
+        }
+        if (balance < amount) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+    }
+
+    private TransferConflictException giveUp(RuntimeException cause) {
+        exhausted.increment();
+        log.warn("Transfer gave up after {} attempts: {}", maxAttempts, cause.toString());
+        return new TransferConflictException("Transfer conflicted with concurrent updates, please retry", cause);
+    }
+
+    /** Full jitter: sleeps a random time up to an exponentially growing, capped bound. */
+    private void backoff(int attempt) {
+        long bound = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 16));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferConflictException("Interrupted while backing off", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.cyan.core.data;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC access to the balance buckets of split accounts. Credits only touch a bucket row, so they
+ * never wait on the account row lock; sweeps move bucket balances back into the account row and
+ * require the caller to hold that lock already.
+ */
+@Repository
+public class AccountBucketRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AccountBucketRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createBuckets(long accountId, int buckets) {
+        MapSqlParameterSource[] params = new MapSqlParameterSource[buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            params[bucket] = new MapSqlParameterSource()
+                    .addValue("accountId", accountId)
+                    .addValue("bucket", bucket);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO account_bucket (account_id, bucket, balance) VALUES (:accountId, :bucket, 0) "
+                        + "ON CONFLICT (account_id, bucket) DO NOTHING",
+                params);
+    }
+
+    public List<Long> findSplitAccountIds() {
+        return jdbcTemplate.getJdbcTemplate().queryForList("SELECT DISTINCT account_id FROM account_bucket", Long.class);
+    }
+
+    /** Returns {@code false} when the bucket does not exist, e.g. after the bucket count was lowered. */
+    public boolean credit(long accountId, int bucket, long amount) {
+        return jdbcTemplate.update(
+                "UPDATE account_bucket SET balance = balance + :amount WHERE account_id = :accountId AND bucket = :bucket",
+                new MapSqlParameterSource()
+                        .addValue("accountId", accountId)
+                        .addValue("bucket", bucket)
+                        .addValue("amount", amount)) == 1;
+    }
+
+    /**
+     * Zeroes every bucket of the account and adds their total to the account row in one statement.
+     * The caller must hold the account row lock. Returns the amount moved.
+     */
+    public long sweep(long accountId) {
+        Long swept = jdbcTemplate.queryForObject(
+                "WITH swept AS ("
+                        + " UPDATE account_bucket b SET balance = 0"
+                        + " FROM (SELECT id, balance FROM account_bucket WHERE account_id = :accountId AND balance <> 0 FOR UPDATE) old"
+                        + " WHERE b.id = old.id"
+                        + " RETURNING old.balance AS amount),"
+                        + " total AS (SELECT COALESCE(SUM(amount), 0) AS amount FROM swept),"
+                        + " folded AS ("
+                        + " UPDATE account SET balance = balance + total.amount, version = COALESCE(version, 0) + 1"
+                        + " FROM total WHERE account.id = :accountId AND total.amount <> 0"
+                        + " RETURNING account.id)"
+                        + " SELECT amount FROM total",
+                new MapSqlParameterSource("accountId", accountId),
+                Long.class);
+        return swept == null ? 0 : swept;
+    }
+}
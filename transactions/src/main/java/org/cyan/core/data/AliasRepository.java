@@ -1,8 +1,21 @@
 package org.cyan.core.data;
 
+import org.cyan.core.data.model.AccountRef;
 import org.cyan.core.data.model.Alias;
+import org.cyan.core.data.model.NamedAccountRef;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface AliasRepository extends JpaRepository<Alias, Long> {
     Alias findByName(String name);
-}
\ No newline at end of file
+
+    @Query("SELECT a.id AS aliasId, ac.id AS accountId FROM Alias a JOIN a.account ac WHERE a.name = :name")
+    AccountRef findAccountRefByName(@Param("name") String name);
+
+    @Query("SELECT a.name AS name, a.id AS aliasId, ac.id AS accountId FROM Alias a JOIN a.account ac WHERE a.name IN :names")
+    List<NamedAccountRef> findAccountRefsByNameIn(@Param("names") Collection<String> names);
+}
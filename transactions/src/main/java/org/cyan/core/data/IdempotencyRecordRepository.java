@@ -0,0 +1,29 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * Returns 1 when the key was claimed and 0 when it already exists. A concurrent claim of the same
+     * key waits on the unique index until the first transaction commits or rolls back.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_record (idempotency_key, request_hash, created_at) "
+            + "VALUES (:key, :requestHash, :createdAt) ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    @Query("SELECT r.requestHash FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    Optional<String> findRequestHash(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,22 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * The oldest rows by id. Ids are taken at insert, not at commit, so across keys a slower
+     * transaction may still commit a lower id after higher ones were relayed; see
+     * {@link org.cyan.core.event.OutboxRelay} for the per-key order this does guarantee.
+     */
+    @Query(value = "SELECT * FROM outbox_event ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findOldest(@Param("limit") int limit);
+
+    /** Transaction-scoped advisory lock so only one relay drains the outbox at a time. */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryRelayLock(@Param("lockId") long lockId);
+}
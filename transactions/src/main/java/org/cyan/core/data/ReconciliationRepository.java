@@ -0,0 +1,170 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.AccountTotals;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Read side of the ledger reconciliation. Every range is read through its own connection, but all
+ * of them import the MVCC snapshot exported by {@link LedgerSnapshot}, so the job sees the whole
+ * database at one instant. Plain reads under a snapshot take no row locks and do not block
+ * transfers.
+ */
+@Repository
+public class ReconciliationRepository {
+
+    private static final String RANGE_QUERY =
+            "SELECT a.id,"
+                    + " a.balance + COALESCE((SELECT SUM(b.balance) FROM account_bucket b WHERE b.account_id = a.id), 0) AS book,"
+                    + " COALESCE((SELECT SUM(t.amount) FROM transaction t WHERE t.receiver_id = a.alias_id), 0)"
+                    + " - COALESCE((SELECT SUM(t.amount) FROM transaction t WHERE t.sender_id = a.alias_id), 0) AS net,"
+                    + " r.opening_balance, r.verified"
+                    + " FROM account a LEFT JOIN reconciliation_baseline r ON r.account_id = a.id"
+                    + " WHERE a.id >= ? AND a.id < ?";
+
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ReconciliationRepository(DataSource dataSource, NamedParameterJdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** The smallest and largest account id, or {@code null} when there are no accounts. */
+    public long[] accountIdBounds() {
+        return jdbcTemplate.getJdbcTemplate().query("SELECT MIN(id), MAX(id) FROM account", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    /**
+     * Opens a read-only transaction holding the advisory lock {@code lockId} and exports its
+     * snapshot; keep it open while ranges are read. Returns {@code null} if another instance holds
+     * the lock.
+     */
+    public LedgerSnapshot openSnapshot(long lockId) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            begin(connection);
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_xact_lock(" + lockId + ")")) {
+                    rs.next();
+                    if (!rs.getBoolean(1)) {
+                        connection.rollback();
+                        connection.close();
+                        return null;
+                    }
+                }
+                try (ResultSet rs = statement.executeQuery("SELECT pg_export_snapshot()")) {
+                    rs.next();
+                    return new LedgerSnapshot(connection, rs.getString(1));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Stores the implied, unverified opening balance of accounts that have none yet; existing
+     * baselines are kept.
+     */
+    public void saveBaselines(Map<Long, Long> openingBalances) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        MapSqlParameterSource[] params = openingBalances.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("accountId", entry.getKey())
+                        .addValue("openingBalance", entry.getValue())
+                        .addValue("recordedAt", now))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO reconciliation_baseline (account_id, opening_balance, recorded_at, verified) "
+                        + "VALUES (:accountId, :openingBalance, :recordedAt, false) ON CONFLICT (account_id) DO NOTHING",
+                params);
+    }
+
+    /**
+     * Records the real opening balance of an account, taken from its source of truth, replacing any
+     * implied one; later runs check the account against it and count it as reconciled.
+     */
+    public void recordOpening(long accountId, long openingBalance) {
+        jdbcTemplate.update(
+                "INSERT INTO reconciliation_baseline (account_id, opening_balance, recorded_at, verified) "
+                        + "VALUES (:accountId, :openingBalance, :recordedAt, true) ON CONFLICT (account_id) DO UPDATE "
+                        + "SET opening_balance = EXCLUDED.opening_balance, recorded_at = EXCLUDED.recorded_at, verified = true",
+                new MapSqlParameterSource()
+                        .addValue("accountId", accountId)
+                        .addValue("openingBalance", openingBalance)
+                        .addValue("recordedAt", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    private static void begin(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        connection.setReadOnly(true);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    }
+
+    /** An exported snapshot; closing it ends the exporting transaction. */
+    public class LedgerSnapshot implements AutoCloseable {
+        private final Connection connection;
+        private final String snapshotId;
+
+        private LedgerSnapshot(Connection connection, String snapshotId) {
+            this.connection = connection;
+            this.snapshotId = snapshotId;
+        }
+
+        /**
+         * Streams the totals of accounts with {@code from <= id < to} as of the snapshot, through a
+         * server-side cursor of {@code fetchSize} rows.
+         */
+        public void readRange(long from, long to, int fetchSize, Consumer<AccountTotals> consumer) throws SQLException {
+            try (Connection worker = dataSource.getConnection()) {
+                begin(worker);
+                try (Statement statement = worker.createStatement()) {
+                    // Must be the first statement of the transaction; the id comes from the server.
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                }
+                try (PreparedStatement query = worker.prepareStatement(RANGE_QUERY)) {
+                    query.setFetchSize(fetchSize);
+                    query.setLong(1, from);
+                    query.setLong(2, to);
+                    try (ResultSet rs = query.executeQuery()) {
+                        while (rs.next()) {
+                            long opening = rs.getLong(4);
+                            Long openingBalance = rs.wasNull() ? null : opening;
+                            consumer.accept(new AccountTotals(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                                    openingBalance, rs.getBoolean(5)));
+                        }
+                    }
+                } finally {
+                    worker.rollback();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                connection.rollback();
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    @Modifying
+    @Query(value = "INSERT INTO transaction (sender_id, receiver_id, amount) VALUES (:senderId, :receiverId, :amount)",
+            nativeQuery = true)
+    int record(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId, @Param("amount") long amount);
+}
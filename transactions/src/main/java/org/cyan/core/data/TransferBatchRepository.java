@@ -0,0 +1,124 @@
+package org.cyan.core.data;
+
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.core.data.model.TransferRecord;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC operations for batch transfers, the ledger journal and the transfer concurrency control.
+ * Every method is meant to run inside the caller's transaction: rows are locked once, then balance
+ * changes, transaction rows and outbox events go out as JDBC batches.
+ */
+@Repository
+public class TransferBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransferBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Locks the accounts in id order, so concurrent chunks cannot deadlock, and returns their balances. */
+    public Map<Long, Long> lockBalances(Collection<Long> accountIds) {
+        Map<Long, Long> balances = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, balance FROM account WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", accountIds),
+                rs -> {
+                    balances.put(rs.getLong("id"), rs.getLong("balance"));
+                });
+        return balances;
+    }
+
+    /**
+     * Applies {@code delta} only if the balance is at least {@code minimum}. One statement, so the
+     * check and the write cannot race; returns {@code false} if the account is missing or short.
+     */
+    public boolean applyBalanceDeltaIfAtLeast(long accountId, long delta, long minimum) {
+        return jdbcTemplate.update(
+                "UPDATE account SET balance = balance + :delta, version = COALESCE(version, 0) + 1 "
+                        + "WHERE id = :id AND balance >= :minimum",
+                new MapSqlParameterSource()
+                        .addValue("id", accountId)
+                        .addValue("delta", delta)
+                        .addValue("minimum", minimum)) == 1;
+    }
+
+    /** Returns {@code false} if the account does not exist. */
+    public boolean applyBalanceDelta(long accountId, long delta) {
+        return jdbcTemplate.update(
+                "UPDATE account SET balance = balance + :delta, version = COALESCE(version, 0) + 1 WHERE id = :id",
+                new MapSqlParameterSource()
+                        .addValue("id", accountId)
+                        .addValue("delta", delta)) == 1;
+    }
+
+    public void applyBalanceDeltas(Map<Long, Long> deltas) {
+        List<MapSqlParameterSource> params = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) -> params.add(new MapSqlParameterSource()
+                .addValue("id", accountId)
+                .addValue("delta", delta)));
+        jdbcTemplate.batchUpdate(
+                "UPDATE account SET balance = balance + :delta, version = COALESCE(version, 0) + 1 WHERE id = :id",
+                params.toArray(new MapSqlParameterSource[0]));
+    }
+
+    /**
+     * Runs {@code attempt} in a JDBC savepoint of the caller's transaction: if it throws, only its
+     * own statements are rolled back and the transaction stays usable for another attempt. JPA
+     * transactions do not support nested ones, so the savepoint is taken on the connection itself.
+     */
+    public void inSavepoint(Runnable attempt) {
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                attempt.run();
+            } catch (RuntimeException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    public void insertTransactions(List<TransferRecord> records) {
+        MapSqlParameterSource[] params = new MapSqlParameterSource[records.size()];
+        for (int i = 0; i < params.length; i++) {
+            TransferRecord record = records.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("senderId", record.getSenderAliasId())
+                    .addValue("receiverId", record.getReceiverAliasId())
+                    .addValue("amount", record.getAmount());
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transaction (sender_id, receiver_id, amount) VALUES (:senderId, :receiverId, :amount)",
+                params);
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        MapSqlParameterSource[] params = new MapSqlParameterSource[events.size()];
+        for (int i = 0; i < params.length; i++) {
+            OutboxEvent event = events.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("topic", event.getTopic())
+                    .addValue("eventKey", event.getEventKey())
+                    .addValue("payload", event.getPayload())
+                    .addValue("createdAt", Timestamp.valueOf(event.getCreatedAt()));
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_event (topic, event_key, payload, created_at) VALUES (:topic, :eventKey, :payload, :createdAt)",
+                params);
+    }
+}
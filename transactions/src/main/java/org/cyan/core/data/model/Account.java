@@ -23,6 +23,6 @@ public class Account {
     @Version
     private Long version;
 
-
-    private Double balance;
+    /** Minor units, see {@link org.cyan.events.money.Money}. */
+    private Long balance;
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package org.cyan.core.data.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One slice of a hot account's balance. The logical balance of a split account is its
+ * {@link Account#getBalance()} plus the balance of all of its buckets.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "bucket"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private Integer bucket;
+
+    /** Minor units, see {@link org.cyan.events.money.Money}. */
+    @Column(nullable = false)
+    private Long balance;
+}
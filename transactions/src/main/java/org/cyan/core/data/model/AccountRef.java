@@ -0,0 +1,10 @@
+package org.cyan.core.data.model;
+
+/**
+ * Id-only view of an alias and the account behind it, so transfers never hydrate the full graph.
+ */
+public interface AccountRef {
+    Long getAliasId();
+
+    Long getAccountId();
+}
@@ -0,0 +1,19 @@
+package org.cyan.core.data.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One account as seen by reconciliation: its booked balance (account row plus buckets), the net of
+ * its transaction rows, and its recorded opening balance, if any, with whether that opening was
+ * verified or only implied by an earlier run.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountTotals {
+    private final long accountId;
+    private final long bookBalance;
+    private final long ledgerNet;
+    private final Long openingBalance;
+    private final boolean openingVerified;
+}
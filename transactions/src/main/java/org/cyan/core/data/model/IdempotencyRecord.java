@@ -0,0 +1,28 @@
+package org.cyan.core.data.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    private String idempotencyKey;
+
+    /** SHA-256 of the transfer the key was first used for, see {@code IdempotencyService#fingerprint}. */
+    @Column(length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
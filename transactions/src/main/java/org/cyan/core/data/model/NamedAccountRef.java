@@ -0,0 +1,8 @@
+package org.cyan.core.data.model;
+
+/**
+ * {@link AccountRef} that also carries the alias name, for lookups that resolve many aliases at once.
+ */
+public interface NamedAccountRef extends AccountRef {
+    String getName();
+}
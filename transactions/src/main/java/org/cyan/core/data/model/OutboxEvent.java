@@ -0,0 +1,72 @@
+package org.cyan.core.data.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.model.TransferEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * A Kafka record waiting to be published. Rows are written in the same transaction as the change
+ * they describe and removed by the {@link org.cyan.core.event.OutboxRelay} once the broker acked them.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    public static final String TRANSACTIONS_TOPIC = "transactions";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String eventKey;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /** A {@link TransferEvent} as JSON, keyed by the sender alias. */
+    public static OutboxEvent transfer(String fromAlias, String toAlias, long fromAccountId, long toAccountId, long amount) {
+        TransferEvent event = TransferEvent.builder()
+                .fromAlias(fromAlias)
+                .toAlias(toAlias)
+                .fromAccountId(fromAccountId)
+                .toAccountId(toAccountId)
+                .amount(amount)
+                .build();
+        try {
+            return new OutboxEvent(null, TRANSACTIONS_TOPIC, fromAlias, MAPPER.writeValueAsString(event), LocalDateTime.now());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transfer event", e);
+        }
+    }
+
+    /**
+     * The payload as published. Rows keep readable JSON; transfer events go out in the binary event
+     * format, which also covers rows written before the relay published that format.
+     */
+    public byte[] wirePayload() {
+        byte[] json = payload.getBytes(StandardCharsets.UTF_8);
+        if (TRANSACTIONS_TOPIC.equals(topic)) {
+            return EventCodecs.TRANSFER.encode(EventCodecs.TRANSFER.decode(json));
+        }
+        return json;
+    }
+}
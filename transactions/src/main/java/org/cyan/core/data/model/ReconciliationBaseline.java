@@ -0,0 +1,38 @@
+package org.cyan.core.data.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The opening balance later reconciliation runs roll an account forward from. The first run that
+ * sees an account records the opening its balance and transaction rows imply, which absorbs any
+ * drift the account already had, so that opening stays unverified until the real one is recorded
+ * explicitly (see {@link org.cyan.core.data.ReconciliationRepository#recordOpening}).
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationBaseline {
+    @Id
+    private Long accountId;
+
+    /** Minor units, see {@link org.cyan.events.money.Money}. */
+    @Column(nullable = false)
+    private Long openingBalance;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+
+    /** Whether the opening was recorded from its real source rather than implied by reconciliation. */
+    @Column(nullable = false, columnDefinition = "boolean not null default false")
+    private boolean verified;
+}
@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_sender", columnList = "sender_id"),
+        @Index(name = "idx_transaction_receiver", columnList = "receiver_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,5 +25,6 @@ public class Transaction {
     @JoinColumn(name = "receiver_id", nullable = false)
     private Alias receiver;
 
-    private Double amount;
+    /** Minor units, see {@link org.cyan.events.money.Money}. */
+    private Long amount;
 }
\ No newline at end of file
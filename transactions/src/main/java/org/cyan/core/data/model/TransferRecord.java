@@ -0,0 +1,15 @@
+package org.cyan.core.data.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A transaction row to be written by a JDBC batch.
+ */
+@Getter
+@AllArgsConstructor
+public class TransferRecord {
+    private final long senderAliasId;
+    private final long receiverAliasId;
+    private final long amount;
+}
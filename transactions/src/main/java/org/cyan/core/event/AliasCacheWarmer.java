@@ -0,0 +1,52 @@
+package org.cyan.core.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.cache.AliasCache;
+import org.cyan.events.model.AliasCreatedEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Feeds {@link AliasCache} from {@code alias-created-topic}. Every instance assigns itself all
+ * partitions without a consumer group and starts from offset 0, so a fresh instance replays existing
+ * aliases into its cache, keeps up with new ones and leaves no group behind when it stops.
+ * <p>
+ * The event carries only the alias: its account is opened afterwards by the account service, so the
+ * account id still comes from Postgres, but with one query per polled batch rather than per record.
+ */
+@Slf4j
+@Component
+public class AliasCacheWarmer {
+
+    private final AliasCache aliasCache;
+
+    public AliasCacheWarmer(AliasCache aliasCache) {
+        this.aliasCache = aliasCache;
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = "${app.kafka.topics.alias-created:alias-created-topic}",
+            partitions = "#{@aliasCreatedPartitions}",
+            partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0")),
+            containerFactory = "aliasCreatedKafkaListenerContainerFactory")
+    public void onAliasCreated(List<AliasCreatedEvent> events) {
+        List<String> aliases = events.stream()
+                .filter(Objects::nonNull)
+                .map(AliasCreatedEvent::getAlias)
+                .filter(Objects::nonNull)
+                .toList();
+        if (aliases.isEmpty()) {
+            return;
+        }
+        try {
+            aliasCache.warmAll(aliases);
+        } catch (RuntimeException e) {
+            // A miss later reads through to Postgres, so a failed warm-up is not worth a retry.
+            log.warn("Could not warm alias cache for {} aliases", aliases.size(), e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.cyan.core.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.cyan.core.data.OutboxRepository;
+import org.cyan.core.data.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox to Kafka. Each pass takes the oldest rows in id order, sends them as one
+ * producer batch, waits for every ack and only then deletes them in the same transaction. A failed
+ * pass rolls back and is retried, so delivery is at-least-once; the {@value #OUTBOX_ID_HEADER}
+ * header lets consumers drop the rare duplicate, which makes publication exactly-once in effect.
+ *
+ * <p>Order is guaranteed per key only. Transfer events are keyed by the sender alias and written
+ * after the sender's debit, which holds the sender's row lock until commit; a second transfer of
+ * the same sender therefore takes its outbox id only after the first has committed, and the relay
+ * sends them in that order. Events of different keys carry no order: an id is assigned at insert,
+ * so a slower transaction can commit a lower id after higher ids were already relayed, and the
+ * next pass sends it then. With the ledger engine, a transfer submitted after another of the same
+ * sender was acknowledged is journaled, and so relayed, after it; transfers of one sender that are
+ * in flight together may be journaled in either order.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    public static final String OUTBOX_ID_HEADER = "outbox-id";
+
+    private static final long RELAY_LOCK_ID = 0x6F7574626F78L;
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${app.outbox.relay.batch-size:1000}") int batchSize,
+                       @Value("${app.outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:50}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Outbox relay pass failed, will retry", e);
+        }
+    }
+
+    int relayBatch() {
+        if (!outboxRepository.tryRelayLock(RELAY_LOCK_ID)) {
+            return 0;
+        }
+        List<OutboxEvent> events = outboxRepository.findOldest(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> acks = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ProducerRecord<String, byte[]> record =
+                    new ProducerRecord<>(event.getTopic(), event.getEventKey(), event.wirePayload());
+            record.headers().add(OUTBOX_ID_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(event.getId()).array());
+            acks.add(kafkaTemplate.send(record));
+        }
+        kafkaTemplate.flush();
+        awaitAcks(acks);
+
+        outboxRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        log.debug("Relayed {} outbox events", events.size());
+        return events.size();
+    }
+
+    private void awaitAcks(List<CompletableFuture<?>> acks) {
+        try {
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for outbox acks", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Outbox batch was not acknowledged by the broker", e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.cyan.core.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.exceptions.LedgerUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory ledger: accounts are hash-partitioned over single-writer shards and Postgres is
+ * updated asynchronously by the {@link LedgerJournal}. Enabled with {@code app.ledger.engine.enabled}.
+ *
+ * <p>A transfer is acknowledged once both balances have moved in memory; the journal persists it
+ * shortly after. This node must be the only writer of the account balances while the engine is on,
+ * so it refuses to start alongside the {@link org.cyan.core.concurrency.SubLedger}, whose bucket
+ * credits, sweeps and consolidation write the balances behind the shards' backs: set
+ * {@code app.transfer.sub-ledger.enabled=false} to run the engine.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.ledger.engine", name = "enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private static final long DRAIN_TIMEOUT_MS = 10_000;
+
+    private final LedgerShard[] shards;
+    private final LedgerJournal journal;
+    private final long submitTimeoutMs;
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean accepting;
+
+    public LedgerEngine(LedgerStore store,
+                        @Value("${app.ledger.engine.shards:8}") int shardCount,
+                        @Value("${app.ledger.engine.ring-capacity:65536}") int ringCapacity,
+                        @Value("${app.ledger.engine.submit-timeout-ms:1000}") long submitTimeoutMs,
+                        @Value("${app.ledger.engine.journal.batch-size:1000}") int journalBatchSize,
+                        @Value("${app.ledger.engine.journal.flush-interval-ms:5}") long journalFlushIntervalMs,
+                        @Value("${app.ledger.engine.journal.shutdown-timeout-ms:10000}") long journalShutdownTimeoutMs,
+                        @Value("${app.transfer.sub-ledger.enabled:true}") boolean subLedgerEnabled) {
+        if (subLedgerEnabled) {
+            throw new IllegalStateException("The ledger engine caches account balances and cannot run alongside "
+                    + "the sub-ledger; set app.transfer.sub-ledger.enabled=false");
+        }
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.journal = new LedgerJournal(store, ringCapacity, journalBatchSize, journalFlushIntervalMs,
+                journalShutdownTimeoutMs);
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, this, store, journal, ringCapacity);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        journal.start();
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        accepting = true;
+        log.info("Ledger engine started with {} shards", shards.length);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        journal.stop();
+        log.info("Ledger engine stopped");
+    }
+
+    /**
+     * Moves {@code amount} between two accounts and waits for the in-memory result, rethrowing
+     * business exceptions such as {@link org.cyan.exceptions.InsufficientFundsException} unwrapped.
+     */
+    public void transfer(long fromAccountId, long toAccountId, long fromAliasId, long toAliasId, long amount,
+                         OutboxEvent event) {
+        try {
+            submit(fromAccountId, toAccountId, fromAliasId, toAliasId, amount, event).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a transfer on the sender's shard. {@code event} is written to the outbox in the same
+     * journal commit as the transfer itself.
+     */
+    public CompletableFuture<Void> submit(long fromAccountId, long toAccountId, long fromAliasId, long toAliasId,
+                                          long amount, OutboxEvent event) {
+        if (!accepting) {
+            throw new LedgerUnavailableException("Ledger engine is not accepting transfers");
+        }
+        PendingTransfer transfer = new PendingTransfer(fromAccountId, toAccountId, fromAliasId, toAliasId, amount, event);
+        inFlight.incrementAndGet();
+        transfer.getResult().whenComplete((ignored, error) -> inFlight.decrementAndGet());
+
+        boolean accepted;
+        try {
+            accepted = shardFor(fromAccountId).submit(transfer, submitTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            transfer.getResult().cancel(false);
+            throw new LedgerUnavailableException("Ledger shard is saturated, retry later");
+        }
+        return transfer.getResult();
+    }
+
+    LedgerShard shardFor(long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+}
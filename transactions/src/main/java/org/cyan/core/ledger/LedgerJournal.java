@@ -0,0 +1,103 @@
+package org.cyan.core.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects completed transfers from all shards and persists them asynchronously in batches.
+ * A failed batch is retried until it succeeds, because the in-memory balances already reflect it;
+ * once the engine is stopping, retries give up after {@code shutdownTimeoutMs} and the transfers
+ * that could not be persisted are logged so shutdown cannot hang on an unreachable database.
+ */
+@Slf4j
+class LedgerJournal implements Runnable {
+
+    private static final long RETRY_BACKOFF_MS = 500;
+
+    private final LedgerStore store;
+    private final BlockingQueue<PendingTransfer> entries;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long shutdownTimeoutMs;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long stopDeadline = Long.MAX_VALUE;
+
+    LedgerJournal(LedgerStore store, int capacity, int batchSize, long flushIntervalMs, long shutdownTimeoutMs) {
+        this.store = store;
+        this.entries = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.thread = new Thread(this, "ledger-journal");
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /** Blocks the calling shard when the journal is full, which throttles intake to the write rate. */
+    void append(PendingTransfer transfer) throws InterruptedException {
+        entries.put(transfer);
+    }
+
+    void stop() throws InterruptedException {
+        stopDeadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        running = false;
+        thread.join();
+    }
+
+    @Override
+    public void run() {
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+        while (running || !entries.isEmpty()) {
+            try {
+                PendingTransfer first = entries.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                entries.drainTo(batch, batchSize - 1);
+                if (!flush(batch)) {
+                    entries.drainTo(batch);
+                    abandon(batch);
+                    return;
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Returns {@code false} when the engine is stopping and the shutdown timeout has run out. */
+    private boolean flush(List<PendingTransfer> batch) throws InterruptedException {
+        while (true) {
+            try {
+                store.writeBatch(batch);
+                return true;
+            } catch (RuntimeException e) {
+                log.error("Failed to persist ledger journal batch of {} transfers, retrying", batch.size(), e);
+                if (!running && System.currentTimeMillis() >= stopDeadline) {
+                    return false;
+                }
+                Thread.sleep(RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void abandon(List<PendingTransfer> batch) {
+        log.error("Ledger journal gave up after {} ms of shutdown; {} acknowledged transfers were not persisted",
+                shutdownTimeoutMs, batch.size());
+        for (PendingTransfer transfer : batch) {
+            log.error("Unpersisted transfer: from={} to={} amount={}",
+                    transfer.getFromAccountId(), transfer.getToAccountId(), transfer.getAmount());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.cyan.core.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.LedgerUnavailableException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Owns the balances of every account hashed to it. Only the shard thread reads or writes those
+ * balances, so no locking is needed; other threads talk to it through its two queues.
+ *
+ * <p>Client debits arrive through a bounded ring buffer. Credits forwarded by other shards use an
+ * unbounded queue instead, so two full shards can never block each other: every credit already
+ * holds a slot that was admitted through some shard's ring.
+ */
+@Slf4j
+class LedgerShard implements Runnable {
+
+    private static final int DRAIN_LIMIT = 256;
+
+    private final int index;
+    private final LedgerEngine engine;
+    private final LedgerStore store;
+    private final LedgerJournal journal;
+    private final ArrayBlockingQueue<PendingTransfer> debits;
+    private final Queue<PendingTransfer> credits = new ConcurrentLinkedQueue<>();
+    private final Map<Long, AccountSlot> accounts = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    LedgerShard(int index, LedgerEngine engine, LedgerStore store, LedgerJournal journal, int ringCapacity) {
+        this.index = index;
+        this.engine = engine;
+        this.store = store;
+        this.journal = journal;
+        this.debits = new ArrayBlockingQueue<>(ringCapacity);
+        this.thread = new Thread(this, "ledger-shard-" + index);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    boolean submit(PendingTransfer transfer, long timeoutMs) throws InterruptedException {
+        if (!debits.offer(transfer, timeoutMs, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    void forwardCredit(PendingTransfer transfer) {
+        credits.add(transfer);
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        List<PendingTransfer> batch = new ArrayList<>(DRAIN_LIMIT);
+        while (running || !debits.isEmpty() || !credits.isEmpty()) {
+            boolean worked = false;
+            PendingTransfer credit;
+            while ((credit = credits.poll()) != null) {
+                applyCredit(credit);
+                worked = true;
+            }
+            if (debits.drainTo(batch, DRAIN_LIMIT) > 0) {
+                for (PendingTransfer debit : batch) {
+                    applyDebit(debit);
+                }
+                batch.clear();
+                worked = true;
+            }
+            if (!worked) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    private void applyDebit(PendingTransfer transfer) {
+        AccountSlot from;
+        try {
+            from = slot(transfer.getFromAccountId());
+        } catch (RuntimeException e) {
+            transfer.getResult().completeExceptionally(e);
+            return;
+        }
+        if (from.balance < transfer.getAmount()) {
+            transfer.getResult().completeExceptionally(new InsufficientFundsException("Insufficient funds"));
+            return;
+        }
+        from.balance -= transfer.getAmount();
+
+        LedgerShard owner = engine.shardFor(transfer.getToAccountId());
+        if (owner == this) {
+            applyCredit(transfer);
+        } else {
+            owner.forwardCredit(transfer);
+        }
+    }
+
+    private void applyCredit(PendingTransfer transfer) {
+        if (transfer.isRefund()) {
+            accounts.get(transfer.getFromAccountId()).balance += transfer.getAmount();
+            transfer.getResult().completeExceptionally(transfer.getRefundCause());
+            return;
+        }
+
+        AccountSlot to;
+        try {
+            to = slot(transfer.getToAccountId());
+        } catch (RuntimeException e) {
+            transfer.markRefund(e);
+            engine.shardFor(transfer.getFromAccountId()).forwardCredit(transfer);
+            return;
+        }
+        to.balance += transfer.getAmount();
+
+        try {
+            journal.append(transfer);
+        } catch (InterruptedException e) {
+            // Never acknowledge a transfer the journal will not persist: take the credit back and
+            // let the sender's shard return the debit and fail the transfer. The interrupt is not
+            // restored: the shard stops through stop(), and a pending interrupt would make every
+            // later park() return at once and every later append() throw.
+            log.error("Shard {} interrupted while journaling a transfer, rolling it back", index);
+            to.balance -= transfer.getAmount();
+            transfer.markRefund(new LedgerUnavailableException("Transfer could not be journaled, retry later"));
+            engine.shardFor(transfer.getFromAccountId()).forwardCredit(transfer);
+            return;
+        }
+        transfer.getResult().complete(null);
+    }
+
+    private AccountSlot slot(long accountId) {
+        AccountSlot slot = accounts.get(accountId);
+        if (slot == null) {
+            Long balance = store.loadBalance(accountId);
+            if (balance == null) {
+                throw new IllegalStateException("Account " + accountId + " not found");
+            }
+            slot = new AccountSlot(balance);
+            accounts.put(accountId, slot);
+        }
+        return slot;
+    }
+
+    private static final class AccountSlot {
+        private long balance;
+
+        private AccountSlot(long balance) {
+            this.balance = balance;
+        }
+    }
+}
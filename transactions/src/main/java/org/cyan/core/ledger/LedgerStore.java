@@ -0,0 +1,66 @@
+package org.cyan.core.ledger;
+
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.core.data.model.TransferRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access used by the ledger engine: loads a balance the first time a shard sees an account
+ * and writes journal batches (transaction rows, net balance deltas and outbox events) in a single commit.
+ * Loaded balances include the buckets of accounts split by the
+ * {@link org.cyan.core.concurrency.SubLedger}; journal deltas always go to the account row.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ledger.engine", name = "enabled", havingValue = "true")
+public class LedgerStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferBatchRepository transferBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerStore(JdbcTemplate jdbcTemplate,
+                       TransferBatchRepository transferBatchRepository,
+                       TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transferBatchRepository = transferBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    Long loadBalance(long accountId) {
+        List<Long> balances = jdbcTemplate.queryForList(
+                "SELECT a.balance + COALESCE((SELECT SUM(b.balance) FROM account_bucket b WHERE b.account_id = a.id), 0) "
+                        + "FROM account a WHERE a.id = ?", Long.class, accountId);
+        return balances.isEmpty() ? null : balances.get(0);
+    }
+
+    void writeBatch(List<PendingTransfer> transfers) {
+        Map<Long, Long> deltas = new HashMap<>();
+        List<TransferRecord> records = new ArrayList<>(transfers.size());
+        List<OutboxEvent> events = new ArrayList<>(transfers.size());
+        for (PendingTransfer transfer : transfers) {
+            deltas.merge(transfer.getFromAccountId(), -transfer.getAmount(), Long::sum);
+            deltas.merge(transfer.getToAccountId(), transfer.getAmount(), Long::sum);
+            records.add(new TransferRecord(transfer.getFromAliasId(), transfer.getToAliasId(), transfer.getAmount()));
+            if (transfer.getEvent() != null) {
+                events.add(transfer.getEvent());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transferBatchRepository.insertTransactions(records);
+            transferBatchRepository.applyBalanceDeltas(deltas);
+            if (!events.isEmpty()) {
+                transferBatchRepository.insertOutboxEvents(events);
+            }
+        });
+    }
+}
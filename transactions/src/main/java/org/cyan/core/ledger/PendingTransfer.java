@@ -0,0 +1,42 @@
+package org.cyan.core.ledger;
+
+import lombok.Getter;
+import org.cyan.core.data.model.OutboxEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A transfer travelling through the ledger engine: it is debited on the shard owning the sender
+ * account, credited on the shard owning the receiver account and finally handed to the journal.
+ */
+@Getter
+final class PendingTransfer {
+    private final long fromAccountId;
+    private final long toAccountId;
+    private final long fromAliasId;
+    private final long toAliasId;
+    private final long amount;
+    private final OutboxEvent event;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    /** Set when the credit could not be applied and the debit has to be given back. */
+    private volatile Throwable refundCause;
+
+    PendingTransfer(long fromAccountId, long toAccountId, long fromAliasId, long toAliasId, long amount,
+                    OutboxEvent event) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.fromAliasId = fromAliasId;
+        this.toAliasId = toAliasId;
+        this.amount = amount;
+        this.event = event;
+    }
+
+    boolean isRefund() {
+        return refundCause != null;
+    }
+
+    void markRefund(Throwable cause) {
+        this.refundCause = cause;
+    }
+}
@@ -0,0 +1,18 @@
+package org.cyan.core.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An account reconciled for the first time, in minor units. Its opening balance was not checked but
+ * recorded as what the booked balance and the transaction rows imply, so any drift the account
+ * already had is now part of its opening; these are the accounts to review after a rollout.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountBaseline {
+    private final long accountId;
+    private final long bookBalance;
+    private final long ledgerNet;
+    private final long impliedOpening;
+}
@@ -0,0 +1,19 @@
+package org.cyan.core.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One disagreement found by reconciliation, in minor units. For {@link DriftSource#LEDGER} the
+ * values are the recorded and the currently implied opening balance; for
+ * {@link DriftSource#PROJECTION} the booked and the projected balance ({@code null} if the
+ * projection has no such account).
+ */
+@Getter
+@AllArgsConstructor
+public class AccountDrift {
+    private final long accountId;
+    private final DriftSource source;
+    private final Long expected;
+    private final Long actual;
+}
@@ -0,0 +1,11 @@
+package org.cyan.core.reconciliation;
+
+import java.util.Collection;
+import java.util.Map;
+
+/** Read access to an external balance view, keyed by account id. */
+public interface BalanceProjection {
+
+    /** Balances of the requested accounts that the projection knows, in minor units. */
+    Map<Long, Long> balances(Collection<Long> accountIds);
+}
@@ -0,0 +1,58 @@
+package org.cyan.core.reconciliation;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.cyan.events.money.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the balance service's projection through {@code POST /api/balances/lookup}, one request per
+ * batch of accounts. Only created when {@code app.reconciliation.projection.url} is set.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reconciliation.projection", name = "url")
+public class BalanceProjectionClient implements BalanceProjection {
+
+    private final RestTemplate restTemplate;
+
+    public BalanceProjectionClient(RestTemplateBuilder restTemplateBuilder,
+                                   @Value("${app.reconciliation.projection.url}") String url,
+                                   @Value("${app.reconciliation.projection.timeout:PT30S}") Duration timeout) {
+        this.restTemplate = restTemplateBuilder
+                .rootUri(url)
+                .setConnectTimeout(timeout)
+                .setReadTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public Map<Long, Long> balances(Collection<Long> accountIds) {
+        ProjectedBalance[] projected = restTemplate.postForObject("/api/balances/lookup", accountIds, ProjectedBalance[].class);
+        Map<Long, Long> balances = new HashMap<>();
+        if (projected != null) {
+            for (ProjectedBalance balance : projected) {
+                balances.put(balance.getAccountId(), balance.getBalance());
+            }
+        }
+        return balances;
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class ProjectedBalance {
+        private Long accountId;
+
+        @JsonDeserialize(using = Money.Deserializer.class)
+        private Long balance;
+    }
+}
@@ -0,0 +1,8 @@
+package org.cyan.core.reconciliation;
+
+public enum DriftSource {
+    /** The booked balance moved by more than the account's transaction rows explain. */
+    LEDGER,
+    /** The balance service's projection disagrees with the booked balance. */
+    PROJECTION
+}
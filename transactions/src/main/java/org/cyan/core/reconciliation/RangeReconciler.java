@@ -0,0 +1,125 @@
+package org.cyan.core.reconciliation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.model.AccountTotals;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Reconciles one range of account ids: streams the account totals, checks each against its
+ * recorded opening balance and, when a projection is configured, against the projected balance.
+ * An account without a recorded opening is baselined, and logged with the opening it was given.
+ * Only an account whose opening was verified counts as reconciled; one checked against an implied
+ * opening, including one baselined just now, counts as unverified. A range that fails, on the
+ * database or the projection, is reported as failed rather than aborting the whole run.
+ * <p>
+ * At most {@code parallelism} ranges hold a database connection at a time, however many threads
+ * the fork-join pool adds to compensate for blocked workers.
+ */
+@Slf4j
+final class RangeReconciler {
+
+    @FunctionalInterface
+    interface RangeReader {
+        void read(long from, long to, Consumer<AccountTotals> consumer) throws SQLException;
+    }
+
+    private final RangeReader reader;
+    private final Consumer<Map<Long, Long>> baselineWriter;
+    private final BalanceProjection projection;
+    private final Semaphore connections;
+    private final int batchSize;
+    private final int maxDrifts;
+
+    RangeReconciler(RangeReader reader,
+                    Consumer<Map<Long, Long>> baselineWriter,
+                    BalanceProjection projection,
+                    int parallelism,
+                    int batchSize,
+                    int maxDrifts) {
+        this.reader = reader;
+        this.baselineWriter = baselineWriter;
+        this.projection = projection;
+        this.connections = new Semaphore(parallelism);
+        this.batchSize = batchSize;
+        this.maxDrifts = maxDrifts;
+    }
+
+    RangeResult reconcile(long from, long to) {
+        RangeResult result = new RangeResult(maxDrifts);
+        Map<Long, Long> baselines = new HashMap<>();
+        List<AccountTotals> projected = new ArrayList<>();
+        connections.acquireUninterruptibly();
+        try {
+            reader.read(from, to, totals -> {
+                result.accounts++;
+                checkLedger(totals, baselines, result);
+                if (projection != null) {
+                    projected.add(totals);
+                    if (projected.size() >= batchSize) {
+                        checkProjection(projected, result);
+                    }
+                }
+                if (baselines.size() >= batchSize) {
+                    saveBaselines(baselines, result);
+                }
+            });
+            if (!projected.isEmpty()) {
+                checkProjection(projected, result);
+            }
+            if (!baselines.isEmpty()) {
+                saveBaselines(baselines, result);
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            log.error("Reconciliation of accounts [{}, {}) failed", from, to, e);
+            return RangeResult.failed(maxDrifts);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private static void checkLedger(AccountTotals totals, Map<Long, Long> baselines, RangeResult result) {
+        long impliedOpening = totals.getBookBalance() - totals.getLedgerNet();
+        if (totals.getOpeningBalance() == null) {
+            baselines.put(totals.getAccountId(), impliedOpening);
+            result.baseline(new AccountBaseline(totals.getAccountId(), totals.getBookBalance(),
+                    totals.getLedgerNet(), impliedOpening));
+            result.unverified++;
+        } else if (impliedOpening != totals.getOpeningBalance()) {
+            result.drift(new AccountDrift(totals.getAccountId(), DriftSource.LEDGER,
+                    totals.getOpeningBalance(), impliedOpening));
+        } else if (totals.isOpeningVerified()) {
+            result.reconciled++;
+        } else {
+            result.unverified++;
+        }
+    }
+
+    private void checkProjection(List<AccountTotals> batch, RangeResult result) {
+        Map<Long, Long> projected = projection.balances(batch.stream().map(AccountTotals::getAccountId).toList());
+        for (AccountTotals totals : batch) {
+            Long balance = projected.get(totals.getAccountId());
+            if (balance == null || balance != totals.getBookBalance()) {
+                result.drift(new AccountDrift(totals.getAccountId(), DriftSource.PROJECTION,
+                        totals.getBookBalance(), balance));
+            }
+        }
+        batch.clear();
+    }
+
+    private void saveBaselines(Map<Long, Long> baselines, RangeResult result) {
+        baselineWriter.accept(baselines);
+        for (Map.Entry<Long, Long> baseline : baselines.entrySet()) {
+            log.info("Baselined account {} with implied opening balance {}", baseline.getKey(), baseline.getValue());
+        }
+        result.baselined += baselines.size();
+        baselines.clear();
+    }
+}
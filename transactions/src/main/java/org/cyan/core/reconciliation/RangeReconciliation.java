@@ -0,0 +1,31 @@
+package org.cyan.core.reconciliation;
+
+import java.util.concurrent.RecursiveTask;
+
+/** Splits {@code [from, to)} in halves until a range is at most {@code rangeSize} ids wide. */
+final class RangeReconciliation extends RecursiveTask<RangeResult> {
+
+    private final RangeReconciler reconciler;
+    private final long from;
+    private final long to;
+    private final long rangeSize;
+
+    RangeReconciliation(RangeReconciler reconciler, long from, long to, long rangeSize) {
+        this.reconciler = reconciler;
+        this.from = from;
+        this.to = to;
+        this.rangeSize = rangeSize;
+    }
+
+    @Override
+    protected RangeResult compute() {
+        if (to - from <= rangeSize) {
+            return reconciler.reconcile(from, to);
+        }
+        long middle = from + (to - from) / 2;
+        RangeReconciliation left = new RangeReconciliation(reconciler, from, middle, rangeSize);
+        RangeReconciliation right = new RangeReconciliation(reconciler, middle, to, rangeSize);
+        left.fork();
+        return right.compute().merge(left.join());
+    }
+}
@@ -0,0 +1,77 @@
+package org.cyan.core.reconciliation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Counts, sampled drifts and sampled baselines of one or more reconciled account ranges. */
+final class RangeResult {
+
+    private final int maxDrifts;
+    private final List<AccountDrift> drifts = new ArrayList<>();
+    private final List<AccountBaseline> baselines = new ArrayList<>();
+    long accounts;
+    long reconciled;
+    long unverified;
+    long baselined;
+    long ledgerDrifts;
+    long projectionDrifts;
+    int failedRanges;
+
+    RangeResult(int maxDrifts) {
+        this.maxDrifts = maxDrifts;
+    }
+
+    static RangeResult failed(int maxDrifts) {
+        RangeResult result = new RangeResult(maxDrifts);
+        result.failedRanges = 1;
+        return result;
+    }
+
+    void drift(AccountDrift drift) {
+        if (drift.getSource() == DriftSource.LEDGER) {
+            ledgerDrifts++;
+        } else {
+            projectionDrifts++;
+        }
+        if (drifts.size() < maxDrifts) {
+            drifts.add(drift);
+        }
+    }
+
+    void baseline(AccountBaseline baseline) {
+        if (baselines.size() < maxDrifts) {
+            baselines.add(baseline);
+        }
+    }
+
+    RangeResult merge(RangeResult other) {
+        accounts += other.accounts;
+        reconciled += other.reconciled;
+        unverified += other.unverified;
+        baselined += other.baselined;
+        ledgerDrifts += other.ledgerDrifts;
+        projectionDrifts += other.projectionDrifts;
+        failedRanges += other.failedRanges;
+        for (AccountDrift drift : other.drifts) {
+            if (drifts.size() >= maxDrifts) {
+                break;
+            }
+            drifts.add(drift);
+        }
+        for (AccountBaseline baseline : other.baselines) {
+            if (baselines.size() >= maxDrifts) {
+                break;
+            }
+            baselines.add(baseline);
+        }
+        return this;
+    }
+
+    List<AccountDrift> drifts() {
+        return drifts;
+    }
+
+    List<AccountBaseline> baselines() {
+        return baselines;
+    }
+}
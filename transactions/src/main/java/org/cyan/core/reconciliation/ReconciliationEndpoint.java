@@ -0,0 +1,40 @@
+package org.cyan.core.reconciliation;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/reconciliation}: {@code GET} returns the last report, {@code POST} runs a
+ * reconciliation now and returns its report (empty if one is already running).
+ * {@code POST /actuator/reconciliation/{accountId}} with {@code {"openingBalance": ...}} records an
+ * account's real opening balance, so later runs verify the account instead of trusting the opening
+ * they implied.
+ */
+@Component
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final ReconciliationJob reconciliationJob;
+
+    public ReconciliationEndpoint(ReconciliationJob reconciliationJob) {
+        this.reconciliationJob = reconciliationJob;
+    }
+
+    @ReadOperation
+    public ReconciliationReport lastReport() {
+        return reconciliationJob.getLastReport();
+    }
+
+    @WriteOperation
+    public ReconciliationReport run() {
+        return reconciliationJob.run();
+    }
+
+    @WriteOperation
+    public void recordOpening(@Selector long accountId, long openingBalance) {
+        reconciliationJob.recordOpening(accountId, openingBalance);
+    }
+}
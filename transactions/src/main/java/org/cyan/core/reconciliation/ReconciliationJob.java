@@ -0,0 +1,177 @@
+package org.cyan.core.reconciliation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.data.ReconciliationRepository;
+import org.cyan.core.data.ReconciliationRepository.LedgerSnapshot;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes every account's balance from its transaction rows and reports drift.
+ * <p>
+ * The account id space is split into ranges that a fork-join pool reconciles in parallel. Each
+ * range streams one aggregated row per account through a database cursor, all ranges reading the
+ * same exported MVCC snapshot, so the result is consistent without locking a single row. An
+ * account's balance must equal its opening balance plus the net of its transactions; opening
+ * balances live in the account service, so the first run records the implied opening of every
+ * account and later runs check against it. Drift an account already has at that point becomes part
+ * of its opening and is never reported as drift, so such an account is reported as unverified,
+ * never as reconciled, until its real opening is recorded through {@code POST
+ * /actuator/reconciliation/{accountId}}; every baselined account is logged with its implied opening
+ * and the first of them are listed in the report for review. When a projection is configured,
+ * booked balances are also compared with the balance service; drift there on busy accounts can be
+ * event lag.
+ * <p>
+ * A run needs up to {@code 2 * parallelism + 1} pooled connections. Only one instance runs at a
+ * time, guarded by a transaction-scoped advisory lock.
+ */
+@Slf4j
+@Component
+public class ReconciliationJob {
+
+    private static final long RECONCILIATION_LOCK_ID = 0x7265636F6EL;
+
+    private final ReconciliationRepository repository;
+    private final ObjectProvider<BalanceProjection> projection;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter ledgerDrifts;
+    private final Counter projectionDrifts;
+    private final Timer duration;
+    private final int parallelism;
+    private final long rangeSize;
+    private final int fetchSize;
+    private final int batchSize;
+    private final int maxReportedDrifts;
+    private volatile ReconciliationReport lastReport;
+
+    public ReconciliationJob(ReconciliationRepository repository,
+                             ObjectProvider<BalanceProjection> projection,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reconciliation.parallelism:4}") int parallelism,
+                             @Value("${app.reconciliation.range-size:100000}") long rangeSize,
+                             @Value("${app.reconciliation.fetch-size:5000}") int fetchSize,
+                             @Value("${app.reconciliation.batch-size:5000}") int batchSize,
+                             @Value("${app.reconciliation.max-reported-drifts:1000}") int maxReportedDrifts) {
+        this.repository = repository;
+        this.projection = projection;
+        this.ledgerDrifts = meterRegistry.counter("reconciliation.drifts", "source", "ledger");
+        this.projectionDrifts = meterRegistry.counter("reconciliation.drifts", "source", "projection");
+        this.duration = meterRegistry.timer("reconciliation.duration");
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+        this.maxReportedDrifts = maxReportedDrifts;
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:-}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Scheduled reconciliation failed", e);
+        }
+    }
+
+    /** Runs a reconciliation now; returns {@code null} if one is already running here or elsewhere. */
+    public ReconciliationReport run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return reconcile();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Reconciliation failed: " + e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    /** Records the real opening balance of an account, in minor units, in place of an implied one. */
+    public void recordOpening(long accountId, long openingBalance) {
+        repository.recordOpening(accountId, openingBalance);
+        log.info("Recorded verified opening balance {} for account {}", openingBalance, accountId);
+    }
+
+    private ReconciliationReport reconcile() throws SQLException {
+        Instant startedAt = Instant.now();
+        try (LedgerSnapshot snapshot = repository.openSnapshot(RECONCILIATION_LOCK_ID)) {
+            if (snapshot == null) {
+                log.info("Reconciliation is already running on another instance");
+                return null;
+            }
+            RangeResult result = new RangeResult(maxReportedDrifts);
+            long[] bounds = repository.accountIdBounds();
+            if (bounds != null) {
+                RangeReconciler reconciler = new RangeReconciler(
+                        (from, to, consumer) -> snapshot.readRange(from, to, fetchSize, consumer),
+                        repository::saveBaselines,
+                        projection.getIfAvailable(),
+                        parallelism,
+                        batchSize,
+                        maxReportedDrifts);
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    result = pool.invoke(new RangeReconciliation(reconciler, bounds[0], bounds[1] + 1, rangeSize));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            ReconciliationReport report = report(startedAt, result);
+            lastReport = report;
+            return report;
+        }
+    }
+
+    private ReconciliationReport report(Instant startedAt, RangeResult result) {
+        Duration elapsed = Duration.between(startedAt, Instant.now());
+        duration.record(elapsed);
+        ledgerDrifts.increment(result.ledgerDrifts);
+        projectionDrifts.increment(result.projectionDrifts);
+        List<AccountDrift> drifts = List.copyOf(result.drifts());
+        for (AccountDrift drift : drifts) {
+            log.warn("Balance drift on account {} ({}): expected {}, found {}",
+                    drift.getAccountId(), drift.getSource(), drift.getExpected(), drift.getActual());
+        }
+        if (result.baselined > 0) {
+            log.warn("Baselined {} accounts whose opening balance could not be checked; review them against the account service",
+                    result.baselined);
+        }
+        if (result.unverified > 0) {
+            log.warn("{} accounts were only checked against an implied opening and are unverified", result.unverified);
+        }
+        log.info("Checked {} accounts in {} ms: {} reconciled, {} unverified ({} baselined), {} ledger drifts, "
+                        + "{} projection drifts, {} failed ranges",
+                result.accounts, elapsed.toMillis(), result.reconciled, result.unverified, result.baselined,
+                result.ledgerDrifts, result.projectionDrifts, result.failedRanges);
+        return ReconciliationReport.builder()
+                .startedAt(startedAt)
+                .durationMs(elapsed.toMillis())
+                .accounts(result.accounts)
+                .reconciled(result.reconciled)
+                .unverified(result.unverified)
+                .baselined(result.baselined)
+                .ledgerDrifts(result.ledgerDrifts)
+                .projectionDrifts(result.projectionDrifts)
+                .failedRanges(result.failedRanges)
+                .drifts(drifts)
+                .baselines(List.copyOf(result.baselines()))
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package org.cyan.core.reconciliation;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Builder
+public class ReconciliationReport {
+    private final Instant startedAt;
+    private final long durationMs;
+    private final long accounts;
+    /** Accounts that match a verified opening balance plus the net of their transactions. */
+    private final long reconciled;
+    /**
+     * Accounts that match only an opening implied by reconciliation itself, including those
+     * baselined by this run: drift they had before their baseline would go unnoticed, so they are
+     * not counted as reconciled until their real opening is recorded.
+     */
+    private final long unverified;
+    /** Accounts seen for the first time, whose opening balance was recorded instead of checked. */
+    private final long baselined;
+    private final long ledgerDrifts;
+    private final long projectionDrifts;
+    /** Ranges that could not be read; their accounts are not part of any other count. */
+    private final int failedRanges;
+    /** The first drifts found, up to {@code app.reconciliation.max-reported-drifts}. */
+    private final List<AccountDrift> drifts;
+    /**
+     * The first accounts baselined by this run with the opening they were given, up to
+     * {@code app.reconciliation.max-reported-drifts}; every one is also logged and kept in
+     * {@code reconciliation_baseline}.
+     */
+    private final List<AccountBaseline> baselines;
+}
@@ -0,0 +1,208 @@
+package org.cyan.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.cache.AliasCache;
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.core.data.model.NamedAccountRef;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.core.data.model.TransferRecord;
+import org.cyan.core.ledger.LedgerEngine;
+import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.InvalidRequestException;
+import org.cyan.exceptions.LedgerUnavailableException;
+import org.cyan.in.model.BatchTransferResponse;
+import org.cyan.in.model.TransferRequest;
+import org.cyan.in.model.TransferResult;
+import org.cyan.in.model.TransferStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Executes large transfer batches. Requests are processed in chunks; each chunk resolves all of its
+ * aliases through the alias cache with at most one query, locks the touched accounts once, applies the transfers in request order
+ * in memory and writes the outcome, including the outbox events, with JDBC batches under a single commit.
+ */
+@Slf4j
+@Service
+public class BatchTransferService {
+
+    private final AliasCache aliasCache;
+    private final TransferBatchRepository transferBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxBatchSize;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    public BatchTransferService(AliasCache aliasCache,
+                                TransferBatchRepository transferBatchRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.transfer.batch.chunk-size:500}") int chunkSize,
+                                @Value("${app.transfer.batch.max-size:10000}") int maxBatchSize) {
+        this.aliasCache = aliasCache;
+        this.transferBatchRepository = transferBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public BatchTransferResponse transferBatch(List<TransferRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidRequestException("Batch must contain at least one transfer");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new InvalidRequestException("Batch exceeds the maximum of " + maxBatchSize + " transfers");
+        }
+
+        List<TransferResult> results = new ArrayList<>(requests.size());
+        for (int start = 0; start < requests.size(); start += chunkSize) {
+            List<TransferRequest> chunk = requests.subList(start, Math.min(start + chunkSize, requests.size()));
+            results.addAll(processChunk(chunk, start));
+        }
+
+        int completed = (int) results.stream().filter(r -> r.getStatus() == TransferStatus.COMPLETED).count();
+        return BatchTransferResponse.builder()
+                .completed(completed)
+                .failed(results.size() - completed)
+                .results(results)
+                .build();
+    }
+
+    private List<TransferResult> processChunk(List<TransferRequest> chunk, int offset) {
+        try {
+            Set<String> names = new HashSet<>();
+            for (TransferRequest request : chunk) {
+                names.add(request.getFromAlias());
+                names.add(request.getToAlias());
+            }
+            Map<String, NamedAccountRef> refs = aliasCache.resolveAll(names);
+
+            if (ledgerEngine != null) {
+                return submitToEngine(chunk, offset, refs);
+            }
+            return transactionTemplate.execute(status -> applyChunk(chunk, offset, refs));
+        } catch (RuntimeException e) {
+            log.error("Batch chunk starting at index {} failed", offset, e);
+            List<TransferResult> failed = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                failed.add(result(offset + i, TransferStatus.FAILED, "Chunk could not be committed"));
+            }
+            return failed;
+        }
+    }
+
+    private List<TransferResult> applyChunk(List<TransferRequest> chunk, int offset, Map<String, NamedAccountRef> refs) {
+        Set<Long> accountIds = new HashSet<>();
+        refs.values().forEach(ref -> accountIds.add(ref.getAccountId()));
+        Map<Long, Long> balances = accountIds.isEmpty()
+                ? new HashMap<>()
+                : transferBatchRepository.lockBalances(accountIds);
+
+        List<TransferResult> results = new ArrayList<>(chunk.size());
+        Map<Long, Long> deltas = new HashMap<>();
+        List<TransferRecord> records = new ArrayList<>();
+        List<OutboxEvent> events = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequest request = chunk.get(i);
+            NamedAccountRef from = refs.get(request.getFromAlias());
+            NamedAccountRef to = refs.get(request.getToAlias());
+            TransferResult rejected = validate(offset + i, request, from, to);
+            if (rejected != null) {
+                results.add(rejected);
+                continue;
+            }
+            long amount = request.getAmount();
+            long available = balances.get(from.getAccountId());
+            if (available < amount) {
+                results.add(result(offset + i, TransferStatus.INSUFFICIENT_FUNDS, "Insufficient funds"));
+                continue;
+            }
+
+            balances.put(from.getAccountId(), available - amount);
+            balances.merge(to.getAccountId(), amount, Long::sum);
+            deltas.merge(from.getAccountId(), -amount, Long::sum);
+            deltas.merge(to.getAccountId(), amount, Long::sum);
+            records.add(new TransferRecord(from.getAliasId(), to.getAliasId(), amount));
+            events.add(OutboxEvent.transfer(request.getFromAlias(), request.getToAlias(),
+                    from.getAccountId(), to.getAccountId(), amount));
+            results.add(result(offset + i, TransferStatus.COMPLETED, null));
+        }
+
+        if (!records.isEmpty()) {
+            transferBatchRepository.applyBalanceDeltas(deltas);
+            transferBatchRepository.insertTransactions(records);
+            transferBatchRepository.insertOutboxEvents(events);
+        }
+        return results;
+    }
+
+    private List<TransferResult> submitToEngine(List<TransferRequest> chunk, int offset, Map<String, NamedAccountRef> refs) {
+        List<TransferResult> results = new ArrayList<>(chunk.size());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequest request = chunk.get(i);
+            NamedAccountRef from = refs.get(request.getFromAlias());
+            NamedAccountRef to = refs.get(request.getToAlias());
+            TransferResult rejected = validate(offset + i, request, from, to);
+            CompletableFuture<Void> future = null;
+            if (rejected == null) {
+                try {
+                    future = ledgerEngine.submit(from.getAccountId(), to.getAccountId(),
+                            from.getAliasId(), to.getAliasId(), request.getAmount(),
+                            OutboxEvent.transfer(request.getFromAlias(), request.getToAlias(),
+                                    from.getAccountId(), to.getAccountId(), request.getAmount()));
+                } catch (LedgerUnavailableException e) {
+                    rejected = result(offset + i, TransferStatus.FAILED, e.getMessage());
+                }
+            }
+            results.add(rejected);
+            futures.add(future);
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (futures.get(i) == null) {
+                continue;
+            }
+            try {
+                futures.get(i).join();
+                results.set(i, result(offset + i, TransferStatus.COMPLETED, null));
+            } catch (CompletionException e) {
+                TransferStatus status = e.getCause() instanceof InsufficientFundsException
+                        ? TransferStatus.INSUFFICIENT_FUNDS
+                        : TransferStatus.FAILED;
+                results.set(i, result(offset + i, status, e.getCause().getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private TransferResult validate(int index, TransferRequest request, NamedAccountRef from, NamedAccountRef to) {
+        if (request.getAmount() <= 0) {
+            return result(index, TransferStatus.INVALID_REQUEST, "Amount must be greater than zero");
+        }
+        if (from == null) {
+            return result(index, TransferStatus.ALIAS_NOT_FOUND, "Alias '" + request.getFromAlias() + "' not found");
+        }
+        if (to == null) {
+            return result(index, TransferStatus.ALIAS_NOT_FOUND, "Recipient alias '" + request.getToAlias() + "' not found");
+        }
+        return null;
+    }
+
+    private static TransferResult result(int index, TransferStatus status, String message) {
+        return TransferResult.builder().index(index).status(status).message(message).build();
+    }
+}
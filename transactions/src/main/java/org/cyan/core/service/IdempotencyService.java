@@ -0,0 +1,120 @@
+package org.cyan.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.cyan.core.cache.BoundedTtlCache;
+import org.cyan.core.data.IdempotencyRecordRepository;
+import org.cyan.exceptions.IdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Deduplicates transfer submissions by {@code Idempotency-Key}. Completed keys are served from a
+ * bounded in-memory index; the Postgres unique key is the fallback that also covers other instances
+ * and restarts. Only committed transfers are remembered, so a failed attempt can be retried and a
+ * remembered key always replays as a success.
+ *
+ * <p>Each key is bound to the {@link #fingerprint fingerprint} of the transfer it was first used
+ * for; reusing it for a different transfer is rejected with {@link IdempotencyKeyReusedException}.
+ * Claim and purge timestamps both come from the same JVM clock.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final BoundedTtlCache<String, String> completedKeys;
+    private final Duration retention;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              @Value("${app.idempotency.cache.max-entries:100000}") int maxEntries,
+                              @Value("${app.idempotency.retention:PT24H}") Duration retention) {
+        this(idempotencyRecordRepository, maxEntries, retention, Clock.systemUTC());
+    }
+
+    IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, int maxEntries, Duration retention,
+                       Clock clock) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.completedKeys = new BoundedTtlCache<>(maxEntries, retention);
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /** Hex SHA-256 of the transfer a key is used for; amounts are in minor units. */
+    public static String fingerprint(String fromAlias, String toAlias, long amount) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((fromAlias + '\n' + toAlias + '\n' + amount).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Returns {@code true} when the key is known to have committed the same transfer, and throws
+     * when it committed a different one.
+     */
+    public boolean isCompleted(String key, String requestHash) {
+        String completed = completedKeys.get(key);
+        if (completed == null) {
+            return false;
+        }
+        requireSameRequest(key, completed, requestHash);
+        return true;
+    }
+
+    /**
+     * Claims the key inside the caller's transaction. Returns {@code false} when another request
+     * already committed it for the same transfer, in which case the caller must not move money
+     * again, and throws when it was committed for a different transfer.
+     */
+    public boolean claim(String key, String requestHash) {
+        if (idempotencyRecordRepository.claim(key, requestHash, LocalDateTime.now(clock)) == 0) {
+            // Keys claimed before fingerprints were stored have no hash and are taken as the same request.
+            String completed = idempotencyRecordRepository.findRequestHash(key).orElse(requestHash);
+            requireSameRequest(key, completed, requestHash);
+            completedKeys.put(key, completed);
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    completedKeys.put(key, requestHash);
+                }
+            });
+        }
+        return true;
+    }
+
+    private static void requireSameRequest(String key, String completed, String requestHash) {
+        if (!completed.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(
+                    "Idempotency-Key '" + key + "' was already used for a different transfer");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now(clock).minus(retention));
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+}
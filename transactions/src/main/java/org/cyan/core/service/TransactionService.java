@@ -1,47 +1,89 @@
 package org.cyan.core.service;
 
-import org.cyan.core.data.AliasRepository;
-import org.cyan.core.data.model.Alias;
+import org.cyan.core.cache.AliasCache;
+import org.cyan.core.concurrency.TransferConcurrencyControl;
+import org.cyan.core.data.OutboxRepository;
+import org.cyan.core.data.TransactionRepository;
+import org.cyan.core.data.model.AccountRef;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.core.ledger.LedgerEngine;
 import org.cyan.exceptions.AliasNotFoundException;
-import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.InvalidRequestException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class TransactionService {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    @Autowired
+    private AliasCache aliasCache;
+
+    @Autowired
+    private TransferConcurrencyControl concurrencyControl;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
     @Autowired
-    private AliasRepository aliasRepository;
+    private OutboxRepository outboxRepository;
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private IdempotencyService idempotencyService;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
 
+    /**
+     * Moves funds through {@link TransferConcurrencyControl}, which retries lost races and locks hot
+     * accounts, then records the transaction row. The transfer event goes to the outbox in the same transaction and is published by the relay.
+     * {@code amount} is in minor units, see {@link org.cyan.events.money.Money}.
+     */
     @Transactional
-    public void transferFunds(String fromAlias, String toAlias, double amount) {
-        //TODO should return the account for this alias
-        Alias fromUser = aliasRepository.findByName(fromAlias);
-        if (fromUser == null) {
+    public void transferFunds(String fromAlias, String toAlias, long amount) {
+        transferFunds(fromAlias, toAlias, amount, null);
+    }
+
+    /**
+     * Same as {@link #transferFunds(String, String, long)}, but a repeated {@code idempotencyKey}
+     * returns without touching the ledger once the first submission has committed. Reusing the key
+     * for a different transfer throws {@link org.cyan.exceptions.IdempotencyKeyReusedException}.
+     */
+    @Transactional
+    public void transferFunds(String fromAlias, String toAlias, long amount, String idempotencyKey) {
+        if (amount <= 0) {
+            throw new InvalidRequestException("Amount must be greater than zero");
+        }
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new InvalidRequestException("Idempotency-Key must be between 1 and "
+                        + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            String requestHash = IdempotencyService.fingerprint(fromAlias, toAlias, amount);
+            if (idempotencyService.isCompleted(idempotencyKey, requestHash)
+                    || !idempotencyService.claim(idempotencyKey, requestHash)) {
+                return;
+            }
+        }
+        AccountRef from = aliasCache.resolve(fromAlias);
+        if (from == null) {
             throw new AliasNotFoundException("Alias '" + fromAlias + "' not found");
         }
-        //TODO should return the account for this alias
-        Alias toUser = aliasRepository.findByName(toAlias);
-        if (toUser == null) {
+        AccountRef to = aliasCache.resolve(toAlias);
+        if (to == null) {
             throw new AliasNotFoundException("Recipient alias '" + toAlias + "' not found");
         }
 
-        if (fromUser.getAccount().getBalance() < amount) {
-            throw new InsufficientFundsException("Insufficient funds");
+        OutboxEvent event = OutboxEvent.transfer(fromAlias, toAlias, from.getAccountId(), to.getAccountId(), amount);
+        if (ledgerEngine != null) {
+            ledgerEngine.transfer(from.getAccountId(), to.getAccountId(), from.getAliasId(), to.getAliasId(), amount, event);
+            return;
         }
 
-        //TODO create a new transaction and remove the balance from the account table
-        fromUser.getAccount().setBalance(fromUser.getAccount().getBalance() - amount);
-        toUser.getAccount().setBalance(toUser.getAccount().getBalance() + amount);
-
-        aliasRepository.save(fromUser);
-        aliasRepository.save(toUser);
-
-        kafkaTemplate.send("transactions", "Transfer: " + fromAlias + " to " + toAlias + " amount: " + amount);
+        concurrencyControl.transfer(from.getAccountId(), to.getAccountId(), amount);
+        transactionRepository.record(from.getAliasId(), to.getAliasId(), amount);
+        outboxRepository.save(event);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package org.cyan.exceptions;
+
+public class LedgerUnavailableException extends RuntimeException {
+    public LedgerUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.cyan.exceptions;
+
+public class TransferConflictException extends RuntimeException {
+    public TransferConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
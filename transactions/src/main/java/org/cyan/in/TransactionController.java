@@ -1,11 +1,15 @@
 package org.cyan.in;
 
+import org.cyan.core.service.BatchTransferService;
 import org.cyan.core.service.TransactionService;
+import org.cyan.in.model.BatchTransferResponse;
 import org.cyan.in.model.TransferRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
@@ -13,9 +17,19 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private BatchTransferService batchTransferService;
+
     @PostMapping("/transfer")
-    public ResponseEntity<?> transferFunds(@RequestBody TransferRequest transferRequest) {
-        transactionService.transferFunds(transferRequest.getFromAlias(), transferRequest.getToAlias(), transferRequest.getAmount());
+    public ResponseEntity<?> transferFunds(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           @RequestBody TransferRequest transferRequest) {
+        transactionService.transferFunds(transferRequest.getFromAlias(), transferRequest.getToAlias(),
+                transferRequest.getAmount(), idempotencyKey);
         return ResponseEntity.ok("Transfer successful");
     }
+
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(@RequestBody List<TransferRequest> transferRequests) {
+        return ResponseEntity.ok(batchTransferService.transferBatch(transferRequests));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package org.cyan.in.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+    private int completed;
+    private int failed;
+    private List<TransferResult> results;
+}
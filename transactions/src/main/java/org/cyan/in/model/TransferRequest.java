@@ -1,11 +1,18 @@
 package org.cyan.in.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
+import org.cyan.events.money.Money;
 
 @Data
 public class TransferRequest {
     private String fromAlias;
     private String toAlias;
-    private double amount;
+
+    /** Minor units; sent and received as a decimal such as {@code 12.50}. */
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long amount;
 
 }
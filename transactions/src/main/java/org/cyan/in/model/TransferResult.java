@@ -1,4 +1,4 @@
-package org.cyan.core.event.model;
+package org.cyan.in.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,7 +9,8 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class AliasCreatedEvent {
-    private Long id;
-    private String alias;
-}
\ No newline at end of file
+public class TransferResult {
+    private int index;
+    private TransferStatus status;
+    private String message;
+}
@@ -0,0 +1,9 @@
+package org.cyan.in.model;
+
+public enum TransferStatus {
+    COMPLETED,
+    INVALID_REQUEST,
+    ALIAS_NOT_FOUND,
+    INSUFFICIENT_FUNDS,
+    FAILED
+}
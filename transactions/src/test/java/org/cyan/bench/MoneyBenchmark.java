@@ -0,0 +1,103 @@
+package org.cyan.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the same stream of guarded transfers (check balance, debit, credit) to balances held as
+ * boxed {@code Double}, {@code BigDecimal} and {@code long} minor units. Run with
+ * {@code -prof gc} to see the allocation difference as well as the time.
+ *
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main MoneyBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+    private static final int TRANSFERS = 4096;
+
+    private final int[] from = new int[TRANSFERS];
+    private final int[] to = new int[TRANSFERS];
+    private final long[] amountsMinor = new long[TRANSFERS];
+    private final Double[] amountsDouble = new Double[TRANSFERS];
+    private final BigDecimal[] amountsDecimal = new BigDecimal[TRANSFERS];
+
+    private Double[] balancesDouble;
+    private BigDecimal[] balancesDecimal;
+    private long[] balancesMinor;
+
+    @Setup(Level.Trial)
+    public void createTransfers() {
+        Random random = new Random(42);
+        for (int i = 0; i < TRANSFERS; i++) {
+            from[i] = random.nextInt(ACCOUNTS);
+            to[i] = random.nextInt(ACCOUNTS);
+            amountsMinor[i] = 1 + random.nextInt(10_000);
+            amountsDouble[i] = amountsMinor[i] / 100.0;
+            amountsDecimal[i] = BigDecimal.valueOf(amountsMinor[i], 2);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetBalances() {
+        balancesDouble = new Double[ACCOUNTS];
+        balancesDecimal = new BigDecimal[ACCOUNTS];
+        balancesMinor = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            balancesDouble[i] = 1_000.0;
+            balancesDecimal[i] = new BigDecimal("1000.00");
+            balancesMinor[i] = 100_000L;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void boxedDouble(Blackhole blackhole) {
+        for (int i = 0; i < TRANSFERS; i++) {
+            Double amount = amountsDouble[i];
+            if (balancesDouble[from[i]] >= amount) {
+                balancesDouble[from[i]] = balancesDouble[from[i]] - amount;
+                balancesDouble[to[i]] = balancesDouble[to[i]] + amount;
+            }
+        }
+        blackhole.consume(balancesDouble);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void bigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < TRANSFERS; i++) {
+            BigDecimal amount = amountsDecimal[i];
+            if (balancesDecimal[from[i]].compareTo(amount) >= 0) {
+                balancesDecimal[from[i]] = balancesDecimal[from[i]].subtract(amount);
+                balancesDecimal[to[i]] = balancesDecimal[to[i]].add(amount);
+            }
+        }
+        blackhole.consume(balancesDecimal);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSFERS)
+    public void longMinorUnits(Blackhole blackhole) {
+        for (int i = 0; i < TRANSFERS; i++) {
+            long amount = amountsMinor[i];
+            if (balancesMinor[from[i]] >= amount) {
+                balancesMinor[from[i]] -= amount;
+                balancesMinor[to[i]] += amount;
+            }
+        }
+        blackhole.consume(balancesMinor);
+    }
+}
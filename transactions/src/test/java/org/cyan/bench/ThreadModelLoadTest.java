@@ -0,0 +1,154 @@
+package org.cyan.bench;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.cyan.platform.VirtualThreads;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Concurrency at a fixed memory budget for the two thread models of the services. Every simulated
+ * request blocks for a fixed time, standing in for a JDBC round trip or a broker ack. The platform
+ * model gets a pool of as many threads as the budget holds stacks ({@code -Xss}); the virtual model
+ * gets one virtual thread per request, and the heap those requests hold while all of them are
+ * parked is measured against the same budget.
+ *
+ * <p>Tagged {@code load}, so the default build skips it. The virtual half needs Java 21; the build
+ * and the images ship Java 17, so point the forked test JVM at a JDK 21 to get the comparison:
+ *
+ * <pre>
+ * mvn -B -P load-test test -Dload-test.jvm=/path/to/jdk-21/bin/java \
+ *     -Dload.requests=10000 -Dload.latency-ms=20 -Dload.memory-budget-mb=64
+ * </pre>
+ */
+@Tag("load")
+class ThreadModelLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 10_000);
+    private static final long LATENCY_MS = Long.getLong("load.latency-ms", 20);
+    private static final long BUDGET_BYTES = Long.getLong("load.memory-budget-mb", 64) * 1024 * 1024;
+
+    private static long stackBytes;
+    private static int platformThreads;
+
+    @BeforeAll
+    static void budget() {
+        long threadStackSizeKb = Long.parseLong(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                .getVMOption("ThreadStackSize").getValue());
+        // 0 means the platform default, 1 MB on 64-bit Linux.
+        stackBytes = (threadStackSizeKb == 0 ? 1024 : threadStackSizeKb) * 1024;
+        platformThreads = (int) Math.min(REQUESTS, BUDGET_BYTES / stackBytes);
+        System.out.printf("%d requests blocking %d ms each, %d MB budget, %d KB per platform stack%n",
+                REQUESTS, LATENCY_MS, BUDGET_BYTES / (1024 * 1024), stackBytes / 1024);
+    }
+
+    @Test
+    void testPlatformPoolConcurrencyIsCappedByTheBudget() throws InterruptedException {
+        Run platform = run(Executors.newFixedThreadPool(platformThreads), REQUESTS, LATENCY_MS);
+        platform.print("platform(" + platformThreads + ")");
+
+        assertEquals(platformThreads, platform.peakInFlight);
+        // Requests queue behind the pool: at least ceil(requests / threads) rounds of latency.
+        long rounds = (REQUESTS + platformThreads - 1) / platformThreads;
+        assertTrue(platform.elapsedMillis >= rounds * LATENCY_MS,
+                "finished in " + platform.elapsedMillis + " ms, expected at least " + rounds * LATENCY_MS);
+    }
+
+    @Test
+    void testVirtualThreadsHoldEveryRequestInFlightWithinTheSameBudget() throws InterruptedException {
+        assumeTrue(VirtualThreads.isSupported(), "Java " + Runtime.version().feature()
+                + " has no virtual threads; run with -P load-test -Dload-test.jvm=<JDK 21 java>");
+        long parkedHeapBytes = heapHeldByParkedVirtualThreads(REQUESTS);
+        Run platform = run(Executors.newFixedThreadPool(platformThreads), REQUESTS, LATENCY_MS);
+        Run virtual = run(VirtualThreads.newThreadPerTaskExecutor("load-vt-"), REQUESTS, LATENCY_MS);
+
+        platform.print("platform(" + platformThreads + ")");
+        virtual.print("virtual");
+        System.out.printf("virtual: %d parked requests held %d KB of heap, %d bytes each%n",
+                REQUESTS, parkedHeapBytes / 1024, parkedHeapBytes / REQUESTS);
+
+        assertTrue(parkedHeapBytes <= BUDGET_BYTES,
+                parkedHeapBytes / (1024 * 1024) + " MB of heap for " + REQUESTS + " parked requests");
+        assertTrue(virtual.peakInFlight > platform.peakInFlight);
+        assertTrue(virtual.throughput() > platform.throughput());
+    }
+
+    /** Parks {@code requests} virtual threads at once and returns the heap they hold between them. */
+    private static long heapHeldByParkedVirtualThreads(int requests) throws InterruptedException {
+        long before = usedHeapAfterGc();
+        AtomicInteger parked = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("parked-vt-");
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                parked.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (parked.get() < requests && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(requests, parked.get());
+        long held = usedHeapAfterGc() - before;
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        return Math.max(0, held);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static Run run(ExecutorService executor, int requests, long latencyMillis) throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        return new Run(requests, peak.get(), elapsedMillis);
+    }
+
+    private record Run(int requests, int peakInFlight, long elapsedMillis) {
+
+        double throughput() {
+            return requests * 1000.0 / Math.max(1, elapsedMillis);
+        }
+
+        void print(String name) {
+            System.out.printf("%s: peak %d in flight, %.0f req/s%n", name, peakInFlight, throughput());
+        }
+    }
+}
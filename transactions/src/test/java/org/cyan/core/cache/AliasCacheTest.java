@@ -0,0 +1,108 @@
+package org.cyan.core.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cyan.core.data.AliasRepository;
+import org.cyan.core.data.model.AccountRef;
+import org.cyan.core.data.model.NamedAccountRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AliasCacheTest {
+
+    private AliasRepository aliasRepository;
+    private MeterRegistry meterRegistry;
+    private AliasCache aliasCache;
+
+    @BeforeEach
+    void setUp() {
+        aliasRepository = mock(AliasRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        aliasCache = new AliasCache(aliasRepository, meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    private NamedAccountRef createRef(String name, long aliasId, long accountId) {
+        return new NamedAccountRef() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getAliasId() {
+                return aliasId;
+            }
+
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+        };
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("alias.cache.requests", "result", result).count();
+    }
+
+    @Test
+    void testSecondResolveIsServedFromMemory() {
+        when(aliasRepository.findAccountRefByName("Alice")).thenReturn(createRef("Alice", 1L, 10L));
+
+        aliasCache.resolve("Alice");
+        AccountRef ref = aliasCache.resolve("Alice");
+
+        assertEquals(1L, ref.getAliasId());
+        assertEquals(10L, ref.getAccountId());
+        verify(aliasRepository, times(1)).findAccountRefByName("Alice");
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    @Test
+    void testUnknownAliasIsNotCached() {
+        when(aliasRepository.findAccountRefByName("Carol")).thenReturn(null)
+                .thenReturn(createRef("Carol", 3L, 30L));
+
+        assertNull(aliasCache.resolve("Carol"));
+        assertEquals(30L, aliasCache.resolve("Carol").getAccountId());
+    }
+
+    @Test
+    void testResolveAllQueriesOnlyMissingNames() {
+        when(aliasRepository.findAccountRefByName("Alice")).thenReturn(createRef("Alice", 1L, 10L));
+        when(aliasRepository.findAccountRefsByNameIn(anyCollection())).thenReturn(List.of(createRef("Bob", 2L, 20L)));
+        aliasCache.resolve("Alice");
+
+        Map<String, NamedAccountRef> refs = aliasCache.resolveAll(List.of("Alice", "Bob", "Unknown"));
+
+        assertEquals(10L, refs.get("Alice").getAccountId());
+        assertEquals(20L, refs.get("Bob").getAccountId());
+        assertFalse(refs.containsKey("Unknown"));
+        verify(aliasRepository).findAccountRefsByNameIn(List.of("Bob", "Unknown"));
+    }
+
+    @Test
+    void testWarmAllLoadsAliasesAheadOfFirstTransferWithOneQuery() {
+        when(aliasRepository.findAccountRefByName("Alice")).thenReturn(createRef("Alice", 1L, 10L));
+        when(aliasRepository.findAccountRefsByNameIn(anyCollection()))
+                .thenReturn(List.of(createRef("Dave", 4L, 40L), createRef("Erin", 5L, 50L)));
+        aliasCache.resolve("Alice");
+
+        aliasCache.warmAll(List.of("Alice", "Dave", "Erin"));
+        aliasCache.resolve("Dave");
+        aliasCache.resolve("Erin");
+
+        verify(aliasRepository).findAccountRefsByNameIn(List.of("Dave", "Erin"));
+        verify(aliasRepository, never()).findAccountRefByName("Dave");
+        assertEquals(2, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+}
@@ -0,0 +1,70 @@
+package org.cyan.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now.get());
+        }
+    };
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(5), clock);
+        cache.put("a", "1");
+
+        now.addAndGet(4_999);
+        assertEquals("1", cache.get("a"));
+
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testOldestEntryIsEvictedWhenFull() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1), clock);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void testPutRefreshesPosition() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1), clock);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("a", "1");
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+}
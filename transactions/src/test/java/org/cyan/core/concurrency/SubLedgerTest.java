@@ -0,0 +1,94 @@
+package org.cyan.core.concurrency;
+
+import org.cyan.core.data.AccountBucketRepository;
+import org.cyan.core.data.TransferBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubLedgerTest {
+
+    private AccountBucketRepository bucketRepository;
+    private TransferBatchRepository transferBatchRepository;
+    private ContentionTracker tracker;
+    private SubLedger subLedger;
+
+    @BeforeEach
+    void setUp() {
+        bucketRepository = mock(AccountBucketRepository.class);
+        transferBatchRepository = mock(TransferBatchRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        tracker = new ContentionTracker(0.3, 0.5, 60_000);
+        subLedger = new SubLedger(bucketRepository, transferBatchRepository, tracker, transactionManager,
+                true, 4, true, List.of(7L));
+    }
+
+    @Test
+    void testConfiguredAndPersistedAccountsAreSplitOnStartup() {
+        when(bucketRepository.findSplitAccountIds()).thenReturn(List.of(9L));
+
+        subLedger.init();
+
+        verify(bucketRepository).createBuckets(7L, 4);
+        assertTrue(subLedger.isSplit(7L));
+        assertTrue(subLedger.isSplit(9L));
+        assertFalse(subLedger.isSplit(1L));
+    }
+
+    @Test
+    void testHotAccountIsSplitOnFirstCredit() {
+        assertFalse(subLedger.routesCredits(5L));
+
+        tracker.recordConflict(5L);
+
+        assertTrue(subLedger.routesCredits(5L));
+        verify(bucketRepository).createBuckets(5L, 4);
+        assertTrue(subLedger.isSplit(5L));
+    }
+
+    @Test
+    void testMissingBucketFallsBackToAccountRow() {
+        when(bucketRepository.credit(eq(7L), anyInt(), eq(100L))).thenReturn(false);
+
+        subLedger.credit(7L, 100);
+
+        verify(transferBatchRepository).applyBalanceDeltas(Map.of(7L, 100L));
+    }
+
+    @Test
+    void testConsolidateLocksAccountBeforeSweeping() {
+        subLedger.init();
+
+        subLedger.consolidate();
+
+        InOrder inOrder = inOrder(transferBatchRepository, bucketRepository);
+        inOrder.verify(transferBatchRepository).lockBalances(List.of(7L));
+        inOrder.verify(bucketRepository).sweep(7L);
+    }
+
+    @Test
+    void testDisabledSubLedgerNeverTouchesBuckets() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        SubLedger disabled = new SubLedger(bucketRepository, transferBatchRepository, tracker, transactionManager,
+                false, 4, true, List.of(7L));
+        tracker.recordConflict(5L);
+
+        disabled.init();
+        disabled.refresh();
+        disabled.consolidate();
+
+        assertFalse(disabled.isSplit(7L));
+        assertFalse(disabled.routesCredits(5L));
+        verifyNoInteractions(bucketRepository, transferBatchRepository, transactionManager);
+    }
+}
@@ -0,0 +1,115 @@
+package org.cyan.core.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cyan.core.data.AccountBucketRepository;
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.exceptions.InsufficientFundsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the concurrency control inside a real {@link JpaTransactionManager} transaction, the way
+ * {@code TransactionService} calls it, against H2 in PostgreSQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfers;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "app.transfer.sub-ledger.auto-split=false",
+        "app.transfer.concurrency.backoff-base-ms=0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransferConcurrencyControl.class, TransferBatchRepository.class, AccountBucketRepository.class,
+        ContentionTracker.class, SubLedger.class,
+        TransferConcurrencyControlJpaTest.Metrics.class})
+class TransferConcurrencyControlJpaTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TransferConcurrencyControl control;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private TransferBatchRepository repository;
+
+    private long first;
+    private long second;
+
+    @BeforeEach
+    void setUp() {
+        first = account("first", 1_000);
+        second = account("second", 50);
+    }
+
+    @Test
+    void testTransferRunsInJpaTransaction() {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+
+        control.transfer(first, second, 300);
+
+        assertEquals(700, balance(first));
+        assertEquals(350, balance(second));
+    }
+
+    @Test
+    void testRejectedTransferRollsBackItsCredit() {
+        // Rows are touched in id order, so the credit to the first account goes out before the
+        // second account's debit is refused.
+        assertThrows(InsufficientFundsException.class, () -> control.transfer(second, first, 100));
+
+        assertEquals(1_000, balance(first));
+        assertEquals(50, balance(second));
+    }
+
+    @Test
+    void testConflictedAttemptIsRolledBackBeforeRetry() {
+        doThrow(new CannotAcquireLockException("lock timeout"))
+                .doCallRealMethod()
+                .when(repository).applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong());
+
+        control.transfer(second, first, 30);
+
+        assertEquals(1_030, balance(first));
+        assertEquals(20, balance(second));
+        verify(repository, times(2)).inSavepoint(any());
+        verify(repository, times(2)).applyBalanceDelta(first, 30);
+    }
+
+    private long account(String name, long balance) {
+        jdbcTemplate.update("INSERT INTO alias (name) VALUES (?)", name);
+        Long aliasId = jdbcTemplate.queryForObject("SELECT id FROM alias WHERE name = ?", Long.class, name);
+        jdbcTemplate.update("INSERT INTO account (alias_id, balance, version) VALUES (?, ?, 0)", aliasId, balance);
+        return jdbcTemplate.queryForObject("SELECT id FROM account WHERE alias_id = ?", Long.class, aliasId);
+    }
+
+    private long balance(long accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account WHERE id = ?", Long.class, accountId);
+    }
+}
@@ -0,0 +1,158 @@
+package org.cyan.core.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.TransferConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransferConcurrencyControlTest {
+
+    private TransferBatchRepository repository;
+    private ContentionTracker tracker;
+    private SubLedger subLedger;
+    private SimpleMeterRegistry meterRegistry;
+    private TransferConcurrencyControl control;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TransferBatchRepository.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(repository).inSavepoint(any());
+        tracker = new ContentionTracker(0.3, 0.2, 60_000);
+        subLedger = mock(SubLedger.class);
+        meterRegistry = new SimpleMeterRegistry();
+        control = new TransferConcurrencyControl(repository, tracker, subLedger, meterRegistry, 3, 0, 0);
+    }
+
+    @Test
+    void testGuardedTransferUpdatesInIdOrderWithoutReading() {
+        when(repository.applyBalanceDelta(anyLong(), anyLong())).thenReturn(true);
+        when(repository.applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong())).thenReturn(true);
+
+        control.transfer(2L, 1L, 100);
+
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).applyBalanceDelta(1L, 100);
+        inOrder.verify(repository).applyBalanceDeltaIfAtLeast(2L, -100, 100);
+        verify(repository, never()).lockBalances(anyCollection());
+        verify(repository, times(1)).inSavepoint(any());
+    }
+
+    @Test
+    void testInsufficientFundsIsNotRetried() {
+        when(repository.applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong())).thenReturn(false);
+        when(repository.lockBalances(List.of(1L))).thenReturn(Map.of(1L, 50L));
+
+        assertThrows(InsufficientFundsException.class, () -> control.transfer(1L, 2L, 100));
+
+        verify(repository, times(1)).inSavepoint(any());
+        verify(repository, never()).applyBalanceDelta(anyLong(), anyLong());
+        verify(repository, never()).applyBalanceDeltas(anyMap());
+    }
+
+    @Test
+    void testDebitCoveredByAConcurrentCreditIsAppliedUnderTheLock() {
+        when(repository.applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong())).thenReturn(false);
+        when(repository.lockBalances(List.of(1L))).thenReturn(Map.of(1L, 150L));
+        when(repository.applyBalanceDelta(anyLong(), anyLong())).thenReturn(true);
+
+        control.transfer(1L, 2L, 100);
+
+        verify(repository).applyBalanceDeltas(Map.of(1L, -100L));
+        verify(repository).applyBalanceDelta(2L, 100);
+    }
+
+    @Test
+    void testLockConflictIsRetried() {
+        when(repository.applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(true);
+        when(repository.applyBalanceDelta(anyLong(), anyLong())).thenReturn(true);
+
+        control.transfer(1L, 2L, 100);
+
+        verify(repository, times(2)).inSavepoint(any());
+        verify(repository, times(1)).applyBalanceDelta(2L, 100);
+        assertEquals(1.0, meterRegistry.counter("transfer.concurrency.retries").count());
+        assertEquals(1.0, meterRegistry.counter("transfer.concurrency.conflicts", "mode", "optimistic").count());
+    }
+
+    @Test
+    void testLastAttemptFallsBackToLocking() {
+        when(repository.applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        when(repository.lockBalances(anyCollection())).thenReturn(Map.of(1L, 500L, 2L, 0L));
+
+        control.transfer(1L, 2L, 100);
+
+        verify(repository, times(2)).applyBalanceDeltaIfAtLeast(1L, -100, 100);
+        verify(repository).applyBalanceDeltas(Map.of(1L, -100L, 2L, 100L));
+        assertEquals(1.0, meterRegistry.counter("transfer.concurrency.pessimistic.attempts").count());
+    }
+
+    @Test
+    void testHotAccountIsLockedUpFront() {
+        tracker.recordConflict(2L);
+        tracker.recordConflict(2L);
+        assertTrue(tracker.isHot(2L));
+        when(repository.lockBalances(anyCollection())).thenReturn(Map.of(1L, 500L, 2L, 0L));
+
+        control.transfer(1L, 2L, 100);
+
+        verify(repository, never()).applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong());
+        verify(repository).applyBalanceDeltas(Map.of(1L, -100L, 2L, 100L));
+    }
+
+    @Test
+    void testGivesUpWhenLockingKeepsFailing() {
+        tracker.recordConflict(1L);
+        tracker.recordConflict(1L);
+        when(repository.lockBalances(anyCollection())).thenThrow(new CannotAcquireLockException("deadlock"));
+
+        assertThrows(TransferConflictException.class, () -> control.transfer(1L, 2L, 100));
+
+        verify(repository, times(3)).lockBalances(anyCollection());
+        assertEquals(1.0, meterRegistry.counter("transfer.concurrency.exhausted").count());
+        assertEquals(3, tracker.top(10).stream().filter(s -> s.getAccountId() == 2L).findFirst().orElseThrow().getConflicts());
+    }
+
+    @Test
+    void testCreditToSplitAccountGoesToBucket() {
+        when(subLedger.routesCredits(2L)).thenReturn(true);
+        when(repository.applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong())).thenReturn(true);
+
+        control.transfer(1L, 2L, 100);
+
+        verify(repository).applyBalanceDeltaIfAtLeast(1L, -100, 100);
+        verify(repository, never()).applyBalanceDelta(eq(2L), anyLong());
+        verify(subLedger).credit(2L, 100);
+    }
+
+    @Test
+    void testDebitFromSplitAccountSweepsBucketsWhenShort() {
+        when(subLedger.isSplit(1L)).thenReturn(true);
+        when(repository.lockBalances(anyCollection())).thenReturn(Map.of(1L, 40L, 2L, 0L));
+        when(subLedger.sweep(1L)).thenReturn(80L);
+
+        control.transfer(1L, 2L, 100);
+
+        InOrder inOrder = inOrder(repository, subLedger);
+        inOrder.verify(repository).lockBalances(anyCollection());
+        inOrder.verify(subLedger).sweep(1L);
+        inOrder.verify(repository).applyBalanceDeltas(Map.of(1L, -100L, 2L, 100L));
+        verify(repository, never()).applyBalanceDeltaIfAtLeast(anyLong(), anyLong(), anyLong());
+    }
+}
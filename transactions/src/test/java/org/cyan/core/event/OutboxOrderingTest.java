@@ -0,0 +1,206 @@
+package org.cyan.core.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.cyan.core.cache.AliasCache;
+import org.cyan.core.concurrency.ContentionTracker;
+import org.cyan.core.concurrency.SubLedger;
+import org.cyan.core.concurrency.TransferConcurrencyControl;
+import org.cyan.core.data.AccountBucketRepository;
+import org.cyan.core.data.OutboxRepository;
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.core.data.model.AccountRef;
+import org.cyan.core.service.IdempotencyService;
+import org.cyan.core.service.TransactionService;
+import org.cyan.events.EventCodecs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Interleaves real transfer transactions with relay passes on H2 in PostgreSQL mode, to pin down
+ * the order {@link OutboxRelay} publishes in: per sender, never across senders.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "app.transfer.sub-ledger.auto-split=false",
+        "app.transfer.concurrency.backoff-base-ms=0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TransactionService.class, TransferConcurrencyControl.class, TransferBatchRepository.class,
+        AccountBucketRepository.class, ContentionTracker.class, SubLedger.class, OutboxOrderingTest.Config.class})
+class OutboxOrderingTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private AliasCache aliasCache;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private OutboxRelay relay;
+    private final List<ProducerRecord<String, byte[]>> sent = new ArrayList<>();
+    private final ExecutorService other = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // H2 has no advisory locks; the relay runs on one thread here anyway.
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_try_advisory_xact_lock AS "
+                + "'boolean tryLock(long lockId) { return true; }'");
+        account("sender", 1_000);
+        account("other", 1_000);
+        account("receiver", 0);
+        account("other-receiver", 0);
+
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate, 100, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        other.shutdownNow();
+        jdbcTemplate.execute("DELETE FROM outbox_event");
+        jdbcTemplate.execute("DELETE FROM transaction");
+        jdbcTemplate.execute("DELETE FROM account");
+        jdbcTemplate.execute("DELETE FROM alias");
+    }
+
+    @Test
+    void testSecondTransferOfASenderWaitsForTheFirstAndIsRelayedAfterIt() throws Exception {
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        Future<?> first = other.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            transactionService.transferFunds("sender", "receiver", 100);
+            firstWritten.countDown();
+            await(commitFirst);
+        }));
+        assertTrue(firstWritten.await(5, TimeUnit.SECONDS));
+
+        // Blocks on the sender's row until the first transfer commits.
+        CompletableFuture<Void> second = CompletableFuture.runAsync(
+                () -> transactionService.transferFunds("sender", "receiver", 200));
+        Thread.sleep(200);
+        assertFalse(second.isDone());
+        assertEquals(0, (int) transactionTemplate.execute(status -> relay.relayBatch()));
+
+        commitFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        relay.relay();
+
+        assertEquals(List.of(100L, 200L), sent.stream().map(OutboxOrderingTest::amount).toList());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void testLowerIdCommittedLateIsRelayedOnTheNextPass() throws Exception {
+        CountDownLatch otherWritten = new CountDownLatch(1);
+        CountDownLatch commitOther = new CountDownLatch(1);
+        Future<?> slow = other.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            transactionService.transferFunds("other", "other-receiver", 50);
+            otherWritten.countDown();
+            await(commitOther);
+        }));
+        assertTrue(otherWritten.await(5, TimeUnit.SECONDS));
+
+        transactionService.transferFunds("sender", "receiver", 100);
+        relay.relay();
+        commitOther.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        relay.relay();
+
+        // Different keys: the lower outbox id goes out second, but it does go out.
+        assertEquals(List.of("sender", "other"), sent.stream().map(ProducerRecord::key).toList());
+        assertTrue(outboxId(sent.get(1)) < outboxId(sent.get(0)));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    private void account(String name, long balance) {
+        jdbcTemplate.update("INSERT INTO alias (name) VALUES (?)", name);
+        Long aliasId = jdbcTemplate.queryForObject("SELECT id FROM alias WHERE name = ?", Long.class, name);
+        jdbcTemplate.update("INSERT INTO account (alias_id, balance, version) VALUES (?, ?, 0)", aliasId, balance);
+        Long accountId = jdbcTemplate.queryForObject("SELECT id FROM account WHERE alias_id = ?", Long.class, aliasId);
+        when(aliasCache.resolve(name)).thenReturn(new AccountRef() {
+            @Override
+            public Long getAliasId() {
+                return aliasId;
+            }
+
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+        });
+    }
+
+    private static long amount(ProducerRecord<String, byte[]> record) {
+        return EventCodecs.TRANSFER.decode(record.value()).getAmount();
+    }
+
+    private static long outboxId(ProducerRecord<String, byte[]> record) {
+        return ByteBuffer.wrap(record.headers().lastHeader(OutboxRelay.OUTBOX_ID_HEADER).value()).getLong();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
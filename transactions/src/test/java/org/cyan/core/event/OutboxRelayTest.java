@@ -0,0 +1,90 @@
+package org.cyan.core.event;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.cyan.core.data.OutboxRepository;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.events.EventCodec;
+import org.cyan.events.EventCodecs;
+import org.cyan.events.model.TransferEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxRepository outboxRepository;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, mock(TransactionTemplate.class), 10, 1000);
+    }
+
+    private OutboxEvent event(long id, String from, String to) {
+        OutboxEvent event = OutboxEvent.transfer(from, to, 10L, 20L, 500L);
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRelayBatchSendsInOrderAndDeletesAfterAcks() {
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findOldest(10)).thenReturn(List.of(event(1L, "Alice", "Bob"), event(2L, "Bob", "Alice")));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(2, relay.relayBatch());
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        InOrder inOrder = inOrder(kafkaTemplate, outboxRepository);
+        inOrder.verify(kafkaTemplate, times(2)).send(records.capture());
+        inOrder.verify(kafkaTemplate).flush();
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+
+        ProducerRecord<String, byte[]> first = records.getAllValues().get(0);
+        assertEquals("transactions", first.topic());
+        assertEquals("Alice", first.key());
+        assertTrue(EventCodec.isBinary(first.value()));
+        assertEquals(new TransferEvent("Alice", "Bob", 10L, 20L, 500L), EventCodecs.TRANSFER.decode(first.value()));
+        assertEquals(1L, ByteBuffer.wrap(first.headers().lastHeader(OutboxRelay.OUTBOX_ID_HEADER).value()).getLong());
+        assertEquals("Bob", records.getAllValues().get(1).key());
+    }
+
+    @Test
+    void testRelayBatchSkipsWhenAnotherInstanceHoldsTheLock() {
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(false);
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(outboxRepository, never()).findOldest(anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRelayBatchKeepsEventsWhenBrokerRejects() {
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findOldest(10)).thenReturn(List.of(event(1L, "Alice", "Bob")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+}
@@ -0,0 +1,182 @@
+package org.cyan.core.ledger;
+
+import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.LedgerUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LedgerEngineTest {
+
+    private LedgerStore store;
+    private LedgerEngine engine;
+    private final List<PendingTransfer> journaled = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        store = mock(LedgerStore.class);
+        when(store.loadBalance(1L)).thenReturn(10000L);
+        when(store.loadBalance(2L)).thenReturn(5000L);
+        when(store.loadBalance(3L)).thenReturn(0L);
+        doAnswer(invocation -> journaled.addAll(invocation.getArgument(0))).when(store).writeBatch(anyList());
+
+        engine = new LedgerEngine(store, 2, 16, 1000, 100, 1, 200, false);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    void testTransferAcrossShards() throws InterruptedException {
+        engine.transfer(1L, 2L, 11L, 12L, 3000L, null);
+        engine.transfer(2L, 1L, 12L, 11L, 8000L, null);
+        engine.stop();
+
+        assertEquals(2, journaled.size());
+        assertEquals(3000L, journaled.get(0).getAmount());
+        assertEquals(8000L, journaled.get(1).getAmount());
+        verify(store, times(1)).loadBalance(1L);
+        verify(store, times(1)).loadBalance(2L);
+    }
+
+    @Test
+    void testTransferInsufficientFunds() {
+        assertThrows(InsufficientFundsException.class, () -> engine.transfer(3L, 1L, 13L, 11L, 1000L, null));
+    }
+
+    @Test
+    void testBalancesAreKeptInMemory() {
+        engine.transfer(1L, 3L, 11L, 13L, 10000L, null);
+
+        assertThrows(InsufficientFundsException.class, () -> engine.transfer(1L, 3L, 11L, 13L, 1L, null));
+        engine.transfer(3L, 2L, 13L, 12L, 10000L, null);
+    }
+
+    @Test
+    void testUnknownReceiverRefundsSender() {
+        when(store.loadBalance(4L)).thenReturn(null);
+
+        CompletableFuture<Void> result = engine.submit(1L, 4L, 11L, 14L, 10000L, null);
+
+        assertThrows(Exception.class, result::join);
+        engine.transfer(1L, 2L, 11L, 12L, 10000L, null);
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoney() throws InterruptedException {
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(engine.submit(1L, 2L, 11L, 12L, 100L, null));
+            results.add(engine.submit(2L, 1L, 12L, 11L, 100L, null));
+        }
+        results.forEach(CompletableFuture::join);
+        engine.stop();
+
+        long net1 = 0;
+        for (PendingTransfer transfer : journaled) {
+            if (transfer.getFromAccountId() == 1L) {
+                net1 -= transfer.getAmount();
+            } else {
+                net1 += transfer.getAmount();
+            }
+        }
+        assertEquals(400, journaled.size());
+        assertEquals(0L, net1);
+    }
+
+    @Test
+    void testStopGivesUpOnJournalWhenStoreIsDown() {
+        doThrow(new IllegalStateException("database down")).when(store).writeBatch(anyList());
+
+        engine.transfer(1L, 2L, 11L, 12L, 3000L, null);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> engine.stop());
+        verify(store, atLeastOnce()).writeBatch(anyList());
+    }
+
+    @Test
+    void testSubmitAfterStopIsRejected() throws InterruptedException {
+        engine.stop();
+
+        assertThrows(RuntimeException.class, () -> engine.submit(1L, 2L, 11L, 12L, 100L, null));
+        verify(store, never()).writeBatch(anyList());
+    }
+
+    @Test
+    void testRefusesToStartAlongsideTheSubLedger() {
+        assertThrows(IllegalStateException.class, () -> new LedgerEngine(store, 2, 16, 1000, 100, 1, 200, true));
+    }
+
+    @Test
+    void testShardKeepsWorkingAfterAnInterruptedJournalAppend() throws InterruptedException {
+        CountDownLatch storeDown = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            storeDown.await();
+            return journaled.addAll(invocation.getArgument(0));
+        }).when(store).writeBatch(anyList());
+        // Account 2 lives on shard 0; once the journal ring is full its credits block in append().
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            results.add(engine.submit(1L, 2L, 11L, 12L, 1L, null));
+        }
+        Thread shard = shardThread("ledger-shard-0");
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (!blockedInAppend(shard)) {
+                Thread.sleep(1);
+            }
+        });
+
+        shard.interrupt();
+        storeDown.countDown();
+
+        long failed = results.stream().filter(result -> {
+            try {
+                result.join();
+                return false;
+            } catch (CompletionException e) {
+                assertInstanceOf(LedgerUnavailableException.class, e.getCause());
+                return true;
+            }
+        }).count();
+        assertEquals(1, failed);
+        engine.transfer(1L, 2L, 11L, 12L, 1L, null);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (shard.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        });
+        engine.stop();
+        assertEquals(40, journaled.size());
+    }
+
+    private static Thread shardThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean blockedInAppend(Thread thread) {
+        for (StackTraceElement frame : thread.getStackTrace()) {
+            if (frame.getClassName().equals(LedgerJournal.class.getName()) && frame.getMethodName().equals("append")) {
+                return thread.getState() == Thread.State.WAITING;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,143 @@
+package org.cyan.core.reconciliation;
+
+import org.cyan.core.data.model.AccountTotals;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeReconciliationTest {
+
+    /** Accounts 1..n: book = 1000 + net, net = id; every third account has a verified opening. */
+    private static AccountTotals totals(long id) {
+        Long opening = id % 3 == 0 ? 1_000L : null;
+        return new AccountTotals(id, 1_000 + id, id, opening, opening != null);
+    }
+
+    private static RangeReconciler.RangeReader accounts(long count, Map<Long, AccountTotals> overrides,
+                                                        AtomicInteger maxConcurrent) {
+        AtomicInteger concurrent = new AtomicInteger();
+        return (from, to, consumer) -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                for (long id = Math.max(from, 1); id < Math.min(to, count + 1); id++) {
+                    consumer.accept(overrides.getOrDefault(id, totals(id)));
+                }
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        };
+    }
+
+    private static RangeResult run(RangeReconciler reconciler, long count, long rangeSize) {
+        return new ForkJoinPool(4).invoke(new RangeReconciliation(reconciler, 1, count + 1, rangeSize));
+    }
+
+    @Test
+    void testEveryAccountIsVisitedAndNewOnesAreBaselined() {
+        Map<Long, Long> baselines = new ConcurrentHashMap<>();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        RangeReconciler reconciler = new RangeReconciler(accounts(10_000, Map.of(), maxConcurrent),
+                baselines::putAll, null, 2, 100, 10);
+
+        RangeResult result = run(reconciler, 10_000, 250);
+
+        assertEquals(10_000, result.accounts);
+        assertEquals(3_333, result.reconciled);
+        assertEquals(6_667, result.unverified);
+        assertEquals(6_667, result.baselined);
+        assertEquals(6_667, baselines.size());
+        assertEquals(1_000L, baselines.get(1L));
+        assertEquals(10, result.baselines().size());
+        AccountBaseline baseline = result.baselines().get(0);
+        assertEquals(1_000L + baseline.getAccountId(), baseline.getBookBalance());
+        assertEquals(baseline.getAccountId(), baseline.getLedgerNet());
+        assertEquals(1_000L, baseline.getImpliedOpening());
+        assertEquals(0, result.ledgerDrifts);
+        assertTrue(maxConcurrent.get() <= 2);
+    }
+
+    @Test
+    void testLedgerDriftIsReportedAgainstTheRecordedOpening() {
+        // Account 3 gained 50 that no transaction row explains.
+        RangeReconciler reconciler = new RangeReconciler(
+                accounts(100, Map.of(3L, new AccountTotals(3, 1_053, 3, 1_000L, true)), new AtomicInteger()),
+                baselines -> { }, null, 4, 100, 10);
+
+        RangeResult result = run(reconciler, 100, 10);
+
+        assertEquals(1, result.ledgerDrifts);
+        AccountDrift drift = result.drifts().get(0);
+        assertEquals(3L, drift.getAccountId());
+        assertEquals(DriftSource.LEDGER, drift.getSource());
+        assertEquals(1_000L, drift.getExpected());
+        assertEquals(1_050L, drift.getActual());
+        assertEquals(32, result.reconciled);
+    }
+
+    @Test
+    void testImpliedOpeningKeepsTheAccountUnverifiedOnLaterRuns() {
+        // Account 4 matches the opening an earlier run implied; account 6 matches a verified one.
+        RangeReconciler reconciler = new RangeReconciler(accounts(6, Map.of(
+                4L, new AccountTotals(4, 1_004, 4, 1_000L, false),
+                6L, new AccountTotals(6, 1_006, 6, 1_000L, true)), new AtomicInteger()),
+                baselines -> { }, null, 1, 100, 10);
+
+        RangeResult result = run(reconciler, 6, 10);
+
+        assertEquals(6, result.accounts);
+        assertEquals(2, result.reconciled);
+        assertEquals(4, result.unverified);
+        assertEquals(3, result.baselined);
+        assertEquals(0, result.ledgerDrifts);
+    }
+
+    @Test
+    void testProjectionIsComparedInBatches() {
+        AtomicInteger calls = new AtomicInteger();
+        BalanceProjection projection = (Collection<Long> ids) -> {
+            calls.incrementAndGet();
+            Map<Long, Long> balances = new HashMap<>();
+            for (Long id : ids) {
+                if (id != 7L) {
+                    balances.put(id, id == 8L ? 0L : 1_000 + id);
+                }
+            }
+            return balances;
+        };
+        RangeReconciler reconciler = new RangeReconciler(accounts(100, Map.of(), new AtomicInteger()),
+                baselines -> { }, projection, 1, 25, 10);
+
+        RangeResult result = run(reconciler, 100, 1_000);
+
+        assertEquals(4, calls.get());
+        assertEquals(2, result.projectionDrifts);
+        List<AccountDrift> drifts = result.drifts();
+        assertNull(drifts.get(0).getActual());
+        assertEquals(0L, drifts.get(1).getActual());
+    }
+
+    @Test
+    void testFailedRangeIsCountedWithoutAbortingTheRun() {
+        RangeReconciler.RangeReader healthy = accounts(1_000, Map.of(), new AtomicInteger());
+        RangeReconciler reconciler = new RangeReconciler((from, to, consumer) -> {
+            if (from <= 500 && 500 < to) {
+                throw new SQLException("connection reset");
+            }
+            healthy.read(from, to, consumer);
+        }, baselines -> { }, null, 4, 100, 10);
+
+        RangeResult result = run(reconciler, 1_000, 100);
+
+        assertEquals(1, result.failedRanges);
+        assertTrue(result.accounts >= 900 && result.accounts < 1_000);
+    }
+}
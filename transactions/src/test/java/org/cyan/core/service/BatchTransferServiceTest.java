@@ -0,0 +1,161 @@
+package org.cyan.core.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.cyan.core.cache.AliasCache;
+import org.cyan.core.data.AliasRepository;
+import org.cyan.core.data.TransferBatchRepository;
+import org.cyan.core.data.model.NamedAccountRef;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.core.data.model.TransferRecord;
+import org.cyan.exceptions.InvalidRequestException;
+import org.cyan.in.model.BatchTransferResponse;
+import org.cyan.in.model.TransferRequest;
+import org.cyan.in.model.TransferStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchTransferServiceTest {
+
+    private AliasRepository aliasRepository;
+    private TransferBatchRepository transferBatchRepository;
+    private BatchTransferService batchTransferService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        aliasRepository = mock(AliasRepository.class);
+        transferBatchRepository = mock(TransferBatchRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        batchTransferService = new BatchTransferService(
+                new AliasCache(aliasRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                transferBatchRepository, transactionTemplate, 2, 10);
+
+        when(aliasRepository.findAccountRefsByNameIn(anyCollection())).thenReturn(List.of(
+                createRef("Alice", 1L, 10L), createRef("Bob", 2L, 20L)));
+        when(transferBatchRepository.lockBalances(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Long> balances = new HashMap<>();
+            balances.put(10L, 10000L);
+            balances.put(20L, 0L);
+            return balances;
+        });
+    }
+
+    private NamedAccountRef createRef(String name, long aliasId, long accountId) {
+        return new NamedAccountRef() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getAliasId() {
+                return aliasId;
+            }
+
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+        };
+    }
+
+    private TransferRequest request(String from, String to, long amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAlias(from);
+        request.setToAlias(to);
+        request.setAmount(amount);
+        return request;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferBatchAppliesItemsInOrderWithinChunk() {
+        // Bob can only pay Alice back because the first transfer in the same chunk funded him
+        BatchTransferResponse response = batchTransferService.transferBatch(List.of(
+                request("Alice", "Bob", 6000L),
+                request("Bob", "Alice", 5000L)));
+
+        assertEquals(2, response.getCompleted());
+        assertEquals(0, response.getFailed());
+
+        ArgumentCaptor<Map<Long, Long>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(transferBatchRepository).applyBalanceDeltas(deltas.capture());
+        assertEquals(-1000L, deltas.getValue().get(10L));
+        assertEquals(1000L, deltas.getValue().get(20L));
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(transferBatchRepository).insertOutboxEvents(events.capture());
+        assertEquals(List.of("Alice", "Bob"), events.getValue().stream().map(OutboxEvent::getEventKey).toList());
+    }
+
+    @Test
+    void testTransferBatchReportsPerItemFailures() {
+        BatchTransferResponse response = batchTransferService.transferBatch(List.of(
+                request("Alice", "Bob", 6000L),
+                request("Alice", "Bob", 6000L),
+                request("Alice", "Nobody", 100L),
+                request("Alice", "Bob", 0L)));
+
+        assertEquals(1, response.getCompleted());
+        assertEquals(3, response.getFailed());
+        assertEquals(TransferStatus.COMPLETED, response.getResults().get(0).getStatus());
+        assertEquals(TransferStatus.INSUFFICIENT_FUNDS, response.getResults().get(1).getStatus());
+        assertEquals(TransferStatus.ALIAS_NOT_FOUND, response.getResults().get(2).getStatus());
+        assertEquals(TransferStatus.INVALID_REQUEST, response.getResults().get(3).getStatus());
+        assertEquals(3, response.getResults().get(3).getIndex());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferBatchCommitsOncePerChunk() {
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request("Alice", "Bob", 100L));
+        }
+
+        BatchTransferResponse response = batchTransferService.transferBatch(requests);
+
+        assertEquals(5, response.getCompleted());
+        verify(transferBatchRepository, times(3)).lockBalances(anyCollection());
+        ArgumentCaptor<List<TransferRecord>> records = ArgumentCaptor.forClass(List.class);
+        verify(transferBatchRepository, times(3)).insertTransactions(records.capture());
+        assertEquals(List.of(2, 2, 1), records.getAllValues().stream().map(List::size).toList());
+    }
+
+    @Test
+    void testTransferBatchMarksChunkFailedWhenCommitFails() {
+        doThrow(new RuntimeException("connection lost")).when(transferBatchRepository).insertTransactions(anyList());
+
+        BatchTransferResponse response = batchTransferService.transferBatch(List.of(request("Alice", "Bob", 100L)));
+
+        assertEquals(0, response.getCompleted());
+        assertEquals(TransferStatus.FAILED, response.getResults().get(0).getStatus());
+        verify(transferBatchRepository, never()).insertOutboxEvents(anyList());
+    }
+
+    @Test
+    void testTransferBatchRejectsOversizedBatch() {
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            requests.add(request("Alice", "Bob", 100L));
+        }
+
+        assertThrows(InvalidRequestException.class, () -> batchTransferService.transferBatch(requests));
+        verifyNoInteractions(aliasRepository, transferBatchRepository);
+    }
+}
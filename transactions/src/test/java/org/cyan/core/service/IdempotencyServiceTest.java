@@ -0,0 +1,105 @@
+package org.cyan.core.service;
+
+import org.cyan.core.data.IdempotencyRecordRepository;
+import org.cyan.exceptions.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final String HASH = IdempotencyService.fingerprint("Alice", "Bob", 3000L);
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, 100, Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testClaimedKeyIsRememberedOnlyAfterCommit() {
+        when(idempotencyRecordRepository.claim(eq("key-1"), eq(HASH), any())).thenReturn(1);
+
+        assertTrue(idempotencyService.claim("key-1", HASH));
+        assertFalse(idempotencyService.isCompleted("key-1", HASH));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(idempotencyService.isCompleted("key-1", HASH));
+    }
+
+    @Test
+    void testRolledBackKeyIsNotRemembered() {
+        when(idempotencyRecordRepository.claim(eq("key-1"), eq(HASH), any())).thenReturn(1);
+
+        idempotencyService.claim("key-1", HASH);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(idempotencyService.isCompleted("key-1", HASH));
+    }
+
+    @Test
+    void testKeyAlreadyInDatabaseIsCachedAsCompleted() {
+        when(idempotencyRecordRepository.claim(eq("key-1"), eq(HASH), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findRequestHash("key-1")).thenReturn(Optional.of(HASH));
+
+        assertFalse(idempotencyService.claim("key-1", HASH));
+        assertTrue(idempotencyService.isCompleted("key-1", HASH));
+    }
+
+    @Test
+    void testKeyReusedForDifferentTransferIsRejected() {
+        String otherHash = IdempotencyService.fingerprint("Alice", "Bob", 9000L);
+        when(idempotencyRecordRepository.claim(eq("key-1"), eq(otherHash), any())).thenReturn(0);
+        when(idempotencyRecordRepository.findRequestHash("key-1")).thenReturn(Optional.of(HASH));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.claim("key-1", otherHash));
+    }
+
+    @Test
+    void testCachedKeyReusedForDifferentTransferIsRejected() {
+        when(idempotencyRecordRepository.claim(eq("key-1"), eq(HASH), any())).thenReturn(1);
+        idempotencyService.claim("key-1", HASH);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThrows(IdempotencyKeyReusedException.class, () ->
+                idempotencyService.isCompleted("key-1", IdempotencyService.fingerprint("Alice", "Carol", 3000L)));
+    }
+
+    @Test
+    void testClaimAndPurgeUseTheSameClock() {
+        LocalDateTime now = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        when(idempotencyRecordRepository.claim("key-1", HASH, now)).thenReturn(1);
+
+        idempotencyService.claim("key-1", HASH);
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyRecordRepository).claim("key-1", HASH, now);
+        verify(idempotencyRecordRepository).deleteCreatedBefore(now.minusHours(1));
+    }
+}
@@ -1,70 +1,94 @@
 package org.cyan.core.service;
 
-import org.cyan.core.data.AliasRepository;
-import org.cyan.core.data.model.Alias;
-import org.cyan.core.data.model.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cyan.core.cache.AliasCache;
+import org.cyan.core.concurrency.TransferConcurrencyControl;
+import org.cyan.core.data.OutboxRepository;
+import org.cyan.core.data.TransactionRepository;
+import org.cyan.core.data.model.AccountRef;
+import org.cyan.core.data.model.OutboxEvent;
+import org.cyan.events.model.TransferEvent;
 import org.cyan.exceptions.AliasNotFoundException;
+import org.cyan.exceptions.IdempotencyKeyReusedException;
 import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.exceptions.InvalidRequestException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.kafka.core.KafkaTemplate;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceTest {
 
+    private static final String HASH = IdempotencyService.fingerprint("Alice", "Bob", 3000L);
+
     @InjectMocks
     private TransactionService transactionService;
 
     @Mock
-    private AliasRepository aliasRepository;
+    private AliasCache aliasCache;
+
+    @Mock
+    private TransferConcurrencyControl concurrencyControl;
+
+    @Mock
+    private TransactionRepository transactionRepository;
 
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private IdempotencyService idempotencyService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
     }
 
-    private Alias createAlias(String name, double balance) {
-        Alias alias = new Alias();
-        alias.setName(name);
-
-        Account account = new Account();
-        account.setBalance(balance);
-        account.setAlias(alias);
-
-        alias.setAccount(account);
-        return alias;
+    private AccountRef createRef(long aliasId, long accountId) {
+        return new AccountRef() {
+            @Override
+            public Long getAliasId() {
+                return aliasId;
+            }
+
+            @Override
+            public Long getAccountId() {
+                return accountId;
+            }
+        };
     }
 
     @Test
-    void testTransferFundsSuccess() {
-        Alias from = createAlias("Alice", 100.0);
-        Alias to = createAlias("Bob", 50.0);
-
-        when(aliasRepository.findByName("Alice")).thenReturn(from);
-        when(aliasRepository.findByName("Bob")).thenReturn(to);
-
-        transactionService.transferFunds("Alice", "Bob", 30.0);
-
-        assertEquals(70.0, from.getAccount().getBalance());
-        assertEquals(80.0, to.getAccount().getBalance());
-
-        verify(aliasRepository).save(from);
-        verify(aliasRepository).save(to);
-        verify(kafkaTemplate).send(eq("transactions"), contains("Alice to Bob amount: 30.0"));
+    void testTransferFundsSuccess() throws Exception {
+        when(aliasCache.resolve("Alice")).thenReturn(createRef(1L, 10L));
+        when(aliasCache.resolve("Bob")).thenReturn(createRef(2L, 20L));
+
+        transactionService.transferFunds("Alice", "Bob", 3000L);
+
+        InOrder inOrder = inOrder(concurrencyControl, transactionRepository, outboxRepository);
+        inOrder.verify(concurrencyControl).transfer(10L, 20L, 3000L);
+        inOrder.verify(transactionRepository).record(1L, 2L, 3000L);
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        inOrder.verify(outboxRepository).save(event.capture());
+        assertEquals("transactions", event.getValue().getTopic());
+        assertEquals("Alice", event.getValue().getEventKey());
+        TransferEvent payload = new ObjectMapper().readValue(event.getValue().getPayload(), TransferEvent.class);
+        assertEquals("Alice", payload.getFromAlias());
+        assertEquals("Bob", payload.getToAlias());
+        assertEquals(10L, payload.getFromAccountId());
+        assertEquals(20L, payload.getToAccountId());
+        assertEquals(3000L, payload.getAmount());
     }
 
     @Test
     void testTransferFundsFromAliasNotFound() {
-        when(aliasRepository.findByName("Unknown")).thenReturn(null);
+        when(aliasCache.resolve("Unknown")).thenReturn(null);
 
         AliasNotFoundException ex = assertThrows(AliasNotFoundException.class, () ->
-                transactionService.transferFunds("Unknown", "Bob", 10.0)
+                transactionService.transferFunds("Unknown", "Bob", 1000L)
         );
 
         assertTrue(ex.getMessage().contains("Alias 'Unknown' not found"));
@@ -72,27 +96,81 @@ class TransactionServiceTest {
 
     @Test
     void testTransferFundsToAliasNotFound() {
-        Alias from = createAlias("Alice", 100.0);
-        when(aliasRepository.findByName("Alice")).thenReturn(from);
-        when(aliasRepository.findByName("Unknown")).thenReturn(null);
+        when(aliasCache.resolve("Alice")).thenReturn(createRef(1L, 10L));
+        when(aliasCache.resolve("Unknown")).thenReturn(null);
 
         AliasNotFoundException ex = assertThrows(AliasNotFoundException.class, () ->
-                transactionService.transferFunds("Alice", "Unknown", 10.0)
+                transactionService.transferFunds("Alice", "Unknown", 1000L)
         );
 
         assertTrue(ex.getMessage().contains("Recipient alias 'Unknown' not found"));
+        verify(concurrencyControl, never()).transfer(anyLong(), anyLong(), anyLong());
     }
 
     @Test
     void testTransferFundsInsufficientBalance() {
-        Alias from = createAlias("Alice", 10.0);
-        Alias to = createAlias("Bob", 50.0);
-
-        when(aliasRepository.findByName("Alice")).thenReturn(from);
-        when(aliasRepository.findByName("Bob")).thenReturn(to);
+        when(aliasCache.resolve("Alice")).thenReturn(createRef(1L, 10L));
+        when(aliasCache.resolve("Bob")).thenReturn(createRef(2L, 20L));
+        doThrow(new InsufficientFundsException("Insufficient funds"))
+                .when(concurrencyControl).transfer(10L, 20L, 10000L);
 
         assertThrows(InsufficientFundsException.class, () ->
-                transactionService.transferFunds("Alice", "Bob", 100.0)
+                transactionService.transferFunds("Alice", "Bob", 10000L)
+        );
+
+        verifyNoInteractions(transactionRepository, outboxRepository);
+    }
+
+    @Test
+    void testTransferFundsRejectsNonPositiveAmount() {
+        assertThrows(InvalidRequestException.class, () ->
+                transactionService.transferFunds("Alice", "Bob", -500L)
         );
+
+        verifyNoInteractions(aliasCache, concurrencyControl, transactionRepository, outboxRepository);
+    }
+
+    @Test
+    void testTransferFundsWithCompletedKeySkipsLedger() {
+        when(idempotencyService.isCompleted("key-1", HASH)).thenReturn(true);
+
+        transactionService.transferFunds("Alice", "Bob", 3000L, "key-1");
+
+        verify(idempotencyService, never()).claim(anyString(), anyString());
+        verifyNoInteractions(aliasCache, concurrencyControl, transactionRepository, outboxRepository);
+    }
+
+    @Test
+    void testTransferFundsWithKeyClaimedElsewhereSkipsLedger() {
+        when(idempotencyService.isCompleted("key-1", HASH)).thenReturn(false);
+        when(idempotencyService.claim("key-1", HASH)).thenReturn(false);
+
+        transactionService.transferFunds("Alice", "Bob", 3000L, "key-1");
+
+        verifyNoInteractions(aliasCache, concurrencyControl, transactionRepository, outboxRepository);
+    }
+
+    @Test
+    void testTransferFundsWithNewKeyMovesMoney() {
+        when(idempotencyService.claim("key-1", HASH)).thenReturn(true);
+        when(aliasCache.resolve("Alice")).thenReturn(createRef(1L, 10L));
+        when(aliasCache.resolve("Bob")).thenReturn(createRef(2L, 20L));
+
+        transactionService.transferFunds("Alice", "Bob", 3000L, "key-1");
+
+        InOrder inOrder = inOrder(idempotencyService, concurrencyControl);
+        inOrder.verify(idempotencyService).claim("key-1", HASH);
+        inOrder.verify(concurrencyControl).transfer(10L, 20L, 3000L);
+        verify(transactionRepository).record(1L, 2L, 3000L);
+    }
+
+    @Test
+    void testTransferFundsWithReusedKeyPropagatesRejection() {
+        when(idempotencyService.isCompleted("key-1", HASH))
+                .thenThrow(new IdempotencyKeyReusedException("reused"));
+
+        assertThrows(IdempotencyKeyReusedException.class, () ->
+                transactionService.transferFunds("Alice", "Bob", 3000L, "key-1"));
+        verifyNoInteractions(aliasCache, concurrencyControl, transactionRepository, outboxRepository);
     }
 }
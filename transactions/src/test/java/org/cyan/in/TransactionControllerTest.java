@@ -1,8 +1,13 @@
 package org.cyan.in;
 
+import org.cyan.core.service.BatchTransferService;
 import org.cyan.core.service.TransactionService;
 import org.cyan.exceptions.AliasNotFoundException;
+import org.cyan.exceptions.IdempotencyKeyReusedException;
 import org.cyan.exceptions.InsufficientFundsException;
+import org.cyan.in.model.BatchTransferResponse;
+import org.cyan.in.model.TransferResult;
+import org.cyan.in.model.TransferStatus;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +16,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-import static org.mockito.ArgumentMatchers.anyDouble;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -27,10 +36,13 @@ public class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private BatchTransferService batchTransferService;
+
     @Test
     void testTransferFunds_Success() throws Exception {
         // Configure mock behavior
-        doNothing().when(transactionService).transferFunds(anyString(), anyString(), anyDouble());
+        doNothing().when(transactionService).transferFunds(anyString(), anyString(), anyLong(), isNull());
 
         // JSON payload for the request body
         String jsonPayload = "{ \"fromAlias\": \"user1\", \"toAlias\": \"user2\", \"amount\": 200.0 }";
@@ -43,14 +55,14 @@ public class TransactionControllerTest {
                 .andExpect(content().string("Transfer successful"));
 
         // Verify method was called once
-        Mockito.verify(transactionService).transferFunds("user1", "user2", 200.0);
+        Mockito.verify(transactionService).transferFunds("user1", "user2", 20000L, null);
     }
 
     @Test
     void testTransferFunds_Failure() throws Exception {
         // Configure mock behavior for insufficient funds scenario
         doThrow(new InsufficientFundsException("Insufficient funds")).when(transactionService)
-                .transferFunds(anyString(), anyString(), anyDouble());
+                .transferFunds(anyString(), anyString(), anyLong(), isNull());
 
         // JSON payload for the request body
         String jsonPayload = "{ \"fromAlias\": \"user1\", \"toAlias\": \"user2\", \"amount\": 1500.0 }";
@@ -62,7 +74,7 @@ public class TransactionControllerTest {
                 .andExpect(status().isBadRequest());
 
         // Verify method was called once
-        Mockito.verify(transactionService).transferFunds("user1", "user2", 1500.0);
+        Mockito.verify(transactionService).transferFunds("user1", "user2", 150000L, null);
     }
 
     @Test
@@ -70,7 +82,7 @@ public class TransactionControllerTest {
         // Mock the service to throw an AliasNotFoundException
         doThrow(new AliasNotFoundException("Alias 'alias1' not found"))
                 .when(transactionService)
-                .transferFunds("alias1", "alias2", 200.0);
+                .transferFunds("alias1", "alias2", 20000L, null);
 
         // JSON payload for the request body
         String jsonPayload = "{ \"fromAlias\": \"alias1\", \"toAlias\": \"alias2\", \"amount\": 200.0 }";
@@ -84,4 +96,67 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$.error").value("Alias not found"))
                 .andExpect(jsonPath("$.message").value("Alias 'alias1' not found"));
     }
+
+    @Test
+    void testTransferFunds_PassesIdempotencyKey() throws Exception {
+        String jsonPayload = "{ \"fromAlias\": \"user1\", \"toAlias\": \"user2\", \"amount\": 200.0 }";
+
+        mockMvc.perform(post("/api/transactions/transfer")
+                        .header("Idempotency-Key", "payroll-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Transfer successful"));
+
+        Mockito.verify(transactionService).transferFunds("user1", "user2", 20000L, "payroll-42");
+    }
+
+    @Test
+    void testTransferFunds_ReusedIdempotencyKeyIsUnprocessable() throws Exception {
+        String jsonPayload = "{ \"fromAlias\": \"user1\", \"toAlias\": \"user2\", \"amount\": 300.0 }";
+        Mockito.doThrow(new IdempotencyKeyReusedException("Idempotency-Key 'payroll-42' was already used for a different transfer"))
+                .when(transactionService).transferFunds("user1", "user2", 30000L, "payroll-42");
+
+        mockMvc.perform(post("/api/transactions/transfer")
+                        .header("Idempotency-Key", "payroll-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").value("Idempotency key reused"));
+    }
+
+    @Test
+    void testTransferFunds_RejectsFractionsOfACent() throws Exception {
+        String jsonPayload = "{ \"fromAlias\": \"user1\", \"toAlias\": \"user2\", \"amount\": 10.005 }";
+
+        mockMvc.perform(post("/api/transactions/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void testTransferBatch_ReturnsPerItemResults() throws Exception {
+        BatchTransferResponse response = BatchTransferResponse.builder()
+                .completed(1)
+                .failed(1)
+                .results(List.of(
+                        TransferResult.builder().index(0).status(TransferStatus.COMPLETED).build(),
+                        TransferResult.builder().index(1).status(TransferStatus.INSUFFICIENT_FUNDS).message("Insufficient funds").build()))
+                .build();
+        Mockito.when(batchTransferService.transferBatch(anyList())).thenReturn(response);
+
+        String jsonPayload = "[{ \"fromAlias\": \"user1\", \"toAlias\": \"user2\", \"amount\": 10.0 },"
+                + " { \"fromAlias\": \"user2\", \"toAlias\": \"user1\", \"amount\": 5000.0 }]";
+
+        mockMvc.perform(post("/api/transactions/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonPayload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("INSUFFICIENT_FUNDS"));
+    }
 }
\ No newline at end of file